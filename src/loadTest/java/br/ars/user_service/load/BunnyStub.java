@@ -0,0 +1,111 @@
+package br.ars.user_service.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Imitação local do Bunny Storage (PUT/DELETE /{zone}/{path}) com latência e erros injetados:
+ * cada requisição espera latencyMs ± jitterMs e falha com 500 na fração errorRate.
+ */
+public final class BunnyStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private BunnyStub(long latencyMs, long jitterMs, double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        this.executor = Executors.newFixedThreadPool(128, r -> {
+            Thread t = new Thread(r, "bunny-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static BunnyStub start(LoadConfig cfg) {
+        try {
+            BunnyStub stub = new BunnyStub(cfg.bunnyLatencyMs(), cfg.bunnyJitterMs(), cfg.bunnyErrorRate());
+            stub.server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível subir o stub do Bunny", e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long puts() { return puts.sum(); }
+
+    public long deletes() { return deletes.sum(); }
+
+    public long injectedErrors() { return injectedErrors.sum(); }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex; InputStream in = ex.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+            String method = ex.getRequestMethod();
+            if ("PUT".equals(method)) puts.increment();
+            else if ("DELETE".equals(method)) deletes.increment();
+
+            sleepLatency();
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            if (rnd.nextDouble() < errorRate) {
+                injectedErrors.increment();
+                reply(ex, 500, "{\"HttpCode\":500,\"Message\":\"Injected failure\"}");
+            } else if ("PUT".equals(method)) {
+                reply(ex, 201, "{\"HttpCode\":201,\"Message\":\"File uploaded.\"}");
+            } else if ("DELETE".equals(method)) {
+                reply(ex, 200, "{\"HttpCode\":200,\"Message\":\"File deleted successfuly.\"}");
+            } else {
+                reply(ex, 404, "{\"HttpCode\":404,\"Message\":\"Object Not Found\"}");
+            }
+        }
+    }
+
+    private void sleepLatency() {
+        long jitter = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1) : 0;
+        long ms = Math.max(0, latencyMs + jitter);
+        if (ms == 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,144 @@
+package br.ars.user_service.load;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import br.ars.user_service.util.UuidV7;
+
+/**
+ * UUID v4 (aleatório, esquema antigo) × UUIDv7 (ordenado por tempo) como PK de users e FK em
+ * user_tags: vazão de insert, tamanho dos índices, densidade das folhas e WAL gerado.
+ * Tabelas no mesmo formato das reais, inserts em lotes como o registro faria sob carga.
+ * Parâmetros: -Pload.ids.rows (padrão 200000), -Pload.ids.batch (padrão 500).
+ */
+@Testcontainers
+class IdSchemeBenchmark {
+
+    private static final int ROWS = Integer.getInteger("load.ids.rows", 200_000);
+    private static final int BATCH = Integer.getInteger("load.ids.batch", 500);
+    private static final int TAGS_PER_USER = 3;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCommand("postgres", "-c", "shared_buffers=64MB");
+
+    @Test
+    void compareIdSchemes() throws Exception {
+        List<Map<String, Object>> results = new ArrayList<>();
+        try (Connection c = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())) {
+            try (Statement st = c.createStatement()) {
+                st.execute("create extension if not exists pgstattuple");
+            }
+            results.add(run(c, "uuid_v4", UUID::randomUUID));
+            results.add(run(c, "uuid_v7", UuidV7::next));
+        }
+
+        System.out.printf("%-8s %10s %12s %12s %12s %10s %10s%n",
+                "esquema", "rows/s", "pk_bytes", "fk_bytes", "wal_bytes", "pk_dens%", "fk_dens%");
+        for (Map<String, Object> r : results) {
+            System.out.printf("%-8s %10.0f %12d %12d %12d %10.1f %10.1f%n",
+                    r.get("scheme"), r.get("rowsPerSecond"), r.get("pkIndexBytes"), r.get("fkIndexBytes"),
+                    r.get("walBytes"), r.get("pkLeafDensity"), r.get("fkLeafDensity"));
+        }
+        File out = new File(System.getProperty("load.reportDir", "build/load"), "id-scheme-benchmark.json");
+        out.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, results);
+    }
+
+    private Map<String, Object> run(Connection c, String scheme, Supplier<UUID> ids) throws Exception {
+        String users = "users_" + scheme;
+        String tags = "user_tags_" + scheme;
+        try (Statement st = c.createStatement()) {
+            st.execute("drop table if exists " + tags + ", " + users);
+            st.execute("create table " + users + " (id uuid primary key, nome varchar(255), email_key varchar(320), "
+                    + "data_criacao timestamp default now(), versao bigint default 0 not null)");
+            st.execute("create table " + tags + " (user_id uuid not null references " + users + "(id), tag varchar(255))");
+            st.execute("create index ix_" + tags + "_user on " + tags + "(user_id)");
+        }
+
+        long walStart = walLsn(c);
+        long t0 = System.nanoTime();
+        c.setAutoCommit(false);
+        try (PreparedStatement pu = c.prepareStatement("insert into " + users + " (id, nome, email_key) values (?, ?, ?)");
+             PreparedStatement pt = c.prepareStatement("insert into " + tags + " (user_id, tag) values (?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                UUID id = ids.get();
+                pu.setObject(1, id);
+                pu.setString(2, "Usuario " + i);
+                pu.setString(3, "user" + i + "@bench.local");
+                pu.addBatch();
+                for (int t = 0; t < TAGS_PER_USER; t++) {
+                    pt.setObject(1, id);
+                    pt.setString(2, "tag" + (i % 50 + t));
+                    pt.addBatch();
+                }
+                if (i % BATCH == 0 || i == ROWS) {
+                    pu.executeBatch();
+                    pt.executeBatch();
+                    c.commit();
+                }
+            }
+        } finally {
+            c.setAutoCommit(true);
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        long walBytes = walLsn(c) - walStart;
+
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("scheme", scheme);
+        r.put("rows", ROWS);
+        r.put("rowsPerSecond", ROWS / seconds);
+        r.put("pkIndexBytes", relationSize(c, users + "_pkey"));
+        r.put("fkIndexBytes", relationSize(c, "ix_" + tags + "_user"));
+        r.put("walBytes", walBytes);
+        r.put("pkLeafDensity", leafDensity(c, users + "_pkey"));
+        r.put("fkLeafDensity", leafDensity(c, "ix_" + tags + "_user"));
+        return r;
+    }
+
+    private static long walLsn(Connection c) throws Exception {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("select pg_current_wal_lsn() - '0/0'::pg_lsn")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static long relationSize(Connection c, String rel) throws Exception {
+        try (PreparedStatement ps = c.prepareStatement("select pg_relation_size(?::regclass)")) {
+            ps.setString(1, rel);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // % de ocupação das folhas do B-tree: page split aleatório deixa folhas pela metade
+    private static double leafDensity(Connection c, String index) throws Exception {
+        try (PreparedStatement ps = c.prepareStatement("select avg_leaf_density from pgstatindex(?)")) {
+            ps.setString(1, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getDouble(1);
+            }
+        }
+    }
+}
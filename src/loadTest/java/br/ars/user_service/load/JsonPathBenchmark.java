@@ -0,0 +1,157 @@
+package br.ars.user_service.load;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import br.ars.user_service.controller.UserController.UserResponse;
+import br.ars.user_service.dto.PerfilResponse;
+import br.ars.user_service.dto.RegisterRequest;
+import br.ars.user_service.dto.RegisterResponse;
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.web.JsonBodies;
+
+/**
+ * JSON nos caminhos quentes, antes × depois, por tipo de requisição (JMH + GCProfiler: ns/op e bytes alocados/op):
+ * <ul>
+ *   <li>register: part "data" como String + readValue(String) + Map.of no 202 × stream do part + record;</li>
+ *   <li>rejection: Map.of + Jackson no 503 queue_full × prefixo pré-serializado;</li>
+ *   <li>perfil / user: serialização por reflection × Blackbird.</li>
+ * </ul>
+ * Relatório em build/load/json-path-jmh.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonPathBenchmark {
+
+    private final ObjectMapper reflection = mapper(false);
+    private final ObjectMapper blackbird = mapper(true);
+
+    private final byte[] registerPart = ("{\"nome\":\"Maria Silva\",\"email\":\"maria.silva@example.com\","
+            + "\"telefone\":\"+5511999990000\",\"senha\":\"s3nh4-f0rte\",\"tipo\":\"PROFISSIONAL\","
+            + "\"bio\":\"Engenheira de software, 10 anos de backend.\",\"tags\":[\"java\",\"spring\",\"postgres\"]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final UserView view = new UserView(UUID.randomUUID(), "Maria Silva", "maria.silva@example.com",
+            "maria.silva@example.com", "+5511999990000", "PROFISSIONAL", "Engenheira de software, 10 anos de backend.",
+            List.of("java", "spring", "postgres"), "https://cdn.example.com/avatars/maria.jpg", LocalDateTime.now(), 3L);
+
+    private final UUID ticket = UUID.randomUUID();
+
+    // ---- register
+
+    @Benchmark
+    public byte[] registerBefore() throws Exception {
+        String data = new String(registerPart, StandardCharsets.UTF_8);
+        RegisterRequest req = reflection.readValue(data, RegisterRequest.class);
+        return reflection.writeValueAsBytes(Map.of("status", "accepted", "ticket", ticket, "coalesced", false,
+                "queueSize", req.getNome().length(), "expectedWaitMs", 120L));
+    }
+
+    @Benchmark
+    public byte[] registerAfter() throws Exception {
+        RegisterRequest req = blackbird.readValue(new ByteArrayInputStream(registerPart), RegisterRequest.class);
+        return blackbird.writeValueAsBytes(RegisterResponse.accepted(ticket, false, req.getNome().length(), 120L));
+    }
+
+    // ---- rejeição por backpressure
+
+    @Benchmark
+    public byte[] rejectionBefore() throws Exception {
+        return reflection.writeValueAsBytes(Map.of("status", "queue_full",
+                "message", "Sistema em pico. Tente novamente em instantes.", "expectedWaitMs", 1500L));
+    }
+
+    @Benchmark
+    public byte[] rejectionAfter() {
+        return JsonBodies.QUEUE_FULL.render(1500L);
+    }
+
+    // ---- leituras (miss no cache de bytes)
+
+    @Benchmark
+    public byte[] perfilBefore() throws Exception {
+        return reflection.writeValueAsBytes(PerfilResponse.from(view));
+    }
+
+    @Benchmark
+    public byte[] perfilAfter() throws Exception {
+        return blackbird.writeValueAsBytes(PerfilResponse.from(view));
+    }
+
+    @Benchmark
+    public byte[] userBefore() throws Exception {
+        return reflection.writeValueAsBytes(UserResponse.from(view));
+    }
+
+    @Benchmark
+    public byte[] userAfter() throws Exception {
+        return blackbird.writeValueAsBytes(UserResponse.from(view));
+    }
+
+    @Test
+    void compareJsonPaths() throws Exception {
+        File dir = new File(System.getProperty("load.reportDir", "build/load"));
+        dir.mkdirs();
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(JsonPathBenchmark.class.getName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(dir, "json-path-jmh.json").getAbsolutePath())
+                .build()).run();
+
+        List<String> lines = new ArrayList<>();
+        for (RunResult r : results) {
+            String method = r.getParams().getBenchmark();
+            // JMH < 1.36 prefixava os resultados de profiler com "·"
+            Result<?> alloc = r.getSecondaryResults().getOrDefault("gc.alloc.rate.norm",
+                    r.getSecondaryResults().get("·gc.alloc.rate.norm"));
+            lines.add(String.format("%-18s %12.1f %12.0f", method.substring(method.lastIndexOf('.') + 1),
+                    r.getPrimaryResult().getScore(), alloc != null ? alloc.getScore() : Double.NaN));
+        }
+        System.out.printf("%-18s %12s %12s%n", "caso", "ns/op", "bytes/op");
+        lines.stream().sorted().forEach(System.out::println);
+    }
+
+    // mesmo formato do ObjectMapper do Spring Boot (datas ISO), com ou sem Blackbird
+    private static ObjectMapper mapper(boolean withBlackbird) {
+        JsonMapper.Builder b = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (withBlackbird) b.addModule(new BlackbirdModule());
+        return b.build();
+    }
+}
@@ -0,0 +1,78 @@
+package br.ars.user_service.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos de system properties {@code load.*}
+ * (o Gradle repassa {@code -Pload.rate=300} etc.).
+ */
+public record LoadConfig(
+        double ratePerSecond,
+        int warmupSeconds,
+        int durationSeconds,
+        int weightRegister,
+        int weightLogin,
+        int weightPerfil,
+        int weightExists,
+        int seedUsers,
+        int clients,
+        int maxInFlight,
+        long bunnyLatencyMs,
+        long bunnyJitterMs,
+        double bunnyErrorRate,
+        int rateLimit,
+        double tolerance,
+        boolean updateBaseline,
+        String reportDir,
+        String baselineFile) {
+
+    public static LoadConfig fromSystem() {
+        return new LoadConfig(
+                dbl("load.rate", 100),
+                integer("load.warmupSeconds", 5),
+                integer("load.durationSeconds", 30),
+                integer("load.mix.register", 10),
+                integer("load.mix.login", 20),
+                integer("load.mix.perfil", 40),
+                integer("load.mix.exists", 30),
+                integer("load.seedUsers", 50),
+                integer("load.clients", 20),
+                integer("load.maxInFlight", 2000),
+                integer("load.bunny.latencyMs", 80),
+                integer("load.bunny.jitterMs", 40),
+                dbl("load.bunny.errorRate", 0.01),
+                integer("load.rateLimit", 1_000_000),
+                dbl("load.tolerance", 0.20),
+                Boolean.parseBoolean(System.getProperty("load.updateBaseline", "false")),
+                System.getProperty("load.reportDir", "build/load"),
+                System.getProperty("load.baselineFile", "src/loadTest/resources/load-baseline.json"));
+    }
+
+    /** O que vai para o relatório (e o que precisa bater para a comparação com o baseline fazer sentido). */
+    public Map<String, Object> describe() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ratePerSecond", ratePerSecond);
+        m.put("durationSeconds", durationSeconds);
+        Map<String, Object> mix = new LinkedHashMap<>();
+        mix.put("register", weightRegister);
+        mix.put("login", weightLogin);
+        mix.put("perfil", weightPerfil);
+        mix.put("exists", weightExists);
+        m.put("mix", mix);
+        m.put("seedUsers", seedUsers);
+        m.put("clients", clients);
+        m.put("bunnyLatencyMs", bunnyLatencyMs);
+        m.put("bunnyJitterMs", bunnyJitterMs);
+        m.put("bunnyErrorRate", bunnyErrorRate);
+        return m;
+    }
+
+    private static int integer(String key, int def) {
+        return Integer.parseInt(System.getProperty(key, String.valueOf(def)));
+    }
+
+    private static double dbl(String key, double def) {
+        return Double.parseDouble(System.getProperty(key, String.valueOf(def)));
+    }
+}
@@ -0,0 +1,111 @@
+package br.ars.user_service.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Resultado de uma execução: percentis, vazão e taxas de 429/503 por operação.
+ * Serializado em JSON para virar baseline e ser comparado com as execuções seguintes.
+ */
+public record LoadReport(String startedAt, Map<String, Object> config, List<OpStats> operations,
+                         double totalThroughput, long droppedByGenerator) {
+
+    public record OpStats(String op, long count, double throughput,
+                          double p50Ms, double p99Ms, double p999Ms, double maxMs,
+                          double rate429, double rate503, double errorRate) {}
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static LoadReport of(LoadConfig cfg, Instant startedAt, OpenModelLoadGenerator.Result r) {
+        List<OpStats> ops = new ArrayList<>();
+        double total = 0;
+        for (Map.Entry<String, Histogram> e : r.latencyNanos().entrySet()) {
+            Histogram h = e.getValue();
+            Map<Integer, Long> codes = r.statusCounts().get(e.getKey());
+            long count = h.getTotalCount();
+            double throughput = (double) count / r.durationSeconds();
+            total += throughput;
+            ops.add(new OpStats(e.getKey(), count, round(throughput),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()),
+                    rate(codes, count, 429), rate(codes, count, 503), rate(codes, count, -1)));
+        }
+        return new LoadReport(startedAt.toString(), cfg.describe(), ops, round(total), r.droppedByGenerator());
+    }
+
+    /**
+     * Regressões em relação ao baseline: p99 ou vazão piores que a tolerância relativa, ou taxa de
+     * 429/503/erro mais de 1 ponto percentual acima. Operações novas (sem baseline) são ignoradas.
+     */
+    public List<String> regressionsAgainst(LoadReport baseline, double tolerance) {
+        List<String> out = new ArrayList<>();
+        // compara pela forma textual: números voltam do JSON como Integer/Double
+        if (!String.valueOf(baseline.config()).equals(String.valueOf(config()))) {
+            out.add("configuração diferente do baseline: " + baseline.config() + " → " + config());
+            return out;
+        }
+        for (OpStats cur : operations) {
+            OpStats base = baseline.operations().stream().filter(b -> b.op().equals(cur.op())).findFirst().orElse(null);
+            if (base == null) continue;
+            if (cur.p99Ms() > base.p99Ms() * (1 + tolerance)) {
+                out.add(cur.op() + ": p99 " + base.p99Ms() + "ms → " + cur.p99Ms() + "ms");
+            }
+            if (cur.throughput() < base.throughput() * (1 - tolerance)) {
+                out.add(cur.op() + ": vazão " + base.throughput() + "/s → " + cur.throughput() + "/s");
+            }
+            if (cur.rate429() > base.rate429() + 0.01) {
+                out.add(cur.op() + ": 429 " + base.rate429() + " → " + cur.rate429());
+            }
+            if (cur.rate503() > base.rate503() + 0.01) {
+                out.add(cur.op() + ": 503 " + base.rate503() + " → " + cur.rate503());
+            }
+            if (cur.errorRate() > base.errorRate() + 0.01) {
+                out.add(cur.op() + ": erros " + base.errorRate() + " → " + cur.errorRate());
+            }
+        }
+        return out;
+    }
+
+    public String table() {
+        StringBuilder sb = new StringBuilder(String.format("%-9s %8s %9s %9s %9s %9s %9s %7s %7s %7s%n",
+                "op", "count", "req/s", "p50ms", "p99ms", "p999ms", "maxms", "429", "503", "err"));
+        for (OpStats s : operations) {
+            sb.append(String.format("%-9s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %7.3f %7.3f %7.3f%n",
+                    s.op(), s.count(), s.throughput(), s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs(),
+                    s.rate429(), s.rate503(), s.errorRate()));
+        }
+        sb.append(String.format("total %.1f req/s | descartadas pelo gerador=%d%n", totalThroughput, droppedByGenerator));
+        return sb.toString();
+    }
+
+    public void write(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) throw new IOException("não criou " + dir);
+        JSON.writeValue(file, this);
+    }
+
+    public static LoadReport read(File file) throws IOException {
+        return JSON.readValue(file, LoadReport.class);
+    }
+
+    private static double rate(Map<Integer, Long> codes, long count, int status) {
+        if (count == 0) return 0;
+        return round((double) codes.getOrDefault(status, 0L) / count);
+    }
+
+    private static double ms(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 1000) / 1000.0;
+    }
+}
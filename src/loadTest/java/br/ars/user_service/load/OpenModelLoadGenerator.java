@@ -0,0 +1,135 @@
+package br.ars.user_service.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Gerador de carga em modelo aberto: as chegadas seguem um processo de Poisson na taxa
+ * configurada, independente de quanto o servidor demora a responder (como usuários reais).
+ * A latência é medida a partir do instante <i>planejado</i> da chegada, então atraso do próprio
+ * gerador conta contra o servidor em vez de sumir das estatísticas (coordinated omission).
+ */
+public final class OpenModelLoadGenerator {
+
+    /** Uma operação da mistura: dispara a requisição e completa com o status HTTP. */
+    public record Operation(String name, int weight, Supplier<CompletableFuture<Integer>> fire) {}
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final List<Operation> ops;
+    private final int totalWeight;
+    private final double ratePerSecond;
+    private final int maxInFlight;
+
+    private final Map<String, Recorder> latency = new LinkedHashMap<>();
+    private final Map<String, Map<Integer, LongAdder>> statuses = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder droppedByGenerator = new LongAdder();
+
+    public OpenModelLoadGenerator(List<Operation> ops, double ratePerSecond, int maxInFlight) {
+        this.ops = List.copyOf(ops);
+        this.totalWeight = ops.stream().mapToInt(Operation::weight).sum();
+        if (totalWeight <= 0 || ratePerSecond <= 0) throw new IllegalArgumentException("mistura ou taxa inválida");
+        this.ratePerSecond = ratePerSecond;
+        this.maxInFlight = maxInFlight;
+        for (Operation op : ops) {
+            latency.put(op.name(), new Recorder(MAX_LATENCY_NANOS, 3));
+            statuses.put(op.name(), new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Roda aquecimento + medição. Só chegadas planejadas dentro da janela de medição entram no resultado;
+     * no fim espera as requisições ainda em voo (até 30s).
+     */
+    public Result run(int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        double meanGapNanos = 1e9 / ratePerSecond;
+
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        long intended = start;
+        while (true) {
+            // gap exponencial → chegadas de Poisson
+            intended += (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+            if (intended >= end) break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            boolean measured = intended >= measureFrom;
+            Operation op = pick();
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                if (measured) droppedByGenerator.increment();
+                continue;
+            }
+            long intendedAt = intended;
+            CompletableFuture<Integer> f;
+            try {
+                f = op.fire().get();
+            } catch (RuntimeException e) {
+                f = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<?> done = f.handle((status, err) -> {
+                inFlight.decrementAndGet();
+                if (measured) record(op.name(), intendedAt, err != null ? -1 : status);
+                return null;
+            });
+            if (measured) pending.add(done);
+        }
+
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // requisições ainda presas ficam fora do resultado; aparecem como contagem menor
+        }
+        return snapshot(durationSeconds);
+    }
+
+    private Operation pick() {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation op : ops) {
+            r -= op.weight();
+            if (r < 0) return op;
+        }
+        return ops.get(ops.size() - 1);
+    }
+
+    private void record(String op, long intendedNanos, int status) {
+        long latencyNanos = Math.min(MAX_LATENCY_NANOS, Math.max(0, System.nanoTime() - intendedNanos));
+        latency.get(op).recordValue(latencyNanos);
+        statuses.get(op).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    private Result snapshot(int durationSeconds) {
+        Map<String, Histogram> hist = new LinkedHashMap<>();
+        Map<String, Map<Integer, Long>> codes = new LinkedHashMap<>();
+        for (Operation op : ops) {
+            hist.put(op.name(), latency.get(op.name()).getIntervalHistogram());
+            Map<Integer, Long> c = new LinkedHashMap<>();
+            statuses.get(op.name()).forEach((k, v) -> c.put(k, v.sum()));
+            codes.put(op.name(), c);
+        }
+        return new Result(hist, codes, droppedByGenerator.sum(), durationSeconds);
+    }
+
+    /** Histograma de latência (ns) e contagem por status (-1 = erro de transporte) por operação. */
+    public record Result(Map<String, Histogram> latencyNanos,
+                         Map<String, Map<Integer, Long>> statusCounts,
+                         long droppedByGenerator,
+                         int durationSeconds) {}
+}
@@ -0,0 +1,212 @@
+package br.ars.user_service.load;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import br.ars.user_service.queue.FairQueue;
+import br.ars.user_service.queue.WaitStrategy;
+
+/**
+ * Hand-off do registro (Tomcat → workers) com 1 a 200 produtores e 8 consumidores, em JMH:
+ * FairQueue com lock único (implementação anterior, copiada abaixo como baseline), FairQueue com ring
+ * MPSC em cada estratégia de espera e LinkedBlockingQueue como referência.
+ * Cada produtor é um cliente (lane) diferente; a medida é hand-offs aceitos por µs.
+ * Parâmetros: -Pload.queue.producers (padrão 1,8,50,200), -Pload.queue.consumers (padrão 8).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationQueueBenchmark {
+
+    private static final int CAPACITY = 2000;
+    private static final int LANE_CAPACITY = 50;
+    private static final Object ITEM = new Object();
+
+    interface Handoff {
+        boolean offer(String key, Object item);
+
+        Object poll() throws InterruptedException;
+    }
+
+    @Param({"locked-fair", "ring-blocking", "ring-sleeping", "ring-busy-spin", "linked-blocking"})
+    public String impl;
+
+    private Handoff queue;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        queue = switch (impl) {
+            case "locked-fair" -> {
+                LockedFairQueue<Object> q = new LockedFairQueue<>(CAPACITY, LANE_CAPACITY);
+                yield handoff(q::offer, () -> q.poll(1, TimeUnit.MILLISECONDS));
+            }
+            case "linked-blocking" -> {
+                LinkedBlockingQueue<Object> q = new LinkedBlockingQueue<>(CAPACITY);
+                yield handoff((k, item) -> q.offer(item), () -> q.poll(1, TimeUnit.MILLISECONDS));
+            }
+            default -> {
+                FairQueue<Object> q = new FairQueue<>(CAPACITY, LANE_CAPACITY,
+                        WaitStrategy.parse(impl.substring("ring-".length())), 64);
+                yield handoff((k, item) -> q.offer(k, 1, item) == FairQueue.Offer.OK, () -> q.poll(1, TimeUnit.MILLISECONDS));
+            }
+        };
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        String key;
+
+        @Setup
+        public void setup(ThreadParams t) {
+            key = "10.0." + (t.getThreadIndex() / 256) + "." + (t.getThreadIndex() % 256);
+        }
+    }
+
+    // lane cheia: tenta de novo por um tempo curto (o produtor real devolveria 429)
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public boolean offer(Producer p) {
+        for (int i = 0; i < 1000; i++) {
+            if (queue.offer(p.key, ITEM)) return true;
+            Thread.onSpinWait();
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public Object take() throws InterruptedException {
+        return queue.poll();
+    }
+
+    @Test
+    void compareHandoff() throws Exception {
+        int consumers = Integer.getInteger("load.queue.consumers", 8);
+        int[] producers = Arrays.stream(System.getProperty("load.queue.producers", "1,8,50,200").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        File dir = new File(System.getProperty("load.reportDir", "build/load"));
+        dir.mkdirs();
+
+        List<String> lines = new ArrayList<>();
+        for (int p : producers) {
+            Collection<RunResult> results = new Runner(new OptionsBuilder()
+                    .include(RegistrationQueueBenchmark.class.getName() + "\\.")
+                    .threadGroups(p, consumers)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(dir, "registration-queue-jmh-p" + p + ".json").getAbsolutePath())
+                    .build()).run();
+            for (RunResult r : results) {
+                double offers = r.getSecondaryResults().get("offer").getScore();
+                lines.add(String.format("%10d %-16s %14.3f", p, r.getParams().getParam("impl"), offers));
+            }
+        }
+        System.out.printf("%10s %-16s %14s%n", "produtores", "fila", "handoffs/us");
+        lines.forEach(System.out::println);
+    }
+
+    private static Handoff handoff(BiPredicate<String, Object> offer, PollFn poll) {
+        return new Handoff() {
+            public boolean offer(String key, Object item) { return offer.test(key, item); }
+
+            public Object poll() throws InterruptedException { return poll.poll(); }
+        };
+    }
+
+    interface PollFn {
+        Object poll() throws InterruptedException;
+    }
+
+    /** FairQueue antes do ring: um ReentrantLock para offer e take (só o necessário para o benchmark). */
+    static final class LockedFairQueue<T> {
+        private final int capacity;
+        private final int laneCapacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Map<String, ArrayDeque<T>> lanes = new HashMap<>();
+        private final ArrayDeque<ArrayDeque<T>> active = new ArrayDeque<>();
+        private final Map<ArrayDeque<T>, String> keys = new HashMap<>();
+        private int size;
+
+        LockedFairQueue(int capacity, int laneCapacity) {
+            this.capacity = capacity;
+            this.laneCapacity = laneCapacity;
+        }
+
+        boolean offer(String key, T item) {
+            lock.lock();
+            try {
+                ArrayDeque<T> lane = lanes.get(key);
+                if (lane != null && lane.size() >= laneCapacity) return false;
+                if (size >= capacity) return false;
+                if (lane == null) {
+                    lane = new ArrayDeque<>();
+                    lanes.put(key, lane);
+                    keys.put(lane, key);
+                }
+                lane.addLast(item);
+                if (lane.size() == 1) active.addLast(lane);
+                size++;
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        T poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (size == 0) {
+                    if (nanos <= 0L) return null;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                ArrayDeque<T> lane = active.pollFirst();
+                T item = lane.pollFirst();
+                size--;
+                if (lane.isEmpty()) lanes.remove(keys.remove(lane));
+                else active.addLast(lane);
+                return item;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
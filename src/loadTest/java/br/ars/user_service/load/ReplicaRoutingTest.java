@@ -0,0 +1,157 @@
+package br.ars.user_service.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.Container.ExecResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import br.ars.user_service.security.JwtUtil;
+import br.ars.user_service.util.UuidV7;
+
+/**
+ * Roteamento primário/réplica com dois Postgres independentes (sem replicação entre eles): a "réplica"
+ * só recebe o schema, então o que ela devolve mostra para onde a leitura foi.
+ * <ol>
+ *   <li>usuário gravado só no primário: GET /{id} vai à réplica → 404;</li>
+ *   <li>PATCH (escrita no primário) → read-your-writes: GET /{id} logo depois vai ao primário → 200;</li>
+ *   <li>janela vencida: volta à réplica → 404;</li>
+ *   <li>réplica derrubada: leitura cai no primário → 200.</li>
+ * </ol>
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReplicaRoutingTest {
+
+    private static final long READ_YOUR_WRITES_MS = 1500;
+
+    @Container
+    static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static final BunnyStub BUNNY = BunnyStub.start(LoadConfig.fromSystem());
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        r.add("spring.datasource.username", PRIMARY::getUsername);
+        r.add("spring.datasource.password", PRIMARY::getPassword);
+        r.add("app.datasource.replica.url", REPLICA::getJdbcUrl);
+        r.add("app.datasource.replica.username", REPLICA::getUsername);
+        r.add("app.datasource.replica.password", REPLICA::getPassword);
+        r.add("app.datasource.replica.read-your-writes-ms", () -> Long.toString(READ_YOUR_WRITES_MS));
+        r.add("app.datasource.replica.retry-after-ms", () -> "60000");
+        r.add("bunny.storage.base-url", BUNNY::baseUrl);
+        r.add("bunny.storage.zone-name", () -> "load-zone");
+        r.add("bunny.storage.access-key", () -> "load-key");
+        r.add("bunny.cdn.base-url", () -> "http://cdn.load.local");
+        r.add("app.registration.mx-check.enabled", () -> "false");
+        // índices em memória carregariam da réplica antes de ela ter o schema
+        r.add("app.search.tag-index.enabled", () -> "false");
+        r.add("app.search.suggest.enabled", () -> "false");
+        r.add("app.startup.warmup.enabled", () -> "false");
+        r.add("logging.level.root", () -> "WARN");
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JwtUtil jwt;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void routesReadsByTransactionAndFallsBackToPrimary() throws Exception {
+        copySchemaToReplica();
+        UUID id = insertOnPrimary();
+
+        assertEquals(404, get("/api/users/" + id), "leitura sem escrita recente deveria ir à réplica");
+        assertTrue(metric("db.route.connections", "route:replica") > 0);
+
+        assertEquals(200, patch("/api/users/" + id, jwt.generateToken(id, "replica-" + id + "@load.local"),
+                "{\"bio\":\"nova bio\"}"));
+        assertEquals(200, get("/api/users/" + id), "read-your-writes deveria ler do primário");
+
+        Thread.sleep(READ_YOUR_WRITES_MS + 500);
+        assertEquals(404, get("/api/users/" + id), "janela vencida: de volta à réplica");
+
+        REPLICA.stop();
+        assertEquals(200, get("/api/users/" + id), "réplica fora: fallback para o primário");
+    }
+
+    // schema criado pelo Hibernate no primário, aplicado na réplica com psql (pg_dump pode trazer meta-comandos)
+    private static void copySchemaToReplica() throws Exception {
+        ExecResult dump = PRIMARY.execInContainer("pg_dump", "-s", "-O", "-x",
+                "-U", PRIMARY.getUsername(), PRIMARY.getDatabaseName());
+        assertEquals(0, dump.getExitCode(), dump.getStderr());
+        REPLICA.copyFileToContainer(Transferable.of(dump.getStdout().getBytes(StandardCharsets.UTF_8)), "/tmp/schema.sql");
+        ExecResult restore = REPLICA.execInContainer("psql", "-v", "ON_ERROR_STOP=1", "-q",
+                "-U", REPLICA.getUsername(), "-d", REPLICA.getDatabaseName(), "-f", "/tmp/schema.sql");
+        assertEquals(0, restore.getExitCode(), restore.getStderr());
+    }
+
+    private static UUID insertOnPrimary() throws Exception {
+        UUID id = UuidV7.next();
+        try (Connection c = DriverManager.getConnection(PRIMARY.getJdbcUrl(), PRIMARY.getUsername(), PRIMARY.getPassword());
+             PreparedStatement ps = c.prepareStatement("insert into users (id, nome, email, email_key, telefone, senha, tipo, versao, data_criacao) "
+                     + "values (?, 'Replica Teste', ?, ?, ?, 'x', 'PROFISSIONAL', 0, now())")) {
+            String email = "replica-" + id + "@load.local";
+            ps.setObject(1, id);
+            ps.setString(2, email);
+            ps.setString(3, email);
+            ps.setString(4, "+55" + Math.abs(id.getLeastSignificantBits() % 1_000_000_000L));
+            ps.executeUpdate();
+        }
+        return id;
+    }
+
+    private int get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(10)).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int patch(String path, String token, String body) throws Exception {
+        return http.send(HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(10))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", "Bearer " + token)
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private double metric(String name, String tag) throws Exception {
+        HttpResponse<String> resp = http.send(HttpRequest.newBuilder(uri("/actuator/metrics/" + name + "?tag=" + tag)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode m = json.readTree(resp.body());
+        return m.path("measurements").path(0).path("value").asDouble();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
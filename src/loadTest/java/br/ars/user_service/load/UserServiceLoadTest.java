@@ -0,0 +1,236 @@
+package br.ars.user_service.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Teste de carga ponta a ponta: app real + Postgres em container + stub do Bunny.
+ * Mistura register / login / perfil / exists em modelo aberto e compara com o baseline
+ * (load-baseline.json). Sem baseline, ou com -Pload.updateBaseline=true, grava o atual como baseline.
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserServiceLoadTest {
+
+    private static final LoadConfig CFG = LoadConfig.fromSystem();
+    private static final String PASSWORD = "Senha-de-carga-123";
+    // JPEG mínimo: o conteúdo não importa para o stub, só o tamanho/ct
+    private static final byte[] AVATAR = new byte[16 * 1024];
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static final BunnyStub BUNNY = BunnyStub.start(CFG);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        r.add("spring.datasource.username", POSTGRES::getUsername);
+        r.add("spring.datasource.password", POSTGRES::getPassword);
+        r.add("bunny.storage.base-url", BUNNY::baseUrl);
+        r.add("bunny.storage.zone-name", () -> "load-zone");
+        r.add("bunny.storage.access-key", () -> "load-key");
+        r.add("bunny.cdn.base-url", () -> "http://cdn.load.local");
+        // sem DNS externo no ambiente de carga
+        r.add("app.registration.mx-check.enabled", () -> "false");
+        // todo o tráfego sai de um IP só: o limite por IP mediria o gerador, não o serviço
+        r.add("app.rate-limit.limit", CFG::rateLimit);
+        // cada cliente simulado é uma API key cadastrada (key desconhecida cairia na lane do IP único)
+        r.add("app.registration.queue.api-keys", () -> IntStream.range(0, CFG.clients())
+                .mapToObj(i -> "client-" + i).collect(Collectors.joining(",")));
+        r.add("spring.jpa.show-sql", () -> "false");
+        r.add("logging.level.root", () -> "WARN");
+        r.add("logging.level.br.ars", () -> "WARN");
+        r.add("logging.level.org.hibernate.SQL", () -> "WARN");
+        r.add("logging.level.org.hibernate.type.descriptor.sql", () -> "WARN");
+    }
+
+    @LocalServerPort
+    int port;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final AtomicLong registerSeq = new AtomicLong();
+    // telefone é único na tabela: um por registro (seed e carga), senão só o primeiro entraria
+    private final AtomicLong phoneSeq = new AtomicLong();
+    private final List<String> seeded = new ArrayList<>();
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+    @AfterAll
+    static void stopStub() {
+        BUNNY.close();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        seedUsers();
+
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(List.of(
+                new OpenModelLoadGenerator.Operation("register", CFG.weightRegister(), this::register),
+                new OpenModelLoadGenerator.Operation("login", CFG.weightLogin(), this::login),
+                new OpenModelLoadGenerator.Operation("perfil", CFG.weightPerfil(), this::perfil),
+                new OpenModelLoadGenerator.Operation("exists", CFG.weightExists(), this::exists)
+        ), CFG.ratePerSecond(), CFG.maxInFlight());
+
+        Instant startedAt = Instant.now();
+        OpenModelLoadGenerator.Result result = generator.run(CFG.warmupSeconds(), CFG.durationSeconds());
+        LoadReport report = LoadReport.of(CFG, startedAt, result);
+
+        System.out.println(report.table());
+        System.out.printf("bunny stub: puts=%d deletes=%d erros injetados=%d%n",
+                BUNNY.puts(), BUNNY.deletes(), BUNNY.injectedErrors());
+
+        File current = new File(CFG.reportDir(), "load-report-" + startedAt.toEpochMilli() + ".json");
+        report.write(current);
+        report.write(new File(CFG.reportDir(), "load-report-latest.json"));
+
+        File baselineFile = new File(CFG.baselineFile());
+        if (CFG.updateBaseline() || !baselineFile.isFile()) {
+            report.write(baselineFile);
+            System.out.println("Baseline gravado em " + baselineFile);
+            return;
+        }
+        List<String> regressions = report.regressionsAgainst(LoadReport.read(baselineFile), CFG.tolerance());
+        regressions.forEach(r -> System.out.println("REGRESSÃO: " + r));
+        assertTrue(regressions.isEmpty(), "Regressões em relação ao baseline: " + regressions);
+    }
+
+    // ===================== preparação =====================
+
+    private void seedUsers() throws Exception {
+        for (int i = 0; i < CFG.seedUsers(); i++) {
+            String email = "seed-" + i + "-" + UUID.randomUUID() + "@load.local";
+            seeded.add(email);
+            register(email, "seed").join();
+        }
+        // registro é assíncrono (fila): espera todos aparecerem antes de medir
+        long deadline = System.nanoTime() + Duration.ofSeconds(120).toNanos();
+        for (String email : seeded) {
+            while (!existsNow(email)) {
+                if (System.nanoTime() > deadline) throw new IllegalStateException("Seed não concluído: " + email);
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private boolean existsNow(String email) throws Exception {
+        HttpResponse<String> r = http.send(get("/exists?email=" + enc(email)).build(), HttpResponse.BodyHandlers.ofString());
+        return r.statusCode() == 200 && r.body().contains("true");
+    }
+
+    // ===================== operações =====================
+
+    private CompletableFuture<Integer> register() {
+        String email = "load-" + registerSeq.incrementAndGet() + "-" + UUID.randomUUID() + "@load.local";
+        return register(email, "client-" + ThreadLocalRandom.current().nextInt(CFG.clients()));
+    }
+
+    private CompletableFuture<Integer> register(String email, String apiKey) {
+        String boundary = "----load" + UUID.randomUUID();
+        String phone = String.format("11%09d", phoneSeq.incrementAndGet());
+        String data = "{\"nome\":\"Carga " + email.substring(0, 8) + "\",\"email\":\"" + email + "\","
+                + "\"telefone\":\"" + phone + "\",\"senha\":\"" + PASSWORD + "\",\"tipo\":\"PROFISSIONAL\","
+                + "\"bio\":\"teste de carga\",\"tags\":[\"java\",\"carga\"]}";
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"data\"\r\n"
+                + "Content-Type: application/json\r\n\r\n" + data + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"avatar\"; filename=\"avatar.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        HttpRequest req = HttpRequest.newBuilder(uri("/register"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("X-Api-Key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, AVATAR, tail)))
+                .build();
+        return send(req);
+    }
+
+    private CompletableFuture<Integer> login() {
+        String body = "{\"email\":\"" + randomSeeded() + "\",\"password\":\"" + PASSWORD + "\"}";
+        HttpRequest req = HttpRequest.newBuilder(uri("/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(req);
+    }
+
+    // metade dos clientes revalida com o ETag que já tem (If-None-Match → 304)
+    private CompletableFuture<Integer> perfil() {
+        String email = randomSeeded();
+        HttpRequest.Builder b = get("/perfil?email=" + enc(email)).header("Accept-Encoding", "gzip");
+        String etag = etags.get(email);
+        if (etag != null && ThreadLocalRandom.current().nextBoolean()) b.header("If-None-Match", etag);
+        return http.sendAsync(b.build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(r -> {
+                    Optional<String> tag = r.headers().firstValue("ETag");
+                    tag.ifPresent(t -> etags.put(email, t));
+                    return r.statusCode();
+                });
+    }
+
+    // mistura e-mails existentes e inexistentes
+    private CompletableFuture<Integer> exists() {
+        String email = ThreadLocalRandom.current().nextBoolean()
+                ? randomSeeded()
+                : "missing-" + UUID.randomUUID() + "@load.local";
+        return send(get("/exists?email=" + enc(email)).build());
+    }
+
+    // ===================== helpers =====================
+
+    private CompletableFuture<Integer> send(HttpRequest req) {
+        return http.sendAsync(req, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/users" + path);
+    }
+
+    private String randomSeeded() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+
+    private static String enc(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+}
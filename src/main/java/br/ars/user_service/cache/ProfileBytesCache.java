@@ -0,0 +1,195 @@
+package br.ars.user_service.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
+import br.ars.user_service.web.WireFormat;
+
+/**
+ * Corpo já serializado (e gzip, sob demanda) por representação + formato + usuário + versão.
+ * Leituras repetidas da mesma versão não pagam Jackson nem compressão. CBOR/Smile usam os mesmos
+ * DTOs e a mesma configuração do ObjectMapper da aplicação (módulos, datas), só trocando o encoder.
+ */
+@Component
+public class ProfileBytesCache {
+
+    /**
+     * Bytes prontos de uma versão. Imutável exceto pelo gzip, calculado na primeira vez que é pedido.
+     * Restaurada do snapshot, o JSON fica no arquivo mapeado e só é copiado (e paginado) no primeiro uso.
+     */
+    public static final class Rendered {
+        private final long version;
+        private final String etag;
+        private final ByteBuffer mapped;
+        private volatile byte[] json;
+        private volatile byte[] gzip;
+
+        Rendered(long version, String etag, byte[] json) {
+            this.version = version;
+            this.etag = etag;
+            this.json = json;
+            this.mapped = null;
+        }
+
+        Rendered(long version, String etag, ByteBuffer mapped) {
+            this.version = version;
+            this.etag = etag;
+            this.mapped = mapped;
+        }
+
+        public long version() { return version; }
+        public String etag() { return etag; }
+
+        public byte[] json() {
+            byte[] j = json;
+            if (j == null) {
+                ByteBuffer b = mapped.duplicate();
+                j = new byte[b.remaining()];
+                b.get(j);
+                json = j;
+            }
+            return j;
+        }
+
+        /** O JSON sem forçar a cópia do arquivo mapeado (escrita do snapshot). */
+        public ByteBuffer jsonBuffer() {
+            byte[] j = json;
+            return j != null ? ByteBuffer.wrap(j) : mapped.duplicate();
+        }
+
+        public byte[] gzip() {
+            byte[] g = gzip;
+            if (g == null) {
+                g = gzip(json());
+                gzip = g;
+            }
+            return g;
+        }
+    }
+
+    /** Representações cacheadas: PerfilResponse (/perfil) e UserResponse (/{id}). */
+    public static final String KIND_PERFIL = "p";
+    public static final String KIND_USER = "u";
+    private static final String[] KINDS = { KIND_PERFIL, KIND_USER };
+
+    private record Key(String kind, WireFormat format, UUID id) {}
+
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(String kind, UUID id, Rendered rendered);
+    }
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private final Map<Key, Rendered> cache = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProfileBytesCache(ObjectMapper objectMapper, MeterRegistry meters,
+                             @Value("${app.cache.profile-bytes.max-entries:50000}") int maxEntries) {
+        mappers.put(WireFormat.JSON, objectMapper);
+        mappers.put(WireFormat.CBOR, objectMapper.copyWith(new CBORFactory()));
+        mappers.put(WireFormat.SMILE, objectMapper.copyWith(new SmileFactory()));
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("users.profile.bytes.cache").tag("result", "hit").register(meters);
+        this.misses = Counter.builder("users.profile.bytes.cache").tag("result", "miss").register(meters);
+        Gauge.builder("users.profile.bytes.cache.size", cache, Map::size).register(meters);
+    }
+
+    /** Bytes da representação {@code kind} no formato pedido para esta versão do usuário; serializa só se mudou. */
+    public Rendered get(String kind, WireFormat format, UserView v, Function<UserView, ?> toBody) {
+        Key key = new Key(kind, format, v.id());
+        Rendered r = cache.get(key);
+        if (r != null && r.version() == v.version()) {
+            hits.increment();
+            return r;
+        }
+        misses.increment();
+        try {
+            r = new Rendered(v.version(), etag(kind, format, v.id(), v.version()),
+                    mappers.get(format).writeValueAsBytes(toBody.apply(v)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha serializando perfil", e);
+        }
+        if (cache.size() >= maxEntries) cache.clear(); // simples: raramente chega aqui
+        cache.put(key, r);
+        return r;
+    }
+
+    /** Entradas JSON (as binárias são baratas de refazer e não entram no snapshot). */
+    public void forEach(EntryVisitor visitor) {
+        cache.forEach((k, r) -> {
+            if (k.format() == WireFormat.JSON) visitor.visit(k.kind(), k.id(), r);
+        });
+    }
+
+    /** Entrada do snapshot de reinício; não sobrescreve o que já foi renderizado nesta execução. */
+    public void restore(String kind, UUID id, long version, ByteBuffer json) {
+        if (cache.size() >= maxEntries) return;
+        cache.putIfAbsent(new Key(kind, WireFormat.JSON, id), new Rendered(version, etag(kind, WireFormat.JSON, id, version), json));
+    }
+
+    /** Remove as entradas do usuário que não são da versão atual (validação do snapshot). */
+    public void retainVersion(UUID id, long version) {
+        for (String kind : KINDS) {
+            for (WireFormat format : WireFormat.values()) {
+                Key key = new Key(kind, format, id);
+                Rendered r = cache.get(key);
+                if (r != null && r.version() != version) cache.remove(key, r);
+            }
+        }
+    }
+
+    public static String etag(String kind, WireFormat format, UUID id, long version) {
+        return "\"" + kind + "-" + id + "-" + version + format.etagSuffix() + "\"";
+    }
+
+    @EventListener
+    void onDeleted(UserDeletedEvent e) {
+        evict(e.id());
+    }
+
+    // só as entradas deste usuário; a próxima leitura renderiza a versão nova
+    @EventListener
+    void onUpdated(UserUpdatedEvent e) {
+        evict(e.user().id());
+    }
+
+    public void evict(UUID id) {
+        for (String kind : KINDS) {
+            for (WireFormat format : WireFormat.values()) cache.remove(new Key(kind, format, id));
+        }
+    }
+
+    private static byte[] gzip(byte[] in) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, in.length / 2));
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package br.ars.user_service.cache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.events.UserRegisteredEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
+
+/**
+ * Versão conhecida de cada usuário (id → versão, emailKey → id), alimentada pelas leituras
+ * e invalidada pelos eventos de escrita. Permite responder 304 a um If-None-Match sem ir ao banco.
+ *
+ * Entradas expiram em poucos segundos (app.cache.version-index.ttl-ms): escritas feitas
+ * por outras réplicas não passam pelos eventos locais.
+ */
+@Component
+public class UserVersionIndex {
+
+    public record Entry(UUID id, String emailKey, long version, long expiresAtNanos) {}
+
+    private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idByEmailKey = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public UserVersionIndex(MeterRegistry meters,
+                            @Value("${app.cache.version-index.ttl-ms:5000}") long ttlMs,
+                            @Value("${app.cache.version-index.max-entries:100000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        Gauge.builder("users.version.index.size", byId, Map::size).register(meters);
+    }
+
+    public void record(UserView v) {
+        if (v == null) return;
+        record(v.id(), v.emailKey(), v.version());
+    }
+
+    public void record(UUID id, String emailKey, long version) {
+        if (id == null) return;
+        if (byId.size() >= maxEntries) evict();
+        Entry prev = byId.put(id, new Entry(id, emailKey, version, System.nanoTime() + ttlNanos));
+        if (prev != null && prev.emailKey() != null && !prev.emailKey().equals(emailKey)) {
+            idByEmailKey.remove(prev.emailKey(), id);
+        }
+        if (emailKey != null) idByEmailKey.put(emailKey, id);
+    }
+
+    /** Entrada válida (não expirada) para o id, ou null. */
+    public Entry byId(UUID id) {
+        Entry e = byId.get(id);
+        if (e == null) return null;
+        if (System.nanoTime() - e.expiresAtNanos() > 0) {
+            byId.remove(id, e);
+            return null;
+        }
+        return e;
+    }
+
+    public Entry byEmailKey(String emailKey) {
+        if (emailKey == null) return null;
+        UUID id = idByEmailKey.get(emailKey);
+        if (id == null) return null;
+        Entry e = byId(id);
+        return e != null && emailKey.equals(e.emailKey()) ? e : null;
+    }
+
+    public void remove(UUID id, String emailKey) {
+        if (id != null) byId.remove(id);
+        if (emailKey != null) idByEmailKey.remove(emailKey);
+    }
+
+    @EventListener
+    void onRegistered(UserRegisteredEvent e) {
+        record(e.user());
+    }
+
+    // nova versão já commitada: If-None-Match com a antiga deixa de dar 304 na hora
+    @EventListener
+    void onUpdated(UserUpdatedEvent e) {
+        record(e.user());
+    }
+
+    @EventListener
+    void onDeleted(UserDeletedEvent e) {
+        remove(e.id(), e.emailKey());
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        byId.values().removeIf(e -> now - e.expiresAtNanos() > 0);
+        if (byId.size() >= maxEntries) byId.clear();
+        idByEmailKey.values().removeIf(id -> !byId.containsKey(id));
+    }
+}
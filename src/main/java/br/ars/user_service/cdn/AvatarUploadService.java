@@ -0,0 +1,214 @@
+package br.ars.user_service.cdn;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.ars.user_service.changes.UserChangeLog;
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.events.UserUpdatedEvent;
+import br.ars.user_service.models.AvatarUploadOutbox;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.repository.AvatarUploadOutboxRepository;
+import br.ars.user_service.repository.UserRepository;
+
+/**
+ * Upload do avatar depois do commit do registro, fora de qualquer transação.
+ * <ul>
+ *   <li>tenta na hora, no ioPool;</li>
+ *   <li>se falhar, grava os bytes no outbox (avatar_upload_outbox) e o retry agendado reenvia com
+ *       backoff exponencial — PUT no Bunny é idempotente, então réplicas pegando a mesma linha não
+ *       causam problema;</li>
+ *   <li>esgotadas as tentativas, compensa: tira a avatarUrl do usuário (a URL apontaria para nada).</li>
+ * </ul>
+ * Se nem o outbox aceitar a linha (banco fora), compensa na hora do mesmo jeito. Usuário excluído
+ * (purge) durante o upload não deixa objeto para trás: ver {@link #stillReferenced}.
+ * Janela conhecida: se o processo cair entre o commit e o primeiro upload, não há linha no outbox
+ * e a URL fica sem objeto até o usuário trocar o avatar.
+ */
+@Slf4j
+@Service
+public class AvatarUploadService {
+
+    private final BunnyCdnClient bunny;
+    private final DbRequestQueueService db;
+    private final AvatarUploadOutboxRepository outbox;
+    private final UserRepository users;
+    private final Executor ioPool;
+    private final UserChangeLog changeLog;
+    private final ApplicationEventPublisher events;
+
+    private final Counter uploaded;
+    private final Counter deferred;
+    private final Counter retried;
+    private final Counter gaveUp;
+
+    @Value("${app.registration.avatar-retry.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.registration.avatar-retry.base-backoff-ms:2000}")
+    private long baseBackoffMs;
+
+    @Value("${app.registration.avatar-retry.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.registration.avatar-retry.batch-size:20}")
+    private int batchSize;
+
+    public AvatarUploadService(BunnyCdnClient bunny, DbRequestQueueService db,
+                               AvatarUploadOutboxRepository outbox, UserRepository users,
+                               @Qualifier("ioPool") Executor ioPool, UserChangeLog changeLog,
+                               ApplicationEventPublisher events, MeterRegistry meters) {
+        this.bunny = bunny;
+        this.db = db;
+        this.outbox = outbox;
+        this.users = users;
+        this.ioPool = ioPool;
+        this.changeLog = changeLog;
+        this.events = events;
+        this.uploaded = Counter.builder("registration.avatar.upload").tag("result", "ok").register(meters);
+        this.deferred = Counter.builder("registration.avatar.upload").tag("result", "deferred").register(meters);
+        this.retried = Counter.builder("registration.avatar.upload").tag("result", "retried_ok").register(meters);
+        this.gaveUp = Counter.builder("registration.avatar.upload").tag("result", "gave_up").register(meters);
+    }
+
+    /** Chamado depois do commit do INSERT; não bloqueia quem registrou. */
+    public CompletableFuture<Void> uploadAfterCommit(UUID userId, String key, byte[] bytes, String contentType) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                if (!stillReferenced(userId, key)) {
+                    log.info("[AvatarUpload] Usuário excluído ou avatar trocado antes do upload, ignorando | userId={} | key={}", userId, key);
+                    return;
+                }
+                bunny.uploadBytes(bytes, contentType, key);
+                uploaded.increment();
+                dropIfOrphaned(userId, key);
+            } catch (Exception ex) {
+                log.warn("[AvatarUpload] Upload falhou, indo para o outbox | userId={} | key={} | erro={}",
+                        userId, key, ex.getMessage());
+                deferred.increment();
+                Instant next = Instant.now().plusMillis(backoffMs(1));
+                try {
+                    db.write(() -> outbox.save(new AvatarUploadOutbox(userId, key, contentType, bytes, truncate(ex.getMessage()), next)));
+                } catch (Exception saveEx) {
+                    // sem linha no outbox ninguém reenvia: a URL apontaria para nada, então compensa já
+                    log.error("[AvatarUpload] Falha ao gravar no outbox, removendo avatarUrl | userId={} | key={} | erro={}",
+                            userId, key, saveEx.getMessage(), saveEx);
+                    gaveUp.increment();
+                    try {
+                        clearAvatarUrl(userId, key, null);
+                    } catch (Exception clearEx) {
+                        log.error("[AvatarUpload] Falha ao remover avatarUrl | userId={} | key={} | erro={}",
+                                userId, key, clearEx.getMessage());
+                    }
+                }
+            }
+        }, ioPool);
+    }
+
+    /** Upload direto no ioPool, sem outbox: quem chama decide o que fazer se falhar (troca de avatar). */
+    public CompletableFuture<Void> upload(String key, byte[] bytes, String contentType) {
+        return CompletableFuture.runAsync(() -> {
+            bunny.uploadBytes(bytes, contentType, key);
+            uploaded.increment();
+        }, ioPool);
+    }
+
+    @Scheduled(fixedDelayString = "${app.registration.avatar-retry.poll-ms:5000}",
+               initialDelayString = "${app.registration.avatar-retry.poll-ms:5000}")
+    void retryDue() {
+        // primário: réplica atrasada devolveria linha já apagada (ex.: usuário excluído) e o avatar voltaria ao CDN
+        List<AvatarUploadOutbox> due = db.readPrimary(() -> outbox.findDue(Instant.now(), PageRequest.of(0, batchSize)));
+        for (AvatarUploadOutbox o : due) {
+            try {
+                if (!stillReferenced(o.getUserId(), o.getObjectKey())) {
+                    db.writeVoid(() -> outbox.deleteById(o.getId()));
+                    log.info("[AvatarUpload] Reenvio descartado, avatar não é mais do perfil | userId={}", o.getUserId());
+                    continue;
+                }
+                bunny.uploadBytes(o.getPayload(), o.getContentType(), o.getObjectKey());
+                db.writeVoid(() -> outbox.deleteById(o.getId()));
+                retried.increment();
+                dropIfOrphaned(o.getUserId(), o.getObjectKey());
+                log.info("[AvatarUpload] Reenvio ok | userId={} | tentativas={}", o.getUserId(), o.getAttempts() + 1);
+            } catch (Exception ex) {
+                onRetryFailure(o, ex);
+            }
+        }
+    }
+
+    private void onRetryFailure(AvatarUploadOutbox o, Exception ex) {
+        int attempts = o.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            clearAvatarUrl(o.getUserId(), o.getObjectKey(), o.getId());
+            gaveUp.increment();
+            log.error("[AvatarUpload] Desistindo após {} tentativas, avatarUrl removida | userId={} | erro={}",
+                    attempts, o.getUserId(), ex.getMessage());
+            return;
+        }
+        Instant next = Instant.now().plusMillis(backoffMs(attempts));
+        db.write(() -> outbox.reschedule(o.getId(), next, truncate(ex.getMessage())));
+        log.warn("[AvatarUpload] Reenvio falhou | userId={} | tentativa={} | proxima={}", o.getUserId(), attempts, next);
+    }
+
+    /**
+     * Purge (ou troca de avatar) concorrente com o upload: a verificação antes do PUT evita o trabalho, a
+     * de depois fecha a corrida — se o perfil deixou de apontar para o objeto enquanto o PUT rodava, quem
+     * apagou pode ter feito o DELETE no CDN antes do nosso PUT, então o objeto recriado é apagado aqui.
+     * Sempre no primário: réplica atrasada ainda mostraria o usuário.
+     */
+    private boolean stillReferenced(UUID userId, String key) {
+        try {
+            return db.readPrimary(() -> users.hasAvatarUrl(userId, bunny.publicUrl(key)));
+        } catch (Exception ex) {
+            // na dúvida sobe: objeto órfão é menos grave que avatar faltando
+            log.warn("[AvatarUpload] Não foi possível conferir o perfil | userId={} | erro={}", userId, ex.getMessage());
+            return true;
+        }
+    }
+
+    private void dropIfOrphaned(UUID userId, String key) {
+        if (stillReferenced(userId, key)) return;
+        try {
+            bunny.deleteObject(key);
+            log.info("[AvatarUpload] Perfil removido durante o upload, objeto apagado | userId={} | key={}", userId, key);
+        } catch (Exception ex) {
+            log.warn("[AvatarUpload] Objeto órfão no CDN | userId={} | key={} | erro={}", userId, key, ex.getMessage());
+        }
+    }
+
+    /** Compensação: tira a avatarUrl (só se ainda for a deste objeto) e apaga a linha do outbox, se houver. */
+    private void clearAvatarUrl(UUID userId, String key, Long outboxId) {
+        String url = bunny.publicUrl(key);
+        UserView cleared = db.write(() -> {
+            if (outboxId != null) outbox.deleteById(outboxId);
+            if (users.clearAvatarUrl(userId, url) == 0) return null;
+            UserView v = users.findById(userId).map(UserView::of).orElse(null);
+            if (v != null) changeLog.append(UserChangeLog.AVATAR_CLEARED, v);
+            return v;
+        });
+        if (cleared != null) events.publishEvent(new UserUpdatedEvent(cleared));
+    }
+
+    private long backoffMs(int attempts) {
+        long ms = baseBackoffMs << Math.min(20, attempts - 1);
+        return Math.min(maxBackoffMs, ms);
+    }
+
+    private static String truncate(String s) {
+        if (s == null) return null;
+        return s.length() > 500 ? s.substring(0, 500) : s;
+    }
+}
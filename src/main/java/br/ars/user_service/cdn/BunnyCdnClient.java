@@ -7,6 +7,9 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+
 @Slf4j
 @Component
 public class BunnyCdnClient {
@@ -61,7 +64,10 @@ public class BunnyCdnClient {
         h.setContentLength(bytes.length);
 
         var entity = new HttpEntity<>(bytes, h);
-        ResponseEntity<String> resp = restTemplate.exchange(url, HttpMethod.PUT, entity, String.class);
+        ResponseEntity<String> resp;
+        try (StageTimer.Span s = StageTimer.start(Stage.CDN_PUT)) {
+            resp = restTemplate.exchange(url, HttpMethod.PUT, entity, String.class);
+        }
 
         log.info("[Bunny] Resp | status={} | body={}", resp.getStatusCode(), preview(resp.getBody()));
         if (!resp.getStatusCode().is2xxSuccessful()) {
@@ -69,6 +75,35 @@ public class BunnyCdnClient {
         }
     }
 
+    /** DELETE de um objeto do storage. 404 conta como sucesso (já não existe). */
+    public void deleteObject(String key) {
+        final String path = trimSlashes(key);
+        if (path.isEmpty()) throw new IllegalArgumentException("key vazia");
+        final String url = trimRight(baseUrl) + "/" + zoneName + "/" + path;
+
+        HttpHeaders h = new HttpHeaders();
+        h.set("AccessKey", accessKey);
+        try {
+            ResponseEntity<String> resp = restTemplate.exchange(url, HttpMethod.DELETE, new HttpEntity<>(h), String.class);
+            log.debug("[Bunny] DELETE | key={} | status={}", path, resp.getStatusCode());
+        } catch (org.springframework.web.client.HttpClientErrorException.NotFound nf) {
+            log.debug("[Bunny] DELETE | key={} | já inexistente", path);
+        }
+    }
+
+    /** Inverso de {@link #publicUrl}: key do storage a partir da URL pública; null se a URL não é desta Pull Zone. */
+    public String keyFromPublicUrl(String url) {
+        if (isBlank(url) || isBlank(publicCdnBase)) return null;
+        String prefix = trimRight(publicCdnBase.trim()) + "/";
+        return url.startsWith(prefix) ? trimSlashes(url.substring(prefix.length())) : null;
+    }
+
+    /** URL pública (Pull Zone) de uma key do storage. */
+    public String publicUrl(String key) {
+        if (isBlank(publicCdnBase)) throw new IllegalStateException("bunny.cdn.base-url não configurado");
+        return trimRight(publicCdnBase.trim()) + "/" + trimSlashes(key);
+    }
+
     /** Upload via MultipartFile (usa uploadBytes por baixo). */
     public void uploadAvatar(org.springframework.web.multipart.MultipartFile file, String key) {
         try {
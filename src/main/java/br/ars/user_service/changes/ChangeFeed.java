@@ -0,0 +1,487 @@
+package br.ars.user_service.changes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.ars.user_service.models.UserChangeEvent;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.repository.UserChangeEventRepository;
+
+/**
+ * Feed de mudanças de usuários (GET /api/users/changes), SSE ou long-poll, com offsets retomáveis.
+ * <ul>
+ *   <li>um único poller lê o outbox (user_change_events) no primário e publica num ring buffer em memória;
+ *       N assinantes custam uma leitura no banco por ciclo, não N;</li>
+ *   <li>cada evento é serializado uma vez; todos os assinantes enviam os mesmos bytes;</li>
+ *   <li>offset = ID do evento. Buraco na sequência (transação ainda aberta) segura a publicação até
+ *       gap-timeout-ms, para o feed não pular um evento que commita atrasado; depois disso o feed segue,
+ *       mas os IDs pulados são reconferidos a cada poll por gap-recheck-ms. O que aparecer é republicado:
+ *       apagado e regravado com ID novo (offsets nunca andam para trás). Entrega pode repetir para quem lia
+ *       do banco — consumidor deduplica por userId+version;</li>
+ *   <li>offset mais antigo que o ring é servido do banco; mais antigo que a retenção = {@link OffsetExpiredException}.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ChangeFeed {
+
+    /** Evento pronto para envio. */
+    public record Item(long offset, String type, String json) {}
+
+    public record Batch(List<Item> items, long next) {
+        public String toJson() {
+            StringBuilder sb = new StringBuilder(64 + items.size() * 256).append("{\"events\":[");
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(items.get(i).json());
+            }
+            return sb.append("],\"next\":").append(next).append('}').toString();
+        }
+    }
+
+    /** O offset pedido já saiu da retenção: o consumidor precisa ressincronizar do zero. */
+    public static class OffsetExpiredException extends RuntimeException {
+        public OffsetExpiredException(long after, long oldest) {
+            super("Offset " + after + " expirado; evento mais antigo disponível: " + oldest + ".");
+        }
+    }
+
+    private record Slot(long seq, Item item) {}
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile long cursor;
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+
+    private record Waiter(long after, int limit, DeferredResult<ResponseEntity<String>> result) {}
+
+    private final UserChangeEventRepository repo;
+    private final DbRequestQueueService db;
+
+    private final Slot[] ring;
+    private final int mask;
+    // escritor único (poller): publica o slot e depois headSeq; leitores conferem o seq do slot
+    private volatile long headSeq = -1;
+    private volatile long headOffset;
+    // offsets > floor estão no ring
+    private volatile long ringFloorOffset;
+    private volatile boolean ready;
+
+    private final Queue<Subscriber> subscribers = new ConcurrentLinkedQueue<>();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final ExecutorService senders;
+
+    private final Counter published;
+    private final Counter dbCatchUps;
+    private final Counter lateEvents;
+
+    // só o poller mexe: início do buraco atual e IDs pulados ainda em reconferência (id → quando foi pulado)
+    private long gapSinceMs;
+    private final Map<Long, Long> skippedIds = new LinkedHashMap<>();
+
+    @Value("${app.changes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.changes.poll-ms:200}")
+    private long pollMs;
+
+    @Value("${app.changes.poll-batch:1000}")
+    private int pollBatch;
+
+    @Value("${app.changes.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.changes.gap-recheck-ms:600000}")
+    private long gapRecheckMs;
+
+    @Value("${app.changes.gap-max-ids:10000}")
+    private int gapMaxIds;
+
+    @Value("${app.changes.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${app.changes.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    @Value("${app.changes.retention-hours:72}")
+    private long retentionHours;
+
+    public ChangeFeed(UserChangeEventRepository repo, DbRequestQueueService db, MeterRegistry meters,
+                      @Value("${app.changes.ring-size:65536}") int ringSize,
+                      @Value("${app.changes.sender-threads:4}") int senderThreads) {
+        this.repo = repo;
+        this.db = db;
+        int cap = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        this.ring = new Slot[cap];
+        this.mask = cap - 1;
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r);
+            t.setName("change-feed-send-" + t.getId());
+            t.setDaemon(true);
+            return t;
+        });
+        this.published = Counter.builder("users.changes.published").register(meters);
+        this.dbCatchUps = Counter.builder("users.changes.db.catchup").register(meters);
+        this.lateEvents = Counter.builder("users.changes.late").register(meters);
+        Gauge.builder("users.changes.subscribers", subscribers, Queue::size).register(meters);
+        Gauge.builder("users.changes.head.offset", this, f -> f.headOffset).register(meters);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long headOffset() {
+        return headOffset;
+    }
+
+    // ===================== poller =====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startOnReady() {
+        if (!enabled) {
+            log.info("[ChangeFeed] Desabilitado.");
+            return;
+        }
+        Thread t = new Thread(this::pollLoop, "change-feed-poller");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void pollLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Long max = db.readPrimary(repo::maxId);
+                initHead(max != null ? max : 0L);
+                log.info("[ChangeFeed] Pronto | headOffset={} | ring={}", headOffset, ring.length);
+                break;
+            } catch (Exception ex) {
+                log.warn("[ChangeFeed] Falha lendo o offset inicial, tentando de novo | erro={}", ex.getMessage());
+                if (!sleep(Math.max(1000, pollMs))) return;
+            }
+        }
+
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean full = false;
+            try {
+                full = pollOnce();
+            } catch (Exception ex) {
+                log.warn("[ChangeFeed] Falha no poll | erro={}", ex.getMessage());
+            }
+            if (!full && !sleep(pollMs)) return;
+        }
+    }
+
+    void initHead(long head) {
+        headOffset = head;
+        ringFloorOffset = head;
+        ready = true;
+    }
+
+    /** Um ciclo do poller; true se leu um lote cheio (há mais para ler já). */
+    boolean pollOnce() {
+        recheckSkipped();
+        long after = headOffset;
+        List<UserChangeEvent> rows = db.readPrimary(() -> repo.findAfter(after, PageRequest.of(0, pollBatch)));
+        int n = 0;
+        for (UserChangeEvent row : rows) {
+            if (row.getId() != headOffset + 1) {
+                long now = System.currentTimeMillis();
+                if (gapSinceMs == 0) gapSinceMs = now;
+                if (now - gapSinceMs < gapTimeoutMs) break;
+                skip(headOffset + 1, row.getId() - 1, now);
+            }
+            gapSinceMs = 0;
+            publish(toItem(row));
+            n++;
+        }
+        if (n > 0) onPublished();
+        return n == pollBatch;
+    }
+
+    private void skip(long from, long to, long now) {
+        long tracked = Math.min(to, from + Math.max(0, gapMaxIds - skippedIds.size()) - 1);
+        for (long id = from; id <= tracked; id++) skippedIds.put(id, now);
+        if (tracked < to) {
+            log.warn("[ChangeFeed] Buraco pulado sem reconferência (limite de IDs) | de={} | ate={}", tracked + 1, to);
+        }
+        log.info("[ChangeFeed] Buraco na sequência pulado, reconferindo por {}ms | de={} | ate={}", gapRecheckMs, from, to);
+    }
+
+    /** Evento que commitou depois de pulado: apagado e regravado com ID novo, entra no próximo poll. */
+    private void recheckSkipped() {
+        if (skippedIds.isEmpty()) return;
+        long expiredBefore = System.currentTimeMillis() - gapRecheckMs;
+        for (Iterator<Long> it = skippedIds.values().iterator(); it.hasNext(); ) {
+            if (it.next() < expiredBefore) it.remove(); // ordem de inserção = ordem de tempo
+            else break;
+        }
+        if (skippedIds.isEmpty()) return;
+
+        List<Long> ids = new ArrayList<>(skippedIds.keySet());
+        List<UserChangeEvent> late = db.readPrimary(() -> repo.findAllById(ids));
+        for (UserChangeEvent e : late) {
+            // delete condicional: com várias réplicas só uma regrava
+            boolean moved = db.write(() -> {
+                if (repo.deleteOne(e.getId()) == 0) return false;
+                repo.save(new UserChangeEvent(e.getUserId(), e.getType(), e.getVersion(), e.getPayload()));
+                return true;
+            });
+            skippedIds.remove(e.getId());
+            if (moved) {
+                lateEvents.increment();
+                log.info("[ChangeFeed] Evento atrasado republicado | id={} | userId={} | tipo={}", e.getId(), e.getUserId(), e.getType());
+            }
+        }
+    }
+
+    int skippedCount() {
+        return skippedIds.size();
+    }
+
+    private void publish(Item item) {
+        long seq = headSeq + 1;
+        int idx = (int) (seq & mask);
+        Slot old = ring[idx];
+        if (old != null) ringFloorOffset = old.item().offset();
+        ring[idx] = new Slot(seq, item);
+        headOffset = item.offset();
+        headSeq = seq;
+        published.increment();
+    }
+
+    private void onPublished() {
+        for (Subscriber s : subscribers) schedule(s);
+        for (Waiter w : waiters) {
+            if (waiters.remove(w)) senders.execute(() -> complete(w));
+        }
+    }
+
+    // ===================== leitura =====================
+
+    /** Eventos com offset > after, até limit. Do ring quando possível; do banco se o offset já saiu dele. */
+    public Batch read(long after, int limit) {
+        long head = headOffset;
+        if (after >= head) return new Batch(List.of(), after);
+        if (after >= ringFloorOffset) {
+            Batch b = readRing(after, limit);
+            if (b != null) return b;
+        }
+        return readDb(after, limit, head);
+    }
+
+    private Batch readRing(long after, int limit) {
+        long hi = headSeq;
+        long lo = Math.max(0, hi - ring.length + 1);
+        // primeiro seq com offset > after (busca binária: offsets crescem com o seq)
+        long first = hi + 1;
+        long l = lo, h = hi;
+        while (l <= h) {
+            long mid = (l + h) >>> 1;
+            Slot s = ring[(int) (mid & mask)];
+            if (s == null || s.seq() != mid) return null;
+            if (s.item().offset() > after) {
+                first = mid;
+                h = mid - 1;
+            } else {
+                l = mid + 1;
+            }
+        }
+        List<Item> items = new ArrayList<>(Math.min(limit, (int) Math.max(0, hi - first + 1)));
+        for (long seq = first; seq <= hi && items.size() < limit; seq++) {
+            Slot s = ring[(int) (seq & mask)];
+            if (s == null || s.seq() != seq) return null; // ultrapassado pelo escritor: cai no banco
+            items.add(s.item());
+        }
+        return new Batch(items, items.isEmpty() ? after : items.get(items.size() - 1).offset());
+    }
+
+    private Batch readDb(long after, int limit, long head) {
+        dbCatchUps.increment();
+        Long min = db.readPrimary(repo::minId);
+        if (min != null && after < min - 1) throw new OffsetExpiredException(after, min);
+        List<UserChangeEvent> rows = db.readPrimary(() -> repo.findAfter(after, PageRequest.of(0, limit)));
+        List<Item> items = new ArrayList<>(rows.size());
+        // não entrega além do publicado: a ordem vista aqui é a mesma do ring
+        for (UserChangeEvent r : rows) {
+            if (r.getId() > head) break;
+            items.add(toItem(r));
+        }
+        return new Batch(items, items.isEmpty() ? after : items.get(items.size() - 1).offset());
+    }
+
+    private static Item toItem(UserChangeEvent e) {
+        String json = "{\"offset\":" + e.getId()
+                + ",\"type\":\"" + e.getType() + "\""
+                + ",\"userId\":\"" + e.getUserId() + "\""
+                + ",\"version\":" + e.getVersion()
+                + ",\"at\":\"" + e.getCreatedAt() + "\""
+                + ",\"data\":" + (e.getPayload() != null ? e.getPayload() : "null") + "}";
+        return new Item(e.getId(), e.getType(), json);
+    }
+
+    // ===================== SSE =====================
+
+    /** Assinatura SSE a partir de {@code after} (null = só eventos novos). */
+    public SseEmitter subscribe(Long after) {
+        if (!ready) throw new IllegalStateException("Feed ainda iniciando.");
+        if (subscribers.size() >= maxSubscribers) throw new IllegalStateException("Limite de assinantes atingido.");
+        long from = after != null ? after : headOffset;
+        if (from < ringFloorOffset) {
+            // valida já (410 na hora, em vez de abrir o stream e fechar com erro)
+            Long min = db.readPrimary(repo::minId);
+            if (min != null && from < min - 1) throw new OffsetExpiredException(from, min);
+        }
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Subscriber s = new Subscriber(emitter, from);
+        Runnable remove = () -> {
+            s.closed = true;
+            subscribers.remove(s);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(ex -> remove.run());
+        subscribers.add(s);
+        schedule(s);
+        return emitter;
+    }
+
+    private void schedule(Subscriber s) {
+        if (!s.closed && s.cursor < headOffset && s.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(s));
+        }
+    }
+
+    private void drain(Subscriber s) {
+        try {
+            while (!s.closed) {
+                Batch b = read(s.cursor, 500);
+                if (b.items().isEmpty()) break;
+                for (Item item : b.items()) {
+                    s.emitter.send(SseEmitter.event()
+                            .id(Long.toString(item.offset()))
+                            .name(item.type())
+                            .data(item.json(), MediaType.APPLICATION_JSON));
+                }
+                s.cursor = b.next();
+            }
+        } catch (OffsetExpiredException ex) {
+            s.closed = true;
+            s.emitter.completeWithError(ex);
+        } catch (IOException | IllegalStateException ex) {
+            // cliente desconectou
+            s.closed = true;
+            subscribers.remove(s);
+        } catch (Exception ex) {
+            log.warn("[ChangeFeed] Falha enviando para assinante | erro={}", ex.getMessage());
+        } finally {
+            s.scheduled.set(false);
+        }
+        // publicado enquanto drenava: agenda de novo
+        schedule(s);
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.heartbeat-ms:15000}")
+    void heartbeat() {
+        for (Subscriber s : subscribers) {
+            senders.execute(() -> {
+                try {
+                    s.emitter.send(SseEmitter.event().comment("hb"));
+                } catch (IOException | IllegalStateException ex) {
+                    s.closed = true;
+                    subscribers.remove(s);
+                }
+            });
+        }
+    }
+
+    // ===================== long-poll =====================
+
+    /** Resposta imediata se há eventos; senão espera até waitMs pelo próximo publish. */
+    public DeferredResult<ResponseEntity<String>> poll(long after, int limit, long waitMs) {
+        if (!ready) throw new IllegalStateException("Feed ainda iniciando.");
+        Batch now = read(after, limit);
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>(waitMs, ok(new Batch(List.of(), after)));
+        if (!now.items().isEmpty() || waitMs <= 0) {
+            result.setResult(ok(now));
+            return result;
+        }
+        Waiter w = new Waiter(after, limit, result);
+        result.onCompletion(() -> waiters.remove(w));
+        waiters.add(w);
+        // publicado entre o read e o add
+        if (headOffset > after && waiters.remove(w)) senders.execute(() -> complete(w));
+        return result;
+    }
+
+    private void complete(Waiter w) {
+        try {
+            w.result().setResult(ok(read(w.after(), w.limit())));
+        } catch (Exception ex) {
+            w.result().setErrorResult(ex);
+        }
+    }
+
+    private static ResponseEntity<String> ok(Batch b) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(b.toJson());
+    }
+
+    // ===================== manutenção =====================
+
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-ms:3600000}", initialDelayString = "${app.changes.cleanup-ms:3600000}")
+    void deleteExpired() {
+        Instant limit = Instant.now().minus(Duration.ofHours(retentionHours));
+        int n = db.write(() -> repo.deleteOlderThan(limit));
+        if (n > 0) log.info("[ChangeFeed] Eventos expirados removidos | n={} | antesDe={}", n, limit);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber s : subscribers) s.emitter.complete();
+    }
+
+    private static boolean sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
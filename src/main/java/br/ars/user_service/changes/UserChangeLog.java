@@ -0,0 +1,64 @@
+package br.ars.user_service.changes;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.models.UserChangeEvent;
+import br.ars.user_service.repository.UserChangeEventRepository;
+
+/**
+ * Grava eventos do feed de mudanças. Os métodos rodam DENTRO da transação da escrita
+ * (lambda do db.write): evento e mudança commitam juntos ou nenhum dos dois.
+ * Payload compacto: só os campos públicos do perfil (sem e-mail, emailKey, telefone ou senha) —
+ * o feed é público e ?after=0 devolveria a base inteira.
+ */
+@Component
+public class UserChangeLog {
+
+    public static final String REGISTERED = "REGISTERED";
+    public static final String UPDATED = "UPDATED";
+    public static final String AVATAR_SET = "AVATAR_SET";
+    public static final String AVATAR_CLEARED = "AVATAR_CLEARED";
+    public static final String DELETED = "DELETED";
+
+    private final UserChangeEventRepository repo;
+    private final ObjectMapper objectMapper;
+
+    public UserChangeLog(UserChangeEventRepository repo, ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+    }
+
+    public void append(String type, UserView v) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        if (type.equals(AVATAR_SET) || type.equals(AVATAR_CLEARED)) {
+            p.put("avatarUrl", v.avatarUrl());
+        } else {
+            p.put("nome", v.nome());
+            p.put("tipo", v.tipo());
+            p.put("bio", v.bio());
+            p.put("tags", v.tags());
+            p.put("avatarUrl", v.avatarUrl());
+        }
+        repo.save(new UserChangeEvent(v.id(), type, v.version(), toJson(p)));
+    }
+
+    /** Chamado antes do DELETE dos usuários (lê emailKey/versão das linhas ainda presentes). */
+    public void appendDeleted(Collection<java.util.UUID> ids) {
+        if (!ids.isEmpty()) repo.insertDeleted(ids);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload do evento não serializável", e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package br.ars.user_service.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de concorrência adaptativo (AIMD guiado por latência, estilo Vegas):
+ * <ul>
+ *   <li>amostra "boa" (latência até {@code tolerance} × menor latência observada): limite += 1/limite
+ *       — ou seja, ~+1 a cada janela cheia;</li>
+ *   <li>amostra lenta ou descartada (timeout, pool esgotado): limite × {@code backoff}.</li>
+ * </ul>
+ * A menor latência é esquecida periodicamente para acompanhar mudanças do banco/rede.
+ */
+public class AdaptiveLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final long minRttResetNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long minRttSince = System.nanoTime();
+    private long lastDecreaseNanos;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                           double tolerance, double backoff) {
+        if (minLimit < 1 || maxLimit < minLimit) throw new IllegalArgumentException("limites inválidos: " + name);
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.minRttResetNanos = TimeUnit.SECONDS.toNanos(30);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this(name, initialLimit, minLimit, maxLimit, 2.0, 0.9);
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) return false;
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) permitReleased.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                if (nanos <= 0L) return false;
+                nanos = permitReleased.awaitNanos(nanos);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Devolve o permit; {@code dropped=true} para timeouts/sobrecarga (conta como sinal de congestionamento). */
+    public void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            if (now - minRttSince > minRttResetNanos) {
+                minRttNanos = Long.MAX_VALUE;
+                minRttSince = now;
+            }
+            if (!dropped && rttNanos > 0 && rttNanos < minRttNanos) minRttNanos = rttNanos;
+
+            boolean congested = dropped
+                    || (minRttNanos != Long.MAX_VALUE && rttNanos > minRttNanos * tolerance);
+            if (congested) {
+                // no máximo um decremento por "RTT", senão uma rajada de amostras lentas zera o limite
+                long window = minRttNanos == Long.MAX_VALUE ? rttNanos : minRttNanos;
+                if (now - lastDecreaseNanos >= window) {
+                    limit = Math.max(minLimit, limit * backoff);
+                    lastDecreaseNanos = now;
+                }
+            } else if (inFlight + 1 >= (int) limit / 2) {
+                // só cresce se o limite atual está de fato sendo usado
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Release sem amostra de latência (ex.: tarefa cancelada antes de executar). */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try { return (int) limit; } finally { lock.unlock(); }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try { return inFlight; } finally { lock.unlock(); }
+    }
+
+    public String name() { return name; }
+}
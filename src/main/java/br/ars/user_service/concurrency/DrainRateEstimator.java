@@ -0,0 +1,56 @@
+package br.ars.user_service.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Taxa de drenagem (itens concluídos/s) suavizada por EWMA em janelas de 1s.
+ * Usada para estimar a espera de quem entra agora na fila (Retry-After / expectedWaitMs).
+ */
+public class DrainRateEstimator {
+
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double alpha;
+    private final AtomicLong completedInTick = new AtomicLong();
+    private volatile long tickStart = System.nanoTime();
+    private volatile double ratePerSec;
+
+    public DrainRateEstimator(double alpha) {
+        this.alpha = alpha;
+    }
+
+    public DrainRateEstimator() {
+        this(0.3);
+    }
+
+    public void recordCompletion() {
+        maybeTick();
+        completedInTick.incrementAndGet();
+    }
+
+    public double ratePerSecond() {
+        maybeTick();
+        return ratePerSec;
+    }
+
+    /** Espera estimada para um item que entra atrás de {@code depth} itens; -1 se ainda não há taxa medida. */
+    public long expectedWaitMillis(int depth) {
+        double rate = ratePerSecond();
+        if (rate <= 0.0) return depth == 0 ? 0 : -1;
+        return (long) Math.ceil(depth * 1000.0 / rate);
+    }
+
+    private void maybeTick() {
+        long now = System.nanoTime();
+        long start = tickStart;
+        long elapsed = now - start;
+        if (elapsed < TICK_NANOS) return;
+        synchronized (this) {
+            if (tickStart != start) return;
+            double sample = completedInTick.getAndSet(0) * (double) TICK_NANOS / elapsed;
+            ratePerSec = ratePerSec == 0.0 ? sample : alpha * sample + (1 - alpha) * ratePerSec;
+            tickStart = now;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package br.ars.user_service.concurrency;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/** Quais falhas contam como "sobrecarga" para os limitadores adaptativos (vs. erro de negócio). */
+public final class OverloadSignals {
+
+    private OverloadSignals() {}
+
+    public static boolean isOverload(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof TransientDataAccessException          // inclui QueryTimeout/lock timeout
+                    || c instanceof CannotCreateTransactionException // Hikari connection-timeout
+                    || c instanceof TimeoutException
+                    || c instanceof RejectedExecutionException) {
+                return true;
+            }
+            if (c.getCause() == c) break;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package br.ars.user_service.concurrency;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline (System.nanoTime) da requisição/comando corrente, por thread.
+ * Definido pelo RequestDeadlineFilter nas requisições HTTP e pelos workers de registro;
+ * o DbRequestQueueService descarta tarefas cujo deadline já passou.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {}
+
+    public static void set(long deadlineNanos) { DEADLINE.set(deadlineNanos); }
+
+    public static void setIn(long timeout, TimeUnit unit) { DEADLINE.set(System.nanoTime() + unit.toNanos(timeout)); }
+
+    public static void clear() { DEADLINE.remove(); }
+
+    /** Deadline corrente, ou agora + {@code defaultBudgetNanos} se a thread não tem um. */
+    public static long currentOr(long defaultBudgetNanos) {
+        Long d = DEADLINE.get();
+        return d != null ? d : System.nanoTime() + defaultBudgetNanos;
+    }
+
+    public static boolean isSet() { return DEADLINE.get() != null; }
+}
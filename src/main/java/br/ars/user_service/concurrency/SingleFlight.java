@@ -0,0 +1,70 @@
+package br.ars.user_service.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: chamadas concorrentes para a mesma chave compartilham uma única execução
+ * do loader. O resultado é entregue a todos, então deve ser imutável.
+ *
+ * Após uma escrita, chame {@link #forget(Object)} antes de responder ao cliente: qualquer
+ * leitura que ele faça depois começa um voo novo (read-your-writes).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            followers.increment();
+            return join(inFlight);
+        }
+        leaders.increment();
+        try {
+            V v = loader.get();
+            mine.complete(v);
+            return v;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    /** Desliga a chave do voo em andamento; quem chegar depois dispara uma nova leitura. */
+    public void forget(K key) {
+        calls.remove(key);
+    }
+
+    public long leaders() { return leaders.sum(); }
+
+    public long followers() { return followers.sum(); }
+
+    /** Fração das chamadas atendidas por um voo já em andamento. */
+    public double coalescingRatio() {
+        long l = leaders.sum();
+        long f = followers.sum();
+        long total = l + f;
+        return total == 0 ? 0.0 : (double) f / total;
+    }
+
+    private static <V> V join(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw ce;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package br.ars.user_service.config;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import br.ars.user_service.datasource.ReplicaRoutingDataSource;
+
+/**
+ * Só com app.datasource.replica.url preenchida: dois pools Hikari ("primary" e "replica", métricas
+ * hikaricp.* por tag pool) atrás do ReplicaRoutingDataSource. Sem réplica, vale o DataSource
+ * autoconfigurado do Spring Boot, como antes.
+ * <p>
+ * No build AOT (-PfastStartup) a condição é avaliada no build e fica congelada no jar: réplica sim/não
+ * tem que ser a mesma no build e no runtime. A divergência é detectada no start pelo DbRequestQueueService.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isBlank()")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties props) {
+        HikariDataSource ds = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:10}") int maxPool,
+            @Value("${app.datasource.replica.minimum-idle:2}") int minIdle,
+            @Value("${app.datasource.replica.connection-timeout:1000}") long connectionTimeoutMs) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setJdbcUrl(url);
+        ds.setUsername(username);
+        ds.setPassword(password);
+        ds.setMaximumPoolSize(maxPool);
+        ds.setMinimumIdle(minIdle);
+        // réplica fora não pode segurar a leitura: timeout curto e cai no primário
+        ds.setConnectionTimeout(connectionTimeoutMs);
+        ds.setReadOnly(true);
+        // não falha o boot se a réplica estiver fora; o roteamento cai no primário
+        ds.setInitializationFailTimeout(-1);
+        return ds;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            MeterRegistry meters,
+            @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs,
+            @Value("${app.datasource.replica.retry-after-ms:5000}") long retryAfterMs,
+            @Value("${app.datasource.replica.lag-check-ms:1000}") long lagCheckMs) {
+        return new ReplicaRoutingDataSource(primary, replica, meters, maxLagMs, retryAfterMs, lagCheckMs);
+    }
+
+    /** DataSource da aplicação (JPA, JdbcTemplate): conexão só é aberta no primeiro statement. */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
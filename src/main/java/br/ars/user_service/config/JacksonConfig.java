@@ -0,0 +1,39 @@
+package br.ars.user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Getters, setters e construtores dos DTOs chamados por lambdas geradas (LambdaMetafactory) em vez de
+     * reflection. O Spring Boot registra todo Module no ObjectMapper da aplicação.
+     */
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /*
+     * CBOR e Smile para chamadas internas (Accept: application/cbor | application/x-jackson-smile), com a
+     * configuração do ObjectMapper da aplicação. Não são beans ObjectMapper de propósito: um segundo
+     * ObjectMapper no contexto desligaria o auto-configurado do Boot. JSON continua primeiro na lista
+     * de conversores, então Accept ausente ou * / * segue recebendo JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+}
@@ -1,28 +1,74 @@
 package br.ars.user_service.config;
 
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import br.ars.user_service.security.AdminKeyFilter;
+import br.ars.user_service.security.BearerTokenFilter;
+import br.ars.user_service.security.JwtUtil;
+import br.ars.user_service.security.PasswordEncoders;
+
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil,
+                                                   @Value("${app.security.admin-key:}") String adminKey) throws Exception {
         http
             .csrf(csrf -> csrf.disable()) // desativa CSRF (recomendado para APIs REST)
+            .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // sem token (ou com token recusado) numa rota protegida: 401 (o padrão sem form/basic seria 403)
+            .exceptionHandling(e -> e.authenticationEntryPoint(BearerTokenFilter.entryPoint()))
+            // token apresentado é sempre conferido (inclusive revogação); inválido → segue anônimo
+            .addFilterBefore(new BearerTokenFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(new AdminKeyFilter(adminKey), BearerTokenFilter.class)
             .authorizeHttpRequests(auth -> auth
-                .anyRequest().permitAll() // PERMITE TODAS AS ROTAS
+                // operações em massa: só com X-Admin-Key
+                .requestMatchers("/api/users/purge", "/api/users/purge/**").hasRole("ADMIN")
+                // gravação JFR: liga profiling e escreve em disco
+                .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN")
+                // alterar um usuário: só com o token do próprio (ou admin)
+                .requestMatchers(HttpMethod.PATCH, "/api/users/{id}").access(SecurityConfig::self)
+                .requestMatchers(HttpMethod.PUT, "/api/users/{id}/avatar").access(SecurityConfig::self)
+                .anyRequest().permitAll() // demais rotas públicas
             );
 
         return http.build();
     }
 
+    private static AuthorizationDecision self(Supplier<Authentication> auth, RequestAuthorizationContext ctx) {
+        Authentication a = auth.get();
+        boolean ok = a != null && a.isAuthenticated()
+                && (a.getName().equals(ctx.getVariables().get("id"))
+                    || a.getAuthorities().stream().anyMatch(g -> "ROLE_ADMIN".equals(g.getAuthority())));
+        return new AuthorizationDecision(ok);
+    }
+
+    // algoritmo e custo por deployment; custo calibrado em background após o start (ver PasswordEncoders)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.encoder:bcrypt}") String algorithm,
+            @Value("${app.security.password.target-ms:250}") long targetMs,
+            @Value("${app.security.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${app.security.bcrypt.max-strength:14}") int bcryptMaxStrength,
+            @Value("${app.security.argon2.memory-kb:19456}") int argon2MemoryKb,
+            @Value("${app.security.argon2.parallelism:1}") int argon2Parallelism,
+            @Value("${app.security.argon2.iterations:2}") int argon2Iterations,
+            @Value("${app.security.argon2.max-iterations:10}") int argon2MaxIterations) {
+        return PasswordEncoders.create(new PasswordEncoders.Settings(algorithm, targetMs,
+                bcryptStrength, bcryptMaxStrength,
+                argon2MemoryKb, argon2Parallelism, argon2Iterations, argon2MaxIterations));
     }
 }
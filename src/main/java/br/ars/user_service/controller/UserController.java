@@ -1,20 +1,46 @@
 package br.ars.user_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.Part;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import br.ars.user_service.cache.ProfileBytesCache;
+import br.ars.user_service.cache.UserVersionIndex;
+import br.ars.user_service.changes.ChangeFeed;
 import br.ars.user_service.dto.PerfilResponse;
 import br.ars.user_service.dto.RegisterRequest;
-import br.ars.user_service.models.User;
+import br.ars.user_service.dto.RegisterResponse;
+import br.ars.user_service.dto.UpdateProfileRequest;
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.queue.DbUnavailableException;
+import br.ars.user_service.registration.ClientKeys;
 import br.ars.user_service.registration.RegistrationCommand;
 import br.ars.user_service.registration.RegistrationQueueService;
+import br.ars.user_service.registration.RegistrationSubmit;
+import br.ars.user_service.search.NameSuggestIndex;
+import br.ars.user_service.search.TagIndex;
+import br.ars.user_service.search.TagQuery;
+import br.ars.user_service.security.LoginThrottledException;
+import br.ars.user_service.service.UserPurgeService;
 import br.ars.user_service.service.UserService;
+import br.ars.user_service.service.VersionConflictException;
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+import br.ars.user_service.util.EmailKeys;
+import br.ars.user_service.web.JsonBodies;
+import br.ars.user_service.web.ProfileResponses;
+import br.ars.user_service.web.WireFormat;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -27,12 +53,20 @@ public class UserController {
     private final ObjectMapper objectMapper;
     private final UserService service;
     private final RegistrationQueueService registrationQueueService;
+    private final ProfileResponses profiles;
+    private final UserVersionIndex versionIndex;
+    private final TagIndex tagIndex;
+    private final NameSuggestIndex suggestIndex;
+    private final UserPurgeService purgeService;
+    private final ChangeFeed changeFeed;
+    private final ClientKeys clientKeys;
 
     // ===================== REGISTER (multipart) =====================
     @PostMapping(value = "/register", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> register(
-            @RequestPart("data") String data,
-            @RequestPart(name = "avatar", required = false) MultipartFile avatar) {
+            @RequestPart("data") Part data,
+            @RequestPart(name = "avatar", required = false) MultipartFile avatar,
+            HttpServletRequest httpRequest) {
 
         try {
             log.info("[Controller] /register recebido | hasAvatar={} | ct={} | size={}",
@@ -40,12 +74,16 @@ public class UserController {
                     avatar != null ? avatar.getContentType() : null,
                     avatar != null ? avatar.getSize() : -1);
 
-            RegisterRequest request = objectMapper.readValue(data, RegisterRequest.class);
+            // direto do stream do part: sem String intermediária nem cópia para char[]
+            RegisterRequest request;
+            try (InputStream in = data.getInputStream(); StageTimer.Span s = StageTimer.start(Stage.PARSE)) {
+                request = objectMapper.readValue(in, RegisterRequest.class);
+            }
 
             // Idempotência rápida
-            if (service.findByEmail(request.getEmail()).isPresent()) {
+            if (service.existsByEmail(request.getEmail())) {
                 log.info("[Controller] Email já cadastrado: {}", request.getEmail());
-                return ResponseEntity.ok(Map.of("status", "already_exists", "email", request.getEmail()));
+                return ResponseEntity.ok(RegisterResponse.alreadyExists(request.getEmail()));
             }
 
             // Capture bytes AQUI (nunca enfileire MultipartFile)
@@ -62,22 +100,30 @@ public class UserController {
                 log.info("[Controller] Sem avatar no request ou arquivo vazio.");
             }
 
-            var cmd = new RegistrationCommand(request, avatarBytes, filename, contentType);
-            boolean offered = registrationQueueService.offer(cmd);
-            if (!offered) {
-                log.warn("[Controller] Fila cheia. Rejeitando por backpressure.");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
-                        "status", "queue_full",
-                        "message", "Sistema em pico. Tente novamente em instantes."
-                ));
+            var cmd = RegistrationCommand.of(clientKeys.of(httpRequest), request, avatarBytes, filename, contentType);
+            RegistrationSubmit submit = registrationQueueService.submit(cmd);
+            long expectedWaitMs = registrationQueueService.expectedWaitMillis();
+            String retryAfter = retryAfterSeconds(expectedWaitMs);
+            if (submit.getStatus() == RegistrationSubmit.Status.LANE_FULL) {
+                log.warn("[Controller] Lane do cliente cheia | client={}", cmd.getClientKey());
+                return JsonBodies.respond(HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+                        JsonBodies.CLIENT_QUEUE_FULL.render(expectedWaitMs));
+            }
+            if (submit.getStatus() == RegistrationSubmit.Status.REJECTED) {
+                log.warn("[Controller] Fila cheia. Rejeitando por backpressure | retryAfter={}s", retryAfter);
+                return JsonBodies.respond(HttpStatus.SERVICE_UNAVAILABLE, retryAfter,
+                        JsonBodies.QUEUE_FULL.render(expectedWaitMs));
             }
 
             int size = registrationQueueService.queueSize();
-            log.info("[Controller] Registro enfileirado | queueSize={}", size);
-            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
-                    "status", "accepted",
-                    "queueSize", size
-            ));
+            boolean coalesced = submit.getStatus() == RegistrationSubmit.Status.COALESCED;
+            log.info("[Controller] Registro enfileirado | ticket={} | coalesced={} | queueSize={} | expectedWaitMs={}",
+                    submit.getTicket(), coalesced, size, expectedWaitMs);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                    .body(RegisterResponse.accepted(submit.getTicket(), coalesced, size, expectedWaitMs));
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
         } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
             log.warn("[Controller] JSON inválido em 'data': {}", jpe.getOriginalMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -105,14 +151,21 @@ public class UserController {
         try {
             log.info("[Controller] /login | email={}", body != null ? body.email : null);
             if (body == null || body.email == null || body.password == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "status", "bad_request",
-                        "message", "Informe email e password."
-                ));
+                return JsonBodies.respond(HttpStatus.BAD_REQUEST, JsonBodies.LOGIN_MISSING_FIELDS);
             }
             String token = service.authenticateAndGenerateToken(body.email, body.password);
             log.info("[Controller] /login OK | email={}", body.email);
             return ResponseEntity.ok(Map.of("token", token));
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
+        } catch (LoginThrottledException lte) {
+            log.warn("[Controller] /login bloqueado | email={} | retryAfterMs={}", body.email, lte.getRetryAfterMs());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(lte.getRetryAfterMs()))
+                    .body(Map.of(
+                            "status", "too_many_attempts",
+                            "message", lte.getMessage()
+                    ));
         } catch (IllegalArgumentException iae) {
             log.warn("[Controller] /login inválido: {}", iae.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -128,13 +181,38 @@ public class UserController {
         }
     }
 
+    // ===================== LOGOUT =====================
+    @PostMapping(value = "/logout")
+    public ResponseEntity<?> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return JsonBodies.respond(HttpStatus.UNAUTHORIZED, JsonBodies.LOGOUT_MISSING_TOKEN);
+        }
+        try {
+            service.logout(authorization.substring("Bearer ".length()).trim());
+            return ResponseEntity.noContent().build();
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
+        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException ex) {
+            log.warn("[Controller] /logout token inválido: {}", ex.getMessage());
+            return JsonBodies.respond(HttpStatus.UNAUTHORIZED, JsonBodies.LOGOUT_INVALID_TOKEN);
+        }
+    }
+
     // ===================== PERFIL POR EMAIL =====================
-    @GetMapping(value = "/perfil", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getPerfilByEmail(@RequestParam("email") String email) {
+    // ETag forte por versão: If-None-Match atual → 304 sem ir ao banco; corpo pré-serializado
+    @GetMapping(value = "/perfil", produces = { MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE, WireFormat.SMILE_VALUE })
+    public ResponseEntity<?> getPerfilByEmail(@RequestParam("email") String email, HttpServletRequest httpRequest) {
         try {
             log.info("[Controller] GET /perfil | email={}", email);
-            PerfilResponse perfil = service.getPerfilByEmail(email);
-            return ResponseEntity.ok(perfil);
+            ResponseEntity<byte[]> notModified = profiles.notModified(httpRequest, ProfileBytesCache.KIND_PERFIL,
+                    versionIndex.byEmailKey(EmailKeys.normalize(email)));
+            if (notModified != null) return notModified;
+
+            UserView user = service.findViewByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+            return profiles.respond(httpRequest, ProfileBytesCache.KIND_PERFIL, user, PerfilResponse::from);
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
         } catch (Exception ex) {
             log.warn("[Controller] /perfil erro: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
@@ -145,24 +223,133 @@ public class UserController {
     }
 
     // ===================== GET BY ID (re-adicionado) =====================
-    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getById(@PathVariable("id") UUID id) {
+    @GetMapping(value = "/{id}", produces = { MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE, WireFormat.SMILE_VALUE })
+    public ResponseEntity<?> getById(@PathVariable("id") UUID id, HttpServletRequest httpRequest) {
         log.info("[Controller] GET /{} | id={}", "id", id);
+        ResponseEntity<byte[]> notModified = profiles.notModified(httpRequest, ProfileBytesCache.KIND_USER,
+                versionIndex.byId(id));
+        if (notModified != null) return notModified;
+
         return service.findById(id)
-                .map(UserResponse::from)
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
-                        "status", "not_found",
-                        "message", "Usuário não encontrado"
-                )));
+                .<ResponseEntity<?>>map(u -> profiles.respond(httpRequest, ProfileBytesCache.KIND_USER, u, UserResponse::from))
+                .orElseGet(() -> JsonBodies.respond(HttpStatus.NOT_FOUND, JsonBodies.USER_NOT_FOUND));
     }
 
     // ===================== EXISTS (por email) =====================
     @GetMapping(value = "/exists", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> existsByEmail(@RequestParam("email") String email) {
-        boolean exists = service.findByEmail(email).isPresent();
+        boolean exists = service.existsByEmail(email);
         log.info("[Controller] /exists | email={} | exists={}", email, exists);
-        return ResponseEntity.ok(Map.of("exists", exists));
+        return JsonBodies.respond(HttpStatus.OK, exists ? JsonBodies.EXISTS_TRUE : JsonBodies.EXISTS_FALSE);
+    }
+
+    // ===================== BUSCA POR TAGS =====================
+    // tags=java,spring|quarkus,-junior → java E (spring OU quarkus) E NÃO junior (ver TagQuery)
+    @GetMapping(value = "/search", produces = { MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE, WireFormat.SMILE_VALUE })
+    public ResponseEntity<?> searchByTags(@RequestParam("tags") String tags,
+                                          @RequestParam(name = "cursor", required = false) Integer cursor,
+                                          @RequestParam(name = "size", defaultValue = "20") int size) {
+        if (!tagIndex.isReady()) {
+            return JsonBodies.respond(HttpStatus.SERVICE_UNAVAILABLE, "5", JsonBodies.TAG_INDEX_LOADING);
+        }
+        TagQuery query;
+        try {
+            query = TagQuery.parse(tags);
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().body(Map.of("status", "bad_request", "message", iae.getMessage()));
+        }
+        TagIndex.Page page = tagIndex.search(query, cursor, Math.max(1, Math.min(size, 100)));
+        log.info("[Controller] /search | tags={} | total={} | page={}", tags, page.total(), page.ids().size());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("items", service.findViewsByIds(page.ids()).stream().map(UserResponse::from).toList());
+        body.put("total", page.total());
+        body.put("nextCursor", page.nextCursor());
+        return ResponseEntity.ok(body);
+    }
+
+    // ===================== AUTOCOMPLETE DE NOME =====================
+    // tráfego por tecla: responde da trie em memória, sem banco e sem log por requisição
+    @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> suggest(@RequestParam("q") String q,
+                                     @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        if (!suggestIndex.isReady()) {
+            return JsonBodies.respond(HttpStatus.SERVICE_UNAVAILABLE, "5", JsonBodies.SUGGEST_INDEX_LOADING);
+        }
+        int n = Math.max(1, Math.min(limit, suggestIndex.topK()));
+        return ResponseEntity.ok(Map.of("items", suggestIndex.suggest(q, n)));
+    }
+
+    // ===================== PATCH (campos enviados) =====================
+    // If-Match com o ETag lido antes: 412 se o perfil mudou no meio; resposta traz o ETag novo
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> patch(@PathVariable("id") UUID id, @RequestBody UpdateProfileRequest body,
+                                   HttpServletRequest httpRequest) {
+        try {
+            log.info("[Controller] PATCH /{id} | id={}", id);
+            Long expected = ProfileResponses.ifMatchVersion(httpRequest, id);
+            UserView updated = service.updateProfile(id, expected, body);
+            return profiles.respond(httpRequest, ProfileBytesCache.KIND_USER, updated, UserResponse::from);
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
+        } catch (VersionConflictException vce) {
+            return versionConflict(vce);
+        } catch (IllegalArgumentException iae) {
+            log.warn("[Controller] PATCH inválido: {}", iae.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "bad_request",
+                    "message", iae.getMessage()
+            ));
+        } catch (Exception ex) {
+            log.warn("[Controller] PATCH erro: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "not_found",
+                    "message", ex.getMessage()
+            ));
+        }
+    }
+
+    // ===================== TROCA DE AVATAR =====================
+    @PutMapping(value = "/{id}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> replaceAvatar(@PathVariable("id") UUID id,
+                                           @RequestPart("avatar") MultipartFile avatar,
+                                           HttpServletRequest httpRequest) {
+        try {
+            log.info("[Controller] PUT /{id}/avatar | id={} | ct={} | size={}", id, avatar.getContentType(), avatar.getSize());
+            Long expected = ProfileResponses.ifMatchVersion(httpRequest, id);
+            UserView updated = service.replaceAvatar(id, expected, avatar.getBytes(),
+                    avatar.getOriginalFilename(), avatar.getContentType());
+            return profiles.respond(httpRequest, ProfileBytesCache.KIND_USER, updated, UserResponse::from);
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
+        } catch (VersionConflictException vce) {
+            return versionConflict(vce);
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "bad_request",
+                    "message", iae.getMessage()
+            ));
+        } catch (java.util.concurrent.CompletionException ce) {
+            log.error("[Controller] Upload do avatar falhou | id={} | erro={}", id, ce.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of(
+                    "status", "cdn_error",
+                    "message", "Falha no upload do avatar. Tente novamente."
+            ));
+        } catch (Exception ex) {
+            log.warn("[Controller] PUT avatar erro: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "not_found",
+                    "message", ex.getMessage()
+            ));
+        }
+    }
+
+    private ResponseEntity<?> versionConflict(VersionConflictException ex) {
+        log.info("[Controller] Versão desatualizada: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of(
+                "status", "version_conflict",
+                "message", ex.getMessage()
+        ));
     }
 
     // ===================== DELETE =====================
@@ -172,6 +359,8 @@ public class UserController {
             log.info("[Controller] DELETE /{id} | id={}", id);
             service.deleteUser(id);
             return ResponseEntity.noContent().build();
+        } catch (DbUnavailableException due) {
+            return dbUnavailable(due);
         } catch (Exception ex) {
             log.warn("[Controller] DELETE erro: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
@@ -181,12 +370,107 @@ public class UserController {
         }
     }
 
+    // ===================== FEED DE MUDANÇAS =====================
+    // SSE: retoma de ?after= ou do Last-Event-ID (reconexão do EventSource); sem nenhum, só eventos novos
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public org.springframework.web.servlet.mvc.method.annotation.SseEmitter changesStream(
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        Long from = after;
+        if (from == null && lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                from = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new org.springframework.web.server.ResponseStatusException(HttpStatus.BAD_REQUEST, "Last-Event-ID inválido.");
+            }
+        }
+        try {
+            log.info("[Controller] /changes SSE | after={}", from);
+            return changeFeed.subscribe(from);
+        } catch (ChangeFeed.OffsetExpiredException oee) {
+            throw new org.springframework.web.server.ResponseStatusException(HttpStatus.GONE, oee.getMessage());
+        } catch (IllegalStateException ise) {
+            throw new org.springframework.web.server.ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ise.getMessage());
+        }
+    }
+
+    // long-poll: {"events":[...],"next":N}; o próximo pedido usa after=next
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public org.springframework.web.context.request.async.DeferredResult<ResponseEntity<String>> changesPoll(
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "limit", defaultValue = "500") int limit,
+            @RequestParam(name = "waitMs", defaultValue = "25000") long waitMs) {
+        try {
+            long from = after != null ? after : changeFeed.headOffset();
+            return changeFeed.poll(from, Math.max(1, Math.min(limit, 1000)), Math.max(0, Math.min(waitMs, 60000)));
+        } catch (ChangeFeed.OffsetExpiredException oee) {
+            return immediate(ResponseEntity.status(HttpStatus.GONE).contentType(MediaType.APPLICATION_JSON)
+                    .body(new String(JsonBodies.of("offset_expired", oee.getMessage()), StandardCharsets.UTF_8)));
+        } catch (IllegalStateException ise) {
+            return immediate(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new String(JsonBodies.of("unavailable", ise.getMessage()), StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static <T> org.springframework.web.context.request.async.DeferredResult<T> immediate(T value) {
+        var r = new org.springframework.web.context.request.async.DeferredResult<T>();
+        r.setResult(value);
+        return r;
+    }
+
+    // ===================== EXCLUSÃO EM LOTE (job em background) =====================
+    @PostMapping(value = "/purge", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> purge(@RequestBody PurgeRequest body) {
+        try {
+            UserPurgeService.Job job = purgeService.submit(body != null ? body.ids : null);
+            return ResponseEntity.accepted()
+                    .location(java.net.URI.create("/api/users/purge/" + job.getId()))
+                    .body(job.progress());
+        } catch (IllegalArgumentException iae) {
+            log.warn("[Controller] /purge inválido: {}", iae.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "bad_request",
+                    "message", iae.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping(value = "/purge/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> purgeProgress(@PathVariable("jobId") UUID jobId) {
+        return purgeService.job(jobId)
+                .<ResponseEntity<?>>map(j -> ResponseEntity.ok(j.progress()))
+                .orElseGet(() -> JsonBodies.respond(HttpStatus.NOT_FOUND, JsonBodies.PURGE_JOB_NOT_FOUND));
+    }
+
+    // getById / exists não têm try/catch próprio
+    @ExceptionHandler(DbUnavailableException.class)
+    public ResponseEntity<?> dbUnavailable(DbUnavailableException ex) {
+        log.warn("[Controller] Banco indisponível para a requisição: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "status", "unavailable",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    /** Retry-After em segundos (mínimo 1) a partir da espera estimada; sem medição ainda, 1s. */
+    private static String retryAfterSeconds(long expectedWaitMs) {
+        if (expectedWaitMs <= 0) return "1";
+        return Long.toString(Math.max(1L, (expectedWaitMs + 999) / 1000));
+    }
+
     // ===================== DTOs auxiliares =====================
     public static class LoginRequest {
         public String email;
         public String password;
     }
 
+    public static class PurgeRequest {
+        public java.util.List<UUID> ids;
+    }
+
     public static class UserResponse {
         public UUID id;
         public String nome;
@@ -198,21 +482,31 @@ public class UserController {
         public String avatarUrl;
         public OffsetDateTime dataCriacao;
 
-        public static UserResponse from(User u) {
+        public static UserResponse from(UserView u) {
             UserResponse r = new UserResponse();
-            r.id = u.getId();
-            r.nome = u.getNome();
-            r.email = u.getEmail();
-            r.telefone = u.getTelefone();
-            r.tipo = (u.getTipo() != null ? u.getTipo().name() : null);
-            r.bio = u.getBio();
-            r.tags = u.getTags();
-            r.avatarUrl = u.getAvatarUrl();
-            try {
-                // se sua entidade tiver getDataCriacao()
-                r.dataCriacao = (OffsetDateTime) User.class.getMethod("getDataCriacao").invoke(u);
-            } catch (Exception ignore) { /* campo opcional */ }
+            r.id = u.id();
+            r.nome = u.nome();
+            r.email = u.email();
+            r.telefone = u.telefone();
+            r.tipo = u.tipo();
+            r.bio = u.bio();
+            r.tags = u.tags();
+            r.avatarUrl = u.avatarUrl();
+            r.dataCriacao = u.dataCriacao() != null
+                    ? u.dataCriacao().atZone(ZoneId.systemDefault()).toOffsetDateTime()
+                    : null;
             return r;
         }
+
+        // getters: o Jackson (com Blackbird) usa acessores gerados em vez de reflection nos campos
+        public UUID getId() { return id; }
+        public String getNome() { return nome; }
+        public String getEmail() { return email; }
+        public String getTelefone() { return telefone; }
+        public String getTipo() { return tipo; }
+        public String getBio() { return bio; }
+        public java.util.List<String> getTags() { return tags; }
+        public String getAvatarUrl() { return avatarUrl; }
+        public OffsetDateTime getDataCriacao() { return dataCriacao; }
     }
 }
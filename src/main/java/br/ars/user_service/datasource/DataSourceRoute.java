@@ -0,0 +1,28 @@
+package br.ars.user_service.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Força o primário para as conexões abertas pela thread corrente, mesmo em transação readOnly
+ * (read-your-writes: o usuário acabou de escrever e a réplica pode ainda não ter o dado).
+ */
+public final class DataSourceRoute {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRoute() {}
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean prev = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (prev == null) PRIMARY.remove(); else PRIMARY.set(prev);
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,72 @@
+package br.ars.user_service.datasource;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.events.UserRegisteredEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
+
+/**
+ * Usuários (id e EmailKey) escritos há menos de read-your-writes-ms nesta instância: as leituras deles
+ * vão ao primário (ex.: login logo depois do registro). Sem réplica configurada, não registra nada.
+ * Janela por instância: quem registra numa réplica da app e lê em outra conta só com o max-lag-ms.
+ */
+@Component
+public class RecentWrites {
+
+    private final Map<Object, Long> until = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long windowMs;
+
+    public RecentWrites(MeterRegistry meters,
+                        @Value("${app.datasource.replica.url:}") String replicaUrl,
+                        @Value("${app.datasource.replica.read-your-writes-ms:5000}") long windowMs) {
+        this.enabled = replicaUrl != null && !replicaUrl.isBlank();
+        this.windowMs = windowMs;
+        Gauge.builder("db.route.recent.writes", until, Map::size).register(meters);
+    }
+
+    public boolean isRecent(UUID id, String emailKey) {
+        if (!enabled) return false;
+        long now = System.currentTimeMillis();
+        return (id != null && now < until.getOrDefault(id, 0L))
+                || (emailKey != null && now < until.getOrDefault(emailKey, 0L));
+    }
+
+    public void record(UUID id, String emailKey) {
+        if (!enabled) return;
+        long deadline = System.currentTimeMillis() + windowMs;
+        if (id != null) until.put(id, deadline);
+        if (emailKey != null) until.put(emailKey, deadline);
+    }
+
+    @EventListener
+    void onRegistered(UserRegisteredEvent e) {
+        record(e.user().id(), e.user().emailKey());
+    }
+
+    @EventListener
+    void onUpdated(UserUpdatedEvent e) {
+        record(e.user().id(), e.user().emailKey());
+    }
+
+    @EventListener
+    void onDeleted(UserDeletedEvent e) {
+        record(e.id(), e.emailKey());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-ms:5000}")
+    void sweep() {
+        long now = System.currentTimeMillis();
+        until.values().removeIf(t -> t <= now);
+    }
+}
@@ -0,0 +1,149 @@
+package br.ars.user_service.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Primário para escritas, réplica para transações readOnly.
+ * <ul>
+ *   <li>a decisão é tomada quando a conexão é de fato aberta — por isso fica atrás de um
+ *       LazyConnectionDataSourceProxy: o flag readOnly da transação só existe depois do begin;</li>
+ *   <li>{@link DataSourceRoute#onPrimary} força o primário (read-your-writes);</li>
+ *   <li>falha ao abrir conexão na réplica: a leitura cai no primário e a réplica fica fora por retry-after-ms;</li>
+ *   <li>guarda de atraso: um monitor mede o lag de replay da réplica; acima de max-lag-ms, tudo vai ao primário.</li>
+ * </ul>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    // lag zero quando a réplica já aplicou tudo o que recebeu (primário ocioso não conta como atraso)
+    private static final String LAG_SQL =
+            "select case when not pg_is_in_recovery() then 0 " +
+            "when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final long retryAfterMs;
+    private final long lagCheckMs;
+
+    private volatile long replicaDownUntilMs;
+    private volatile long lastLagMs;
+    private volatile boolean lagTooHigh;
+
+    private final Counter routedPrimary;
+    private final Counter routedReplica;
+    private final Counter fallbacks;
+    private final ScheduledExecutorService monitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meters,
+                                    long maxLagMs, long retryAfterMs, long lagCheckMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.retryAfterMs = retryAfterMs;
+        this.lagCheckMs = lagCheckMs;
+        this.routedPrimary = Counter.builder("db.route.connections").tag("route", "primary").register(meters);
+        this.routedReplica = Counter.builder("db.route.connections").tag("route", "replica").register(meters);
+        this.fallbacks = Counter.builder("db.route.replica.fallback").register(meters);
+        Gauge.builder("db.route.replica.lag.ms", this, r -> r.lastLagMs).register(meters);
+        Gauge.builder("db.route.replica.usable", this, r -> r.replicaUsable() ? 1 : 0).register(meters);
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        monitor.scheduleWithFixedDelay(this::checkLag, 0, lagCheckMs, TimeUnit.MILLISECONDS);
+        log.info("[DbRoute] Réplica habilitada | maxLagMs={} | retryAfterMs={} | lagCheckMs={}", maxLagMs, retryAfterMs, lagCheckMs);
+    }
+
+    public void close() {
+        monitor.shutdownNow();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    // mesmo roteamento; se o pool aceita credenciais por chamada é decisão dele
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(ds -> ds.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if (shouldUseReplica()) {
+            try {
+                Connection c = opener.open(replica);
+                routedReplica.increment();
+                return c;
+            } catch (SQLException ex) {
+                markReplicaDown(ex);
+                fallbacks.increment();
+            }
+        }
+        routedPrimary.increment();
+        return opener.open(primary);
+    }
+
+    private boolean shouldUseReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !DataSourceRoute.isPrimaryForced()
+                && replicaUsable();
+    }
+
+    /** Réplica no ar e dentro do lag: fora disso, leituras readOnly também vão ao primário. */
+    public boolean replicaUsable() {
+        return !lagTooHigh && System.currentTimeMillis() >= replicaDownUntilMs;
+    }
+
+    private void markReplicaDown(Exception ex) {
+        boolean wasUp = System.currentTimeMillis() >= replicaDownUntilMs;
+        replicaDownUntilMs = System.currentTimeMillis() + retryAfterMs;
+        if (wasUp) {
+            log.warn("[DbRoute] Réplica indisponível, leituras no primário por {}ms | erro={}", retryAfterMs, ex.getMessage());
+        }
+    }
+
+    void checkLag() {
+        try (Connection c = replica.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(LAG_SQL)) {
+            rs.next();
+            long lag = (long) rs.getDouble(1);
+            lastLagMs = lag;
+            boolean tooHigh = lag > maxLagMs;
+            if (tooHigh != lagTooHigh) {
+                log.warn("[DbRoute] Lag da réplica {} limite | lagMs={} | maxLagMs={}",
+                        tooHigh ? "acima do" : "de volta ao", lag, maxLagMs);
+            }
+            lagTooHigh = tooHigh;
+        } catch (Exception ex) {
+            markReplicaDown(ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource ds) throws SQLException;
+    }
+}
@@ -10,6 +10,17 @@ public class PerfilResponse {
     public String bio;
     public String avatarUrl;
 
+    public static PerfilResponse from(UserView user) {
+        PerfilResponse perfil = new PerfilResponse();
+        perfil.setNome(user.nome());
+        perfil.setTelefone(user.telefone());
+        perfil.setTipo(user.tipo());
+        perfil.setBio(user.bio());
+        perfil.setAvatarUrl(user.avatarUrl() != null && !user.avatarUrl().isBlank()
+                ? user.avatarUrl() : null);
+        return perfil;
+    }
+
     public String getNome() {
         return nome;
     }
@@ -0,0 +1,19 @@
+package br.ars.user_service.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** Resposta do /register (202 aceito/coalescido, ou 200 já cadastrado); campos nulos não vão no JSON. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RegisterResponse(String status, UUID ticket, Boolean coalesced, Integer queueSize,
+                               Long expectedWaitMs, String email) {
+
+    public static RegisterResponse accepted(UUID ticket, boolean coalesced, int queueSize, long expectedWaitMs) {
+        return new RegisterResponse("accepted", ticket, coalesced, queueSize, expectedWaitMs, null);
+    }
+
+    public static RegisterResponse alreadyExists(String email) {
+        return new RegisterResponse("already_exists", null, null, null, null, email);
+    }
+}
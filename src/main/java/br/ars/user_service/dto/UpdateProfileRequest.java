@@ -0,0 +1,23 @@
+package br.ars.user_service.dto;
+
+import java.util.List;
+
+/** PATCH do perfil: campo ausente (null) não muda; bio "" limpa a bio. E-mail e senha não mudam por aqui. */
+public class UpdateProfileRequest {
+    public String nome;
+    public String telefone;
+    public String tipo; // Enum: PROFISSIONAL, CONSULTOR
+    public String bio;
+    public List<String> tags;
+
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public String getTelefone() { return telefone; }
+    public void setTelefone(String telefone) { this.telefone = telefone; }
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    public String getBio() { return bio; }
+    public void setBio(String bio) { this.bio = bio; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
+}
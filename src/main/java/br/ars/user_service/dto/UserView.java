@@ -0,0 +1,45 @@
+package br.ars.user_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import br.ars.user_service.models.User;
+
+/**
+ * Snapshot imutável de um usuário, seguro para compartilhar entre threads
+ * (resultado das leituras coalescidas do UserService).
+ */
+public record UserView(
+        UUID id,
+        String nome,
+        String email,
+        String emailKey,
+        String telefone,
+        String tipo,
+        String bio,
+        List<String> tags,
+        String avatarUrl,
+        LocalDateTime dataCriacao,
+        long version) {
+
+    public UserView {
+        tags = tags == null ? null : List.copyOf(tags);
+    }
+
+    /** Deve ser chamado com a sessão aberta (tags são lazy). */
+    public static UserView of(User u) {
+        return new UserView(
+                u.getId(),
+                u.getNome(),
+                u.getEmail(),
+                u.getEmailKey(),
+                u.getTelefone(),
+                u.getTipo() != null ? u.getTipo().name() : null,
+                u.getBio(),
+                u.getTags(),
+                u.getAvatarUrl(),
+                u.getDataCriacao(),
+                u.getVersion() != null ? u.getVersion() : 0L);
+    }
+}
@@ -0,0 +1,6 @@
+package br.ars.user_service.events;
+
+import java.util.UUID;
+
+/** Publicado pelo UserPurgeService depois do commit da exclusão (unitária ou em lote). */
+public record UserDeletedEvent(UUID id, String emailKey) {}
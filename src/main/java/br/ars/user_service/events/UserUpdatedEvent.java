@@ -0,0 +1,6 @@
+package br.ars.user_service.events;
+
+import br.ars.user_service.dto.UserView;
+
+/** Publicado pelo UserService depois do commit de uma alteração de perfil (já com a nova versão). */
+public record UserUpdatedEvent(UserView user) {}
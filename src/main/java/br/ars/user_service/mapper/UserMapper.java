@@ -13,9 +13,9 @@ import org.mapstruct.ReportingPolicy;
 )
 public interface UserMapper {
 
-    // id é gerado pelo banco
+    // id é gerado na aplicação (UUIDv7, ver TimeOrderedId)
     @Mapping(target = "id", ignore = true)
-    // avatarUrl será setado após o upload para o CDN
+    // avatarUrl é montada no serviço a partir do id (antes do INSERT)
     @Mapping(target = "avatarUrl", ignore = true)
     // String -> Enum (UserType)
     @Mapping(target = "tipo",
@@ -0,0 +1,96 @@
+package br.ars.user_service.models;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Upload de avatar pendente. Só é gravado quando o upload pós-commit do registro falha:
+ * guarda os bytes e é reprocessado com backoff até dar certo ou esgotar as tentativas.
+ */
+@Entity
+@Table(name = "avatar_upload_outbox", indexes = {
+        @Index(name = "ix_avatar_upload_outbox_next", columnList = "NextAttemptAt")
+})
+@NoArgsConstructor
+public class AvatarUploadOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(nullable = false, name = "UserId")
+    private UUID userId;
+
+    @Column(nullable = false, name = "ObjectKey", length = 512)
+    private String objectKey;
+
+    @Column(name = "ContentType", length = 128)
+    private String contentType;
+
+    @Column(nullable = false, name = "Payload", columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(nullable = false, name = "Attempts")
+    private int attempts;
+
+    @Column(nullable = false, name = "NextAttemptAt")
+    private Instant nextAttemptAt;
+
+    @Column(name = "LastError", length = 500)
+    private String lastError;
+
+    @Column(nullable = false, name = "CreatedAt")
+    private Instant createdAt;
+
+    public AvatarUploadOutbox(UUID userId, String objectKey, String contentType, byte[] payload,
+                              String lastError, Instant nextAttemptAt) {
+        this.userId = userId;
+        this.objectKey = objectKey;
+        this.contentType = contentType;
+        this.payload = payload;
+        this.attempts = 1;
+        this.lastError = lastError;
+        this.nextAttemptAt = nextAttemptAt;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
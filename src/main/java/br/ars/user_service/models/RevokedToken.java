@@ -0,0 +1,65 @@
+package br.ars.user_service.models;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Revogação de JWT. Com {@code jti}: revoga aquele token. Sem {@code jti}: revoga todos os tokens
+ * do usuário emitidos até {@code revokedAt} (ex.: usuário deletado).
+ * A linha pode ser apagada depois de {@code expiresAt} — o token já estaria expirado de qualquer forma.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "ix_revoked_tokens_revoked_at", columnList = "RevokedAt"),
+        @Index(name = "ix_revoked_tokens_expires_at", columnList = "ExpiresAt")
+})
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "Jti", length = 36)
+    private String jti;
+
+    @Column(name = "UserId")
+    private UUID userId;
+
+    @Column(nullable = false, name = "RevokedAt")
+    private Instant revokedAt;
+
+    @Column(nullable = false, name = "ExpiresAt")
+    private Instant expiresAt;
+
+    public RevokedToken(String jti, UUID userId, Instant revokedAt, Instant expiresAt) {
+        this.jti = jti;
+        this.userId = userId;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
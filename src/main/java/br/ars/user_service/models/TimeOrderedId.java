@@ -0,0 +1,17 @@
+package br.ars.user_service.models;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/** Id UUID ordenado por tempo (v7), gerado na aplicação. Ver {@link UuidV7Generator}. */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface TimeOrderedId {
+}
@@ -2,20 +2,28 @@ package br.ars.user_service.models;
 
 import jakarta.persistence.*;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 import br.ars.user_service.enums.UserType;
+import br.ars.user_service.util.EmailKeys;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // chave normalizada (EmailKey): toda busca por e-mail é match exato neste índice
+        @Index(name = "ux_users_email_key", columnList = "EmailKey", unique = true)
+})
 @NoArgsConstructor
+// UPDATE só com as colunas alteradas (PATCH de perfil): não reescreve bio/senha quando muda só o nome
+@DynamicUpdate
 public class User {
 
+    // UUIDv7 gerado na aplicação: ordenado por tempo, insert sempre no fim do índice
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     @Column(name = "ID")
     private UUID id;
 
@@ -25,6 +33,10 @@ public class User {
     @Column(unique = true, nullable = false, name = "Email")
     private String email;
 
+    /** E-mail normalizado (ver EmailKeys); nullable só enquanto o backfill não termina. */
+    @Column(name = "EmailKey", length = 320)
+    private String emailKey;
+
     @Column(unique = true, nullable = false, name = "Telefone")
     private String telefone;
 
@@ -49,6 +61,11 @@ public class User {
     @Column(name = "DataCriacao")
     private LocalDateTime dataCriacao = LocalDateTime.now();
 
+    /** Lock otimista; também é a base do ETag das leituras de perfil. */
+    @Version
+    @Column(nullable = false, name = "Versao", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     public UUID getId() {
         return id;
     }
@@ -73,6 +90,14 @@ public class User {
         this.email = email;
     }
 
+    public String getEmailKey() {
+        return emailKey;
+    }
+
+    public void setEmailKey(String emailKey) {
+        this.emailKey = emailKey;
+    }
+
     public String getTelefone() {
         return telefone;
     }
@@ -129,6 +154,20 @@ public class User {
         this.dataCriacao = dataCriacao;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncEmailKey() {
+        this.emailKey = EmailKeys.normalize(email);
+    }
+
     // Getters e Setters (mantidos)
     
 }
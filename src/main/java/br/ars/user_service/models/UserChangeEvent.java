@@ -0,0 +1,71 @@
+package br.ars.user_service.models;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Evento do feed de mudanças (GET /api/users/changes), gravado na mesma transação da escrita.
+ * O ID (identity) é o offset do feed; payload = JSON compacto com o estado publicado do usuário.
+ */
+@Entity
+@Table(name = "user_change_events", indexes = {
+        @Index(name = "ix_user_change_events_created_at", columnList = "CreatedAt")
+})
+@NoArgsConstructor
+public class UserChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(nullable = false, name = "UserId")
+    private UUID userId;
+
+    @Column(nullable = false, name = "Type", length = 16)
+    private String type;
+
+    @Column(nullable = false, name = "Version")
+    private long version;
+
+    @Column(name = "Payload", columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false, name = "CreatedAt")
+    private Instant createdAt;
+
+    public UserChangeEvent(UUID userId, String type, long version, String payload) {
+        this.userId = userId;
+        this.type = type;
+        this.version = version;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,30 @@
+package br.ars.user_service.models;
+
+import java.util.EnumSet;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import br.ars.user_service.util.UuidV7;
+
+/**
+ * Gerador Hibernate por trás de {@link TimeOrderedId}: gera o UUIDv7 na aplicação antes do INSERT.
+ * Id já atribuído pelo serviço (ex.: para montar a chave do avatar antes de persistir) é mantido.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        if (currentValue != null) return currentValue;
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : UuidV7.next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
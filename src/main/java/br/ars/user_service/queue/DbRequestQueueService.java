@@ -1,46 +1,364 @@
 package br.ars.user_service.queue;
 
+import br.ars.user_service.concurrency.AdaptiveLimiter;
+import br.ars.user_service.concurrency.OverloadSignals;
+import br.ars.user_service.concurrency.RequestDeadline;
+import br.ars.user_service.datasource.DataSourceRoute;
+import br.ars.user_service.datasource.ReplicaRoutingDataSource;
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Bulkhead do banco: todo acesso do UserService ao repositório passa por aqui.
+ * <ul>
+ *   <li>workers = tamanho do pool Hikari (+ pool da réplica, se houver); concorrência efetiva adaptativa (AdaptiveLimiter);</li>
+ *   <li>tarefas que vão ao primário (escritas, {@link #readPrimary} e leituras com a réplica fora) pegam antes
+ *       uma das permissões do tamanho do pool primário: com réplica, os workers extras não ficam disputando
+ *       conexão no Hikari do primário — esperam a permissão, limitados pelo próprio deadline;</li>
+ *   <li>leituras (READ) passam na frente das escritas (WRITE), com envelhecimento: a leitura ganha só
+ *       app.db.write-aging-ms de vantagem, então uma escrita que esperou mais que isso passa na frente das
+ *       leituras que chegaram depois — carga contínua de leitura não mata escrita por deadline;</li>
+ *   <li>cada tarefa leva o deadline de quem pediu e é descartada sem executar se ele já passou —
+ *       o banco nunca trabalha para um cliente que já desistiu. Só a tarefa ainda na fila é descartada:
+ *       escrita que um worker já começou termina e quem pediu recebe o resultado real (um commit
+ *       nunca é reportado como falha);</li>
+ *   <li>cada tarefa roda na própria transação (readOnly para READ — vai à réplica, se configurada;
+ *       {@link #readPrimary} para leituras que precisam ver a última escrita).</li>
+ * </ul>
+ */
+@Slf4j
 @Service
 public class DbRequestQueueService {
 
-    private final BlockingQueue<Runnable> queue;
+    public enum Priority { READ, WRITE }
+
+    private final PriorityBlockingQueue<DbTask<?>> queue = new PriorityBlockingQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong seq = new AtomicLong();
+    private final int capacity;
+    private final int workers;
+    private final long defaultTimeoutNanos;
+    private final long readLeadNanos;
     private final ExecutorService dbExecutor;
+    // conexões do primário: no máximo primaryPool tarefas nele ao mesmo tempo
+    private final Semaphore primaryPermits;
+    private final BooleanSupplier replicaUsable;
+    // concorrência efetiva no banco: adaptativa, com teto = tamanho do pool Hikari
+    private final AdaptiveLimiter limiter;
+
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate writeTx;
+
+    private final Map<Priority, Timer> queueTime = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> execTime = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> expired = new EnumMap<>(Priority.class);
+    private final Counter rejected;
+
+    public DbRequestQueueService(MeterRegistry meters,
+                                 PlatformTransactionManager txManager,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int primaryPool,
+                                 @Value("#{'${app.datasource.replica.url:}'.isBlank() ? 0 : ${app.datasource.replica.maximum-pool-size:10}}") int replicaPool,
+                                 @Value("${app.db.queue.capacity:5000}") int capacity,
+                                 @Value("${app.db.default-timeout-ms:2000}") long defaultTimeoutMs,
+                                 @Value("${app.db.write-aging-ms:100}") long writeAgingMs,
+                                 ObjectProvider<ReplicaRoutingDataSource> routing) {
+        int workers = primaryPool + replicaPool;
+        ReplicaRoutingDataSource replicaRouting = routing.getIfAvailable();
+        // com AOT a presença do roteamento foi decidida no build; a URL aqui é a do runtime
+        if ((replicaPool > 0) != (replicaRouting != null)) {
+            throw new IllegalStateException("app.datasource.replica.url " + (replicaPool > 0 ? "definida" : "vazia")
+                    + " em runtime, mas o contexto foi gerado " + (replicaRouting != null ? "com" : "sem")
+                    + " réplica (build AOT): refaça o build -PfastStartup com a mesma configuração de réplica.");
+        }
+        this.replicaUsable = replicaRouting != null ? replicaRouting::replicaUsable : () -> false;
+        this.primaryPermits = new Semaphore(primaryPool);
+        this.capacity = capacity;
+        this.workers = workers;
+        this.defaultTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(defaultTimeoutMs);
+        this.readLeadNanos = TimeUnit.MILLISECONDS.toNanos(writeAgingMs);
+        this.dbExecutor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r);
+            t.setName("db-bulkhead-" + t.getId());
+            t.setDaemon(true);
+            return t;
+        });
+        this.limiter = new AdaptiveLimiter("db", Math.max(1, workers / 2), 1, workers);
 
-    public DbRequestQueueService() {
-        int workers = 10; // igual ao Hikari pool
-        this.queue = new ArrayBlockingQueue<>(5000);
-        this.dbExecutor = new ThreadPoolExecutor(
-                workers,
-                workers,
-                0L,
-                TimeUnit.MILLISECONDS,
-                queue
-        );
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(txManager);
+
+        for (Priority p : Priority.values()) {
+            String tag = p.name().toLowerCase();
+            queueTime.put(p, Timer.builder("db.bulkhead.queue.time").tag("priority", tag)
+                    .publishPercentileHistogram().register(meters));
+            execTime.put(p, Timer.builder("db.bulkhead.exec.time").tag("priority", tag)
+                    .publishPercentileHistogram().register(meters));
+            expired.put(p, Counter.builder("db.bulkhead.expired").tag("priority", tag).register(meters));
+        }
+        this.rejected = Counter.builder("db.bulkhead.rejected").register(meters);
+        Gauge.builder("db.queue.depth", queued, AtomicInteger::get).register(meters);
+        Gauge.builder("db.concurrency.limit", limiter, AdaptiveLimiter::limit).register(meters);
+        Gauge.builder("db.bulkhead.primary.available", primaryPermits, Semaphore::availablePermits).register(meters);
     }
 
-    public <T> CompletableFuture<T> submit(Supplier<T> task) {
-        CompletableFuture<T> future = new CompletableFuture<>();
-        try {
-            dbExecutor.submit(() -> {
-                try {
-                    T result = task.get();
-                    future.complete(result);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                }
-            });
-        } catch (RejectedExecutionException e) {
-            future.completeExceptionally(new RuntimeException("Fila cheia, tente novamente mais tarde."));
+    @PostConstruct
+    void startWorkers() {
+        for (int i = 0; i < workers; i++) {
+            dbExecutor.submit(this::loop);
         }
+        log.info("[DbBulkhead] Workers iniciados | workers={} | capacidade={}", workers, capacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dbExecutor.shutdownNow();
+    }
+
+    // ===== API bloqueante (usa o deadline da thread corrente; fila + transação contam como estágio "db") =====
+
+    /** Leitura em transação readOnly, com prioridade sobre escritas. */
+    public <T> T read(Supplier<T> work) {
+        long deadline = deadline();
+        try (StageTimer.Span span = StageTimer.start(Stage.DB)) {
+            return await(submit(Priority.READ, false, deadline, () -> readTx.execute(s -> work.get())), deadline, false);
+        }
+    }
+
+    /** Escrita em transação própria. */
+    public <T> T write(Supplier<T> work) {
+        long deadline = deadline();
+        try (StageTimer.Span span = StageTimer.start(Stage.DB)) {
+            return await(submit(Priority.WRITE, true, deadline, () -> writeTx.execute(s -> work.get())), deadline, true);
+        }
+    }
+
+    /** Leitura readOnly, mas no primário (read-your-writes / dados que a réplica atrasada não pode devolver). */
+    public <T> T readPrimary(Supplier<T> work) {
+        long deadline = deadline();
+        try (StageTimer.Span span = StageTimer.start(Stage.DB)) {
+            return await(submit(Priority.READ, true, deadline,
+                    () -> DataSourceRoute.onPrimary(() -> readTx.execute(s -> work.get()))), deadline, false);
+        }
+    }
+
+    public void writeVoid(Runnable work) {
+        write(() -> { work.run(); return null; });
+    }
+
+    // ===== API assíncrona =====
+
+    public <T> CompletableFuture<T> submit(Priority priority, long deadlineNanos, Supplier<T> task) {
+        return submit(priority, priority == Priority.WRITE, deadlineNanos, task);
+    }
+
+    private <T> TaskFuture<T> submit(Priority priority, boolean primary, long deadlineNanos, Supplier<T> task) {
+        TaskFuture<T> future = new TaskFuture<>();
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            rejected.increment();
+            future.completeExceptionally(new DbUnavailableException("Fila cheia, tente novamente mais tarde."));
+            return future;
+        }
+        long now = System.nanoTime();
+        long rank = priority == Priority.READ ? now - readLeadNanos : now;
+        queue.add(new DbTask<>(priority, primary, rank, seq.incrementAndGet(), deadlineNanos, now, task, future));
         return future;
     }
 
+    private void loop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            DbTask<?> task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException ie) {
+                limiter.release();
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queued.decrementAndGet();
+            run(task);
+        }
+    }
+
+    private <T> void run(DbTask<T> task) {
+        long start = System.nanoTime();
+        queueTime.get(task.priority).record(start - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+
+        if (task.future.isDone()) {            // quem pediu já desistiu (timeout/cancel)
+            expired.get(task.priority).increment();
+            limiter.release();
+            return;
+        }
+        if (start - task.deadlineNanos >= 0) {
+            expired.get(task.priority).increment();
+            task.future.completeExceptionally(new DeadlineExceededException("Deadline expirado antes de acessar o banco."));
+            limiter.release();
+            return;
+        }
+
+        // decidido na hora de executar: a réplica pode ter caído enquanto a leitura esperava na fila
+        boolean onPrimary = task.primary || !replicaUsable.getAsBoolean();
+        if (onPrimary && !acquirePrimary(task.deadlineNanos)) {
+            expired.get(task.priority).increment();
+            task.future.completeExceptionally(new DeadlineExceededException("Deadline expirado aguardando conexão do primário."));
+            limiter.release();
+            return;
+        }
+
+        if (!task.future.claim()) {           // quem pediu desistiu enquanto a tarefa esperava
+            if (onPrimary) primaryPermits.release();
+            expired.get(task.priority).increment();
+            limiter.release();
+            return;
+        }
+
+        long execStart = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            task.future.complete(task.work.get());
+        } catch (Exception e) {
+            overloaded = OverloadSignals.isOverload(e);
+            task.future.completeExceptionally(e);
+        } finally {
+            if (onPrimary) primaryPermits.release();
+            long elapsed = System.nanoTime() - execStart;
+            execTime.get(task.priority).record(elapsed, TimeUnit.NANOSECONDS);
+            limiter.release(elapsed, overloaded);
+        }
+    }
+
+    private boolean acquirePrimary(long deadlineNanos) {
+        if (primaryPermits.tryAcquire()) return true;
+        try {
+            long remaining = deadlineNanos - System.nanoTime();
+            return remaining > 0 && primaryPermits.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long deadline() {
+        return RequestDeadline.currentOr(defaultTimeoutNanos);
+    }
+
+    /**
+     * Espera o resultado até o deadline. Ao estourar, a tarefa ainda na fila é retirada e quem pediu
+     * recebe DeadlineExceededException. Se um worker já a começou, {@code waitIfRunning} (escritas)
+     * espera o desfecho real: o commit pode já ter acontecido e o chamador precisa saber.
+     */
+    private static <T> T await(TaskFuture<T> future, long deadlineNanos, boolean waitIfRunning) {
+        try {
+            long remaining = deadlineNanos - System.nanoTime();
+            return future.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException te) {
+            if (future.drop() || !waitIfRunning) {
+                future.completeExceptionally(new DeadlineExceededException("Deadline expirado aguardando o banco."));
+            }
+            return joinUnwrapped(future);
+        } catch (InterruptedException ie) {
+            if (future.drop()) future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new DbUnavailableException("Interrompido aguardando o banco.");
+        } catch (ExecutionException ee) {
+            throw unwrap(ee.getCause());
+        }
+    }
+
+    // a tarefa pode ter terminado entre o timeout e o completeExceptionally (vale o que ganhou);
+    // escrita em andamento: espera o worker
+    private static <T> T joinUnwrapped(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ce) {
+            throw unwrap(ce.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException re) return re;
+        if (cause instanceof Error err) throw err;
+        return new RuntimeException(cause);
+    }
+
     public int getQueueSize() {
-        return queue.size();
+        return queued.get();
+    }
+
+    public int getConcurrencyLimit() {
+        return limiter.limit();
+    }
+
+    private static final class DbTask<T> implements Comparable<DbTask<?>> {
+        final Priority priority;
+        // escrita ou readPrimary: sempre no primário
+        final boolean primary;
+        // instante de chegada, adiantado de readLeadNanos para leituras: fixo, então a ordem da heap não muda
+        final long rank;
+        final long seq;
+        final long deadlineNanos;
+        final long enqueuedNanos;
+        final Supplier<T> work;
+        final TaskFuture<T> future;
+
+        DbTask(Priority priority, boolean primary, long rank, long seq, long deadlineNanos, long enqueuedNanos,
+               Supplier<T> work, TaskFuture<T> future) {
+            this.priority = priority;
+            this.primary = primary;
+            this.rank = rank;
+            this.seq = seq;
+            this.deadlineNanos = deadlineNanos;
+            this.enqueuedNanos = enqueuedNanos;
+            this.work = work;
+            this.future = future;
+        }
+
+        @Override
+        public int compareTo(DbTask<?> o) {
+            // READ antes de WRITE, a menos que a escrita espere há mais que a vantagem da leitura
+            int c = Long.compare(rank - o.rank, 0L);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    /** Future da tarefa: o worker a reivindica antes de executar; só a não reivindicada pode ser descartada. */
+    private static final class TaskFuture<T> extends CompletableFuture<T> {
+        private static final int QUEUED = 0, RUNNING = 1, DROPPED = 2;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        boolean drop() {
+            return state.compareAndSet(QUEUED, DROPPED);
+        }
     }
 }
@@ -0,0 +1,9 @@
+package br.ars.user_service.queue;
+
+/** Banco indisponível para esta requisição (bulkhead cheio ou deadline estourado) — vira 503. */
+public class DbUnavailableException extends RuntimeException {
+
+    public DbUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package br.ars.user_service.queue;
+
+/** A tarefa de banco não começou antes do deadline de quem a pediu; foi descartada sem executar. */
+public class DeadlineExceededException extends DbUnavailableException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,286 @@
+package br.ars.user_service.queue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fila justa por cliente: cada chave (IP, API key...) tem sua própria sub-fila ("lane")
+ * com limite de profundidade, e os consumidores servem as lanes ativas em round-robin
+ * ponderado (até {@code weight} itens por vez). Offer e take são O(1).
+ *
+ * Um cliente barulhento só enche a própria lane; os demais continuam sendo atendidos.
+ * <p>
+ * Produtores não tocam em lock: a admissão (limite da lane e global) é feita com CAS em contadores,
+ * e o item vai para um {@link IntakeRing} pré-alocado. Os consumidores, um de cada vez, drenam o ring
+ * em lote para as lanes e escolhem o próximo item; o lock dos consumidores só é disputado entre eles
+ * (os workers), nunca com as threads do Tomcat. A espera com a fila vazia segue a {@link WaitStrategy}.
+ */
+public class FairQueue<T> {
+
+    public enum Offer { OK, LANE_FULL, QUEUE_FULL }
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int capacity;
+    private final int laneCapacity;
+    private final int drainBatch;
+    private final WaitStrategy waitStrategy;
+
+    // ---- admissão (produtores, sem lock)
+    // itens admitidos e ainda não entregues (no ring ou nas lanes)
+    private final AtomicInteger size = new AtomicInteger();
+    // contador por lane com itens pendentes; sai do mapa quando zera
+    private final ConcurrentHashMap<String, LaneCounter> counters = new ConcurrentHashMap<>();
+    private final LongAdder rejectedLaneFull = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final IntakeRing<T> intake;
+
+    // ---- consumidores (sob consumerLock)
+    private final ReentrantLock consumerLock = new ReentrantLock();
+    // lanes com itens; lane vazia sai do mapa e do anel
+    private final Map<String, Lane<T>> lanes = new HashMap<>();
+    private final ArrayDeque<Lane<T>> active = new ArrayDeque<>();
+    private final IntakeRing.Sink<T> toLane = this::enqueueLane;
+
+    // ---- BLOCKING: produtor só sinaliza se há consumidor dormindo
+    private final ReentrantLock parkLock = new ReentrantLock();
+    private final Condition notEmpty = parkLock.newCondition();
+    private final AtomicInteger parked = new AtomicInteger();
+
+    public FairQueue(int capacity, int laneCapacity) {
+        this(capacity, laneCapacity, WaitStrategy.BLOCKING, 64);
+    }
+
+    public FairQueue(int capacity, int laneCapacity, WaitStrategy waitStrategy, int drainBatch) {
+        if (capacity <= 0 || laneCapacity <= 0) throw new IllegalArgumentException("capacidades devem ser > 0");
+        if (drainBatch <= 0) throw new IllegalArgumentException("drainBatch deve ser > 0");
+        this.capacity = capacity;
+        this.laneCapacity = laneCapacity;
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.BLOCKING : waitStrategy;
+        this.drainBatch = drainBatch;
+        this.intake = new IntakeRing<>(capacity);
+    }
+
+    public Offer offer(String laneKey, int weight, T item) {
+        LaneCounter lane = admitLane(laneKey);
+        if (lane == null) {
+            rejectedLaneFull.increment();
+            return Offer.LANE_FULL;
+        }
+        if (!admitGlobal()) {
+            lane.rejected.increment();
+            releaseLane(laneKey, lane);
+            rejectedQueueFull.increment();
+            return Offer.QUEUE_FULL;
+        }
+        int w = Math.max(1, weight);
+        lane.weight = w;
+        lane.enqueued.increment();
+        intake.publish(laneKey, w, item);
+        if (parked.get() > 0) signalParked();
+        return Offer.OK;
+    }
+
+    public T take() throws InterruptedException {
+        return await(false, 0L);
+    }
+
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return await(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    // ===================== admissão =====================
+
+    // reserva uma vaga na lane; null = lane cheia
+    private LaneCounter admitLane(String key) {
+        for (;;) {
+            LaneCounter c = counters.get(key);
+            if (c == null) c = counters.computeIfAbsent(key, LaneCounter::new);
+            for (;;) {
+                int depth = c.depth.get();
+                if (depth < 0) break; // contador morto (lane esvaziou): pega o novo
+                if (depth >= laneCapacity) {
+                    c.rejected.increment();
+                    return null;
+                }
+                if (c.depth.compareAndSet(depth, depth + 1)) return c;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean admitGlobal() {
+        for (;;) {
+            int s = size.get();
+            if (s >= capacity) return false;
+            if (size.compareAndSet(s, s + 1)) return true;
+        }
+    }
+
+    // 0 → -1 marca o contador como morto antes de tirá-lo do mapa: um produtor que chegue no meio
+    // ou ganha o CAS (e a lane continua) ou vê -1 e cria outro
+    private void releaseLane(String key, LaneCounter c) {
+        if (c.depth.decrementAndGet() == 0 && c.depth.compareAndSet(0, -1)) {
+            counters.remove(key, c);
+        }
+    }
+
+    private void signalParked() {
+        parkLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            parkLock.unlock();
+        }
+    }
+
+    // ===================== consumo =====================
+
+    private T await(boolean timed, long deadline) throws InterruptedException {
+        for (int idle = 0; ; idle++) {
+            T item = tryTake();
+            if (item != null) return item;
+            if (Thread.interrupted()) throw new InterruptedException();
+            long remaining = timed ? deadline - System.nanoTime() : Long.MAX_VALUE;
+            if (remaining <= 0L) return null;
+            idle(idle, remaining);
+        }
+    }
+
+    private T tryTake() {
+        if (size.get() == 0) return null;
+        consumerLock.lock();
+        try {
+            if (intake.hasPublished()) intake.drain(toLane, drainBatch);
+            return active.isEmpty() ? null : dequeue();
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    private void idle(int round, long remainingNanos) throws InterruptedException {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case SLEEPING -> {
+                if (round < 100) Thread.onSpinWait();
+                else if (round < 200) Thread.yield();
+                else LockSupport.parkNanos(Math.min(remainingNanos, SLEEP_NANOS));
+            }
+            case BLOCKING -> {
+                parkLock.lockInterruptibly();
+                try {
+                    parked.incrementAndGet();
+                    try {
+                        // item admitido depois do incremento acima: o produtor vê parked > 0 e sinaliza
+                        if (size.get() == 0) notEmpty.awaitNanos(Math.min(remainingNanos, MAX_PARK_NANOS));
+                    } finally {
+                        parked.decrementAndGet();
+                    }
+                } finally {
+                    parkLock.unlock();
+                }
+                // size > 0 mas ainda não publicado no ring: espera curta antes de tentar de novo
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void enqueueLane(String key, int weight, T item) {
+        Lane<T> lane = lanes.get(key);
+        if (lane == null) {
+            lane = new Lane<>(key, counters.get(key));
+            lanes.put(key, lane);
+        }
+        lane.weight = weight;
+        lane.items.addLast(item);
+        if (lane.items.size() == 1) active.addLast(lane);
+    }
+
+    private T dequeue() {
+        Lane<T> lane = active.peekFirst();
+        T item = lane.items.pollFirst();
+        lane.servedInTurn++;
+        if (lane.items.isEmpty()) {
+            active.pollFirst();
+            lanes.remove(lane.key);
+        } else if (lane.servedInTurn >= lane.weight) {
+            active.pollFirst();
+            lane.servedInTurn = 0;
+            active.addLast(lane);
+        }
+        size.decrementAndGet();
+        releaseLane(lane.key, lane.counter);
+        return item;
+    }
+
+    // ===================== consultas (sem lock) =====================
+
+    public int size() { return size.get(); }
+
+    public int laneCount() { return counters.size(); }
+
+    public int laneDepth(String laneKey) {
+        LaneCounter c = counters.get(laneKey);
+        return c == null ? 0 : Math.max(0, c.depth.get());
+    }
+
+    public long rejectedLaneFull() { return rejectedLaneFull.sum(); }
+
+    public long rejectedQueueFull() { return rejectedQueueFull.sum(); }
+
+    public int capacity() { return capacity; }
+
+    public int laneCapacity() { return laneCapacity; }
+
+    public WaitStrategy waitStrategy() { return waitStrategy; }
+
+    /** Lanes mais profundas primeiro (uso administrativo; O(lanes)). */
+    public List<LaneSnapshot> snapshot(int limit) {
+        List<LaneSnapshot> out = new ArrayList<>();
+        for (LaneCounter c : counters.values()) {
+            int depth = c.depth.get();
+            if (depth > 0) out.add(new LaneSnapshot(c.key, depth, c.weight, c.enqueued.sum(), c.rejected.sum()));
+        }
+        out.sort(Comparator.comparingInt(LaneSnapshot::depth).reversed());
+        return out.size() > limit ? out.subList(0, limit) : out;
+    }
+
+    public record LaneSnapshot(String key, int depth, int weight, long enqueued, long rejected) {}
+
+    // lado do produtor: profundidade (ring + lane) e estatísticas
+    private static final class LaneCounter {
+        final String key;
+        final AtomicInteger depth = new AtomicInteger();
+        final LongAdder enqueued = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        volatile int weight = 1;
+
+        LaneCounter(String key) { this.key = key; }
+    }
+
+    // lado do consumidor
+    private static final class Lane<T> {
+        final String key;
+        final LaneCounter counter;
+        final ArrayDeque<T> items = new ArrayDeque<>();
+        int weight = 1;
+        int servedInTurn;
+
+        Lane(String key, LaneCounter counter) {
+            this.key = key;
+            this.counter = counter;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.ars.user_service.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer MPSC limitado e pré-alocado (esquema de sequência por slot, à la Disruptor/Vyukov):
+ * produtores reservam uma posição com um getAndIncrement, esperam o slot ficar livre, escrevem e publicam
+ * com uma escrita volátil na sequência do slot. Nenhum nó alocado por item e nenhum lock no caminho do produtor.
+ * <p>
+ * Um único consumidor por vez ({@link #drain} é chamado sob o lock dos consumidores da {@link FairQueue}).
+ * Quem garante que o slot reservado fica livre logo é a admissão da FairQueue: itens admitidos ≤ capacidade ≤ slots.
+ */
+final class IntakeRing<T> {
+
+    interface Sink<T> {
+        void accept(String key, int weight, T item);
+    }
+
+    private final Object[] items;
+    private final String[] keys;
+    private final int[] weights;
+    // slot i livre para a posição p quando seq == p; publicado quando seq == p + 1
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    // escrito só pelo consumidor; lido por quem checa se há trabalho
+    private volatile long head;
+
+    IntakeRing(int minCapacity) {
+        int cap = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        this.items = new Object[cap];
+        this.keys = new String[cap];
+        this.weights = new int[cap];
+        this.sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequences.set(i, i);
+        this.mask = cap - 1;
+    }
+
+    void publish(String key, int weight, T item) {
+        long pos = tail.getAndIncrement();
+        int i = (int) pos & mask;
+        // só espera se o consumidor ainda está liberando a volta anterior deste slot
+        while (sequences.get(i) != pos) Thread.onSpinWait();
+        items[i] = item;
+        keys[i] = key;
+        weights[i] = weight;
+        sequences.set(i, pos + 1);
+    }
+
+    boolean hasPublished() {
+        long h = head;
+        return sequences.get((int) h & mask) == h + 1;
+    }
+
+    /** Entrega até {@code max} itens publicados, em ordem, ao sink. Devolve quantos. */
+    @SuppressWarnings("unchecked")
+    int drain(Sink<T> sink, int max) {
+        long h = head;
+        int n = 0;
+        while (n < max) {
+            int i = (int) h & mask;
+            if (sequences.get(i) != h + 1) break;
+            T item = (T) items[i];
+            String key = keys[i];
+            int weight = weights[i];
+            items[i] = null;
+            keys[i] = null;
+            sequences.set(i, h + items.length);
+            h++;
+            n++;
+            sink.accept(key, weight, item);
+        }
+        head = h;
+        return n;
+    }
+
+    int slots() {
+        return items.length;
+    }
+}
@@ -0,0 +1,25 @@
+package br.ars.user_service.queue;
+
+/**
+ * Como o consumidor da {@link FairQueue} espera quando não há itens.
+ * <ul>
+ *   <li>{@link #BLOCKING}: dorme numa condição; o produtor só toca no lock de sinal quando há consumidor
+ *       dormindo (fila ociosa). Menor CPU ocioso, alguns µs a mais de latência na retomada;</li>
+ *   <li>{@link #SLEEPING}: spin curto, yield e depois parkNanos(100µs). Produtor nunca toca em lock;
+ *       latência de até ~100µs com a fila ociosa;</li>
+ *   <li>{@link #BUSY_SPIN}: spin contínuo. Menor latência, um core por consumidor ocioso — só com cores sobrando.</li>
+ * </ul>
+ */
+public enum WaitStrategy {
+    BLOCKING, SLEEPING, BUSY_SPIN;
+
+    /** Aceita blocking, sleeping, busy-spin (ou busy_spin), sem diferenciar maiúsculas. */
+    public static WaitStrategy parse(String value) {
+        if (value == null || value.isBlank()) return BLOCKING;
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("wait-strategy inválida: " + value + " (use blocking, sleeping ou busy-spin)");
+        }
+    }
+}
@@ -2,6 +2,8 @@
 package br.ars.user_service.rate;
 
 import br.ars.user_service.config.RateLimitProperties;
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.core.annotation.Order;
@@ -22,7 +24,11 @@ public class SimpleRateLimitInterceptor implements HandlerInterceptor {
     public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
         // chave por IP + rota (ajuste se quiser por usuário/authed)
         String key = req.getRemoteAddr() + ":" + req.getRequestURI();
-        if (limiter.allow(key)) return true;
+        boolean allowed;
+        try (StageTimer.Span s = StageTimer.start(Stage.RATE_LIMIT)) {
+            allowed = limiter.allow(key);
+        }
+        if (allowed) return true;
         res.setStatus(429); // Too Many Requests
         return false;
     }
@@ -0,0 +1,59 @@
+package br.ars.user_service.registration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chave de "lane" da fila de registro: API key cadastrada em app.registration.queue.api-keys, ou IP do cliente.
+ * Key desconhecida cai na lane do IP — senão bastaria inventar keys para ganhar lanes (e peso) à vontade.
+ */
+@Component
+public class ClientKeys {
+
+    public static final String API_KEY_HEADER = "X-Api-Key";
+    static final String API_KEY_PREFIX = "key:";
+    static final String IP_PREFIX = "ip:";
+
+    // só os hashes: a key crua não fica em memória além da configuração
+    private final Set<String> known;
+
+    public ClientKeys(@Value("${app.registration.queue.api-keys:}") String apiKeys) {
+        this.known = Arrays.stream(apiKeys.split(","))
+                .map(String::trim)
+                .filter(k -> !k.isEmpty())
+                .map(ClientKeys::shortHash)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String of(HttpServletRequest req) {
+        String apiKey = req.getHeader(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) {
+            // nunca guardar/expor a key crua (aparece no endpoint de métricas)
+            String hash = shortHash(apiKey.trim());
+            if (known.contains(hash)) return API_KEY_PREFIX + hash;
+        }
+        return IP_PREFIX + req.getRemoteAddr();
+    }
+
+    public static boolean isApiKey(String clientKey) {
+        return clientKey != null && clientKey.startsWith(API_KEY_PREFIX);
+    }
+
+    private static String shortHash(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(d, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package br.ars.user_service.registration;
+
+import java.util.Hashtable;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+
+/**
+ * Veredito de MX por domínio (MX, ou A/AAAA como fallback), com validade: o registro em pico repete
+ * poucos domínios (gmail.com, hotmail.com...) e cada consulta DNS custa até o timeout.
+ * Positivo vale mais que negativo — domínio sem MX costuma ser erro de digitação, e um domínio novo
+ * não deve ficar recusado por horas. Falha de DNS não é cacheada.
+ */
+@Component
+public class MxVerdictCache {
+
+    public record Verdict(String domain, boolean hasMx, long expiresAtMs) {}
+
+    private final Map<String, Verdict> verdicts = new ConcurrentHashMap<>();
+    private final long positiveTtlMs;
+    private final long negativeTtlMs;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter lookups;
+
+    public MxVerdictCache(MeterRegistry meters,
+                          @Value("${app.registration.mx-check.positive-ttl-ms:21600000}") long positiveTtlMs,
+                          @Value("${app.registration.mx-check.negative-ttl-ms:600000}") long negativeTtlMs,
+                          @Value("${app.registration.mx-check.max-entries:50000}") int maxEntries) {
+        this.positiveTtlMs = positiveTtlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("registration.mx.cache").tag("result", "hit").register(meters);
+        this.lookups = Counter.builder("registration.mx.cache").tag("result", "lookup").register(meters);
+        Gauge.builder("registration.mx.cache.size", verdicts, Map::size).register(meters);
+    }
+
+    public boolean hasMx(String email) {
+        int at = email == null ? -1 : email.indexOf('@');
+        if (at < 0) return false;
+        String domain = email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+        if (domain.isEmpty()) return false;
+
+        long now = System.currentTimeMillis();
+        Verdict v = verdicts.get(domain);
+        if (v != null && v.expiresAtMs() > now) {
+            hits.increment();
+            return v.hasMx();
+        }
+        lookups.increment();
+        Boolean found;
+        try (StageTimer.Span s = StageTimer.start(Stage.DNS)) {
+            found = lookup(domain);
+        }
+        if (found == null) return false;
+        put(new Verdict(domain, found, now + (found ? positiveTtlMs : negativeTtlMs)));
+        return found;
+    }
+
+    /** Entradas ainda válidas (para o snapshot de reinício). */
+    public void forEachValid(Consumer<Verdict> action) {
+        long now = System.currentTimeMillis();
+        for (Verdict v : verdicts.values()) {
+            if (v.expiresAtMs() > now) action.accept(v);
+        }
+    }
+
+    /** Restaura um veredito salvo; vencido ou já presente é ignorado. */
+    public void restore(Verdict v) {
+        if (v.expiresAtMs() <= System.currentTimeMillis()) return;
+        if (verdicts.size() < maxEntries) verdicts.putIfAbsent(v.domain(), v);
+    }
+
+    public int size() {
+        return verdicts.size();
+    }
+
+    private void put(Verdict v) {
+        if (verdicts.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            verdicts.values().removeIf(e -> e.expiresAtMs() <= now);
+            if (verdicts.size() >= maxEntries) verdicts.clear();
+        }
+        verdicts.put(v.domain(), v);
+    }
+
+    // null = DNS falhou (timeout, servidor fora): não vira veredito
+    private static Boolean lookup(String domain) {
+        try {
+            Hashtable<String, String> env = new Hashtable<>();
+            env.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
+            env.put("com.sun.jndi.dns.timeout.initial", "2000");
+            env.put("com.sun.jndi.dns.timeout.retries", "1");
+
+            DirContext ictx = new InitialDirContext(env);
+            Attributes attrs = ictx.getAttributes(domain, new String[] { "MX" });
+            Attribute attr = attrs.get("MX");
+            if (attr != null && attr.size() > 0) return true;
+
+            attrs = ictx.getAttributes(domain, new String[] { "A", "AAAA" });
+            return (attrs.get("A") != null || attrs.get("AAAA") != null);
+
+        } catch (NameNotFoundException nx) {
+            return false;
+        } catch (NamingException ex) {
+            return null;
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package br.ars.user_service.registration;
 
+import java.util.UUID;
+
 import br.ars.user_service.dto.RegisterRequest;
+import br.ars.user_service.util.EmailKeys;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 @Getter
 @AllArgsConstructor
 public class RegistrationCommand {
+    private final UUID ticket;            // devolvido no 202 (e aos duplicados coalescidos)
+    private final String emailKey;        // e-mail normalizado; pode ser null se o e-mail veio vazio
+    private final String clientKey;       // lane da fila justa (ver ClientKeys)
     private final RegisterRequest request;
     private final byte[] avatarBytes;     // pode ser null
     private final String filename;        // pode ser null
     private final String contentType;     // pode ser null
+    private final long enqueuedAtNanos;   // System.nanoTime() no submit: espera na fila (Server-Timing "queue")
+
+    public static RegistrationCommand of(String clientKey, RegisterRequest request,
+                                         byte[] avatarBytes, String filename, String contentType) {
+        return new RegistrationCommand(UUID.randomUUID(), EmailKeys.normalize(request.getEmail()), clientKey,
+                request, avatarBytes, filename, contentType, System.nanoTime());
+    }
 }
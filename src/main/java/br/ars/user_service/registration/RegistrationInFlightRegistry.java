@@ -0,0 +1,38 @@
+package br.ars.user_service.registration;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Registros pendentes (na fila ou em processamento) por e-mail normalizado.
+ * Um retry do mesmo cliente durante o pico é coalescido no comando já pendente
+ * em vez de pagar DNS + bcrypt + INSERT só para bater na unique constraint.
+ */
+@Component
+public class RegistrationInFlightRegistry {
+
+    private final ConcurrentMap<String, RegistrationCommand> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva o e-mail do comando. Retorna null se a reserva foi feita,
+     * ou o comando já pendente para o mesmo e-mail.
+     */
+    public RegistrationCommand claim(RegistrationCommand cmd) {
+        if (cmd.getEmailKey() == null) return null; // sem chave não há o que deduplicar
+        return inFlight.putIfAbsent(cmd.getEmailKey(), cmd);
+    }
+
+    /** Libera a reserva — só remove se ainda for deste comando. */
+    public void release(RegistrationCommand cmd) {
+        if (cmd.getEmailKey() == null) return;
+        inFlight.remove(cmd.getEmailKey(), cmd);
+    }
+
+    public boolean isPending(String emailKey) {
+        return emailKey != null && inFlight.containsKey(emailKey);
+    }
+
+    public int size() { return inFlight.size(); }
+}
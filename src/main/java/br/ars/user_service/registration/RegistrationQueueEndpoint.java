@@ -0,0 +1,34 @@
+package br.ars.user_service.registration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** GET /actuator/regqueue — profundidade e rejeições por lane da fila de registro. */
+@Component
+@Endpoint(id = "regqueue")
+@RequiredArgsConstructor
+public class RegistrationQueueEndpoint {
+
+    private static final int TOP_LANES = 50;
+
+    private final RegistrationQueueService queue;
+    private final RegistrationInFlightRegistry inFlight;
+
+    @ReadOperation
+    public Map<String, Object> state() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("depth", queue.queueSize());
+        out.put("capacity", queue.capacity());
+        out.put("laneCapacity", queue.laneCapacity());
+        out.put("inFlight", inFlight.size());
+        out.put("rejectedLaneFull", queue.rejectedLaneFull());
+        out.put("rejectedQueueFull", queue.rejectedQueueFull());
+        out.put("lanes", queue.lanes(TOP_LANES));
+        return out;
+    }
+}
@@ -1,35 +1,107 @@
 package br.ars.user_service.registration;
 
+import br.ars.user_service.concurrency.AdaptiveLimiter;
+import br.ars.user_service.concurrency.DrainRateEstimator;
+import br.ars.user_service.concurrency.OverloadSignals;
+import br.ars.user_service.concurrency.RequestDeadline;
+import br.ars.user_service.queue.FairQueue;
+import br.ars.user_service.queue.WaitStrategy;
 import br.ars.user_service.service.UserService;
-import lombok.RequiredArgsConstructor;
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.util.List;
 import java.util.concurrent.*;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class RegistrationQueueService {
 
     private final UserService userService;
+    private final RegistrationInFlightRegistry inFlight;
 
-    private final BlockingQueue<RegistrationCommand> queue = new LinkedBlockingQueue<>(500);
-    private final ExecutorService workers = Executors.newFixedThreadPool(2); // ajuste se precisar
+    // uma lane por cliente (IP ou API key), servidas em round-robin ponderado;
+    // offer sem lock (ring MPSC), os workers drenam em lote
+    private final FairQueue<RegistrationCommand> queue;
+    private final int apiKeyWeight;
+
+    // quantos registros rodam ao mesmo tempo é decidido pelo limitador (latência observada);
+    // workerCount é só o teto
+    private final int workerCount;
+    private final ExecutorService workers;
+    private final AdaptiveLimiter limiter;
+    private final DrainRateEstimator drainRate = new DrainRateEstimator();
+
+    // deadline das escritas de background no bulkhead do banco
+    @Value("${app.registration.db-timeout-ms:15000}")
+    private long dbTimeoutMs;
+
+    public RegistrationQueueService(UserService userService,
+                                    RegistrationInFlightRegistry inFlight,
+                                    MeterRegistry meters,
+                                    @Value("${app.registration.queue.capacity:2000}") int capacity,
+                                    @Value("${app.registration.queue.per-client-capacity:50}") int perClientCapacity,
+                                    @Value("${app.registration.queue.api-key-weight:4}") int apiKeyWeight,
+                                    @Value("${app.registration.queue.wait-strategy:blocking}") String waitStrategy,
+                                    @Value("${app.registration.queue.drain-batch:64}") int drainBatch,
+                                    @Value("${app.registration.workers.db:8}") int workerCount,
+                                    @Value("${app.registration.concurrency.initial:2}") int initialConcurrency) {
+        this.userService = userService;
+        this.inFlight = inFlight;
+        this.queue = new FairQueue<>(capacity, perClientCapacity, WaitStrategy.parse(waitStrategy), drainBatch);
+        this.apiKeyWeight = apiKeyWeight;
+        this.workerCount = workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r);
+            t.setName("reg-worker-" + t.getId());
+            t.setDaemon(true);
+            return t;
+        });
+        this.limiter = new AdaptiveLimiter("registration", initialConcurrency, 1, workerCount);
+
+        Gauge.builder("registration.queue.depth", queue, FairQueue::size).register(meters);
+        Gauge.builder("registration.queue.lanes", queue, FairQueue::laneCount).register(meters);
+        FunctionCounter.builder("registration.queue.rejected", queue, FairQueue::rejectedLaneFull)
+                .tag("reason", "lane_full").register(meters);
+        FunctionCounter.builder("registration.queue.rejected", queue, FairQueue::rejectedQueueFull)
+                .tag("reason", "queue_full").register(meters);
+        Gauge.builder("registration.concurrency.limit", limiter, AdaptiveLimiter::limit).register(meters);
+        Gauge.builder("registration.drain.rate", drainRate, DrainRateEstimator::ratePerSecond).register(meters);
+    }
 
     @PostConstruct
     void startWorkers() {
-        for (int i = 0; i < 2; i++) {
+        for (int i = 0; i < workerCount; i++) {
             workers.submit(this::loop);
         }
-        log.info("[RegQueue] Workers iniciados.");
+        log.info("[RegQueue] Workers iniciados | workers={} | limiteInicial={} | espera={}",
+                workerCount, limiter.limit(), queue.waitStrategy());
     }
 
     private void loop() {
         while (!Thread.currentThread().isInterrupted()) {
             try {
-                RegistrationCommand cmd = queue.take();
+                limiter.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            RegistrationCommand cmd = null;
+            long start = 0L;
+            boolean overloaded = false;
+            try {
+                cmd = queue.take();
+                start = System.nanoTime();
+                RequestDeadline.setIn(dbTimeoutMs, TimeUnit.MILLISECONDS);
+                StageTimer.begin("register-worker " + cmd.getTicket());
+                StageTimer.record(Stage.QUEUE_WAIT, start - cmd.getEnqueuedAtNanos());
                 log.info("[RegQueue] Consumindo item da fila. hasAvatarBytes={}", cmd.getAvatarBytes() != null);
 
                 userService.register(
@@ -39,18 +111,68 @@ public class RegistrationQueueService {
                         cmd.getContentType()
                 );
 
-                log.info("[RegQueue] Registro processado com sucesso para email={}", cmd.getRequest().getEmail());
+                log.info("[RegQueue] Registro processado com sucesso para email={} | estagios={}",
+                        cmd.getRequest().getEmail(), stages());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
             } catch (Exception ex) {
-                log.error("[RegQueue] Erro processando registro: {}", ex.getMessage(), ex);
+                overloaded = OverloadSignals.isOverload(ex);
+                log.error("[RegQueue] Erro processando registro: {} | estagios={}", ex.getMessage(), stages(), ex);
+            } finally {
+                RequestDeadline.clear();
+                StageTimer.clear();
+                if (cmd != null) {
+                    inFlight.release(cmd);
+                    drainRate.recordCompletion();
+                    limiter.release(System.nanoTime() - start, overloaded);
+                } else {
+                    limiter.release();
+                }
             }
         }
     }
 
-    public boolean offer(RegistrationCommand cmd) {
-        boolean ok = queue.offer(cmd);
-        if (!ok) log.warn("[RegQueue] Queue cheia ao tentar offer.");
-        return ok;
+    private static String stages() {
+        StageTimer t = StageTimer.current();
+        return t != null ? t.toServerTiming() : "-";
+    }
+
+    /**
+     * Enfileira o comando, a menos que já exista um registro pendente para o mesmo e-mail:
+     * nesse caso o duplicado é coalescido e recebe o ticket do comando original.
+     */
+    public RegistrationSubmit submit(RegistrationCommand cmd) {
+        RegistrationCommand pending = inFlight.claim(cmd);
+        if (pending != null) {
+            log.info("[RegQueue] Registro já pendente, coalescendo | ticket={}", pending.getTicket());
+            return RegistrationSubmit.coalesced(pending);
+        }
+        int weight = ClientKeys.isApiKey(cmd.getClientKey()) ? apiKeyWeight : 1;
+        FairQueue.Offer offer = queue.offer(cmd.getClientKey(), weight, cmd);
+        if (offer != FairQueue.Offer.OK) {
+            inFlight.release(cmd);
+            log.warn("[RegQueue] Offer rejeitado | motivo={} | client={}", offer, cmd.getClientKey());
+            return offer == FairQueue.Offer.LANE_FULL ? RegistrationSubmit.laneFull() : RegistrationSubmit.rejected();
+        }
+        return RegistrationSubmit.accepted(cmd);
     }
 
     public int queueSize() { return queue.size(); }
+
+    /** Espera estimada para quem entra agora no fim da fila, pela taxa de drenagem medida (-1 = sem medição). */
+    public long expectedWaitMillis() { return drainRate.expectedWaitMillis(queue.size()); }
+
+    public int concurrencyLimit() { return limiter.limit(); }
+
+    public int laneDepth(String clientKey) { return queue.laneDepth(clientKey); }
+
+    public int capacity() { return queue.capacity(); }
+
+    public int laneCapacity() { return queue.laneCapacity(); }
+
+    public long rejectedLaneFull() { return queue.rejectedLaneFull(); }
+
+    public long rejectedQueueFull() { return queue.rejectedQueueFull(); }
+
+    public List<FairQueue.LaneSnapshot> lanes(int limit) { return queue.snapshot(limit); }
 }
@@ -0,0 +1,31 @@
+package br.ars.user_service.registration;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Resultado de {@link RegistrationQueueService#submit(RegistrationCommand)}. */
+@Getter
+@AllArgsConstructor
+public class RegistrationSubmit {
+
+    public enum Status {
+        /** Novo comando enfileirado. */
+        ACCEPTED,
+        /** Já havia um registro pendente para o mesmo e-mail; ticket é o do comando original. */
+        COALESCED,
+        /** A lane do cliente (IP/API key) está cheia; os demais clientes seguem sendo atendidos. */
+        LANE_FULL,
+        /** Fila sem espaço (backpressure). */
+        REJECTED
+    }
+
+    private final Status status;
+    private final UUID ticket;      // null quando LANE_FULL/REJECTED
+
+    static RegistrationSubmit accepted(RegistrationCommand cmd)  { return new RegistrationSubmit(Status.ACCEPTED, cmd.getTicket()); }
+    static RegistrationSubmit coalesced(RegistrationCommand cmd) { return new RegistrationSubmit(Status.COALESCED, cmd.getTicket()); }
+    static RegistrationSubmit laneFull()                         { return new RegistrationSubmit(Status.LANE_FULL, null); }
+    static RegistrationSubmit rejected()                         { return new RegistrationSubmit(Status.REJECTED, null); }
+}
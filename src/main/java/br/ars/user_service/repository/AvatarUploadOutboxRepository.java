@@ -0,0 +1,30 @@
+package br.ars.user_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ars.user_service.models.AvatarUploadOutbox;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface AvatarUploadOutboxRepository extends JpaRepository<AvatarUploadOutbox, Long> {
+
+    @Query("select o from AvatarUploadOutbox o where o.nextAttemptAt <= :now order by o.nextAttemptAt")
+    List<AvatarUploadOutbox> findDue(@Param("now") Instant now, Pageable page);
+
+    @Modifying
+    @Query("update AvatarUploadOutbox o set o.attempts = o.attempts + 1, o.nextAttemptAt = :next, " +
+           "o.lastError = :error where o.id = :id")
+    int reschedule(@Param("id") Long id, @Param("next") Instant next, @Param("error") String error);
+
+    /** Usuário excluído: o reenvio não pode recriar o avatar no CDN. */
+    @Modifying
+    @Query("delete from AvatarUploadOutbox o where o.userId in :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
+}
@@ -0,0 +1,22 @@
+package br.ars.user_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ars.user_service.models.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /** Revogações novas desde {@code since} que ainda valem. */
+    @Query("select r from RevokedToken r where r.revokedAt > :since and r.expiresAt > :now order by r.revokedAt")
+    List<RevokedToken> findActiveRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,42 @@
+package br.ars.user_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ars.user_service.models.UserChangeEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    @Query("select e from UserChangeEvent e where e.id > :after order by e.id")
+    List<UserChangeEvent> findAfter(@Param("after") long after, Pageable page);
+
+    @Query("select max(e.id) from UserChangeEvent e")
+    Long maxId();
+
+    @Query("select min(e.id) from UserChangeEvent e")
+    Long minId();
+
+    /** Exclusão em lote: um INSERT ... SELECT para o chunk inteiro, antes do DELETE dos usuários. */
+    @Modifying
+    @Query(value = "insert into user_change_events (user_id, type, version, payload, created_at) " +
+                   "select u.id, 'DELETED', u.versao + 1, null, now() " +
+                   "from users u where u.id in (:ids)", nativeQuery = true)
+    int insertDeleted(@Param("ids") Collection<UUID> ids);
+
+    /** Evento que commitou depois de o feed pular o ID: sai daqui e volta como evento novo, no fim da sequência. */
+    @Modifying
+    @Query("delete from UserChangeEvent e where e.id = :id")
+    int deleteOne(@Param("id") long id);
+
+    @Modifying
+    @Query("delete from UserChangeEvent e where e.createdAt < :limit")
+    int deleteOlderThan(@Param("limit") Instant limit);
+}
@@ -1,13 +1,95 @@
 package br.ars.user_service.repository;
 
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.ars.user_service.models.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
+
+    /** Busca pela chave normalizada (índice único ux_users_email_key). */
+    Optional<User> findByEmailKey(String emailKey);
+
+    boolean existsByEmailKey(String emailKey);
+
+    /** Ainda existe linha com EmailKey nula? Liga/desliga o fallback legado (ver EmailKeyBackfillService). */
+    boolean existsByEmailKeyIsNull();
+
+    /** Página de resultados da busca por tags: usuários + tags numa consulta só. */
+    @EntityGraph(attributePaths = "tags")
+    List<User> findByIdIn(Collection<UUID> ids);
+
+    /** Upload de avatar em background: o perfil ainda aponta para este objeto? (purge/troca concorrente) */
+    @Query("select count(u) > 0 from User u where u.id = :id and u.avatarUrl = :url")
+    boolean hasAvatarUrl(@Param("id") UUID id, @Param("url") String url);
+
+    /** Compensação de upload de avatar que falhou de vez: tira a URL quebrada do perfil. */
+    @Modifying
+    @Query("update User u set u.avatarUrl = null, u.version = u.version + 1 where u.id = :id and u.avatarUrl = :url")
+    int clearAvatarUrl(@Param("id") UUID id, @Param("url") String url);
+
+    /**
+     * Rehash no login: troca só se o hash ainda é o que foi validado (outra troca concorrente vence).
+     * Sem bump de versão: a senha não faz parte do perfil servido com ETag.
+     */
+    @Modifying
+    @Query("update User u set u.senha = :novo where u.id = :id and u.senha = :atual")
+    int replaceSenha(@Param("id") UUID id, @Param("atual") String atual, @Param("novo") String novo);
+
+    // ===== exclusão em lote (UserPurgeService): poucos statements por chunk, sem carregar entidades =====
+
+    interface PurgeInfo {
+        UUID getId();
+        String getEmailKey();
+        String getAvatarUrl();
+    }
+
+    @Query("select u.id as id, u.emailKey as emailKey, u.avatarUrl as avatarUrl from User u where u.id in :ids")
+    List<PurgeInfo> findPurgeInfo(@Param("ids") Collection<UUID> ids);
+
+    // ===== validação do snapshot de reinício =====
+
+    interface VersionInfo {
+        UUID getId();
+        String getEmailKey();
+        Long getVersion();
+    }
+
+    @Query("select u.id as id, u.emailKey as emailKey, u.version as version from User u where u.id in :ids")
+    List<VersionInfo> findVersionInfo(@Param("ids") Collection<UUID> ids);
+
+    // bulk delete do JPQL não cascateia para a @ElementCollection: tags primeiro
+    @Modifying
+    @Query(value = "delete from user_tags where user_id in (:ids)", nativeQuery = true)
+    int deleteTagsOf(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<UUID> ids);
+
+    // ===== backfill da EmailKey (keyset por id, lotes pequenos) =====
+
+    interface EmailKeyPending {
+        UUID getId();
+        String getEmail();
+    }
+
+    @Query("select u.id as id, u.email as email from User u " +
+           "where u.emailKey is null and u.id > :after order by u.id")
+    List<EmailKeyPending> findPendingEmailKeys(@Param("after") UUID after, Pageable page);
+
+    @Modifying
+    @Query("update User u set u.emailKey = :key where u.id = :id and u.emailKey is null")
+    int setEmailKey(@Param("id") UUID id, @Param("key") String key);
 }
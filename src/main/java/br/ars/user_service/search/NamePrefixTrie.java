@@ -0,0 +1,218 @@
+package br.ars.user_service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Trie com compressão de caminho (radix) sobre chaves já normalizadas, em que cada nó guarda
+ * os K valores mais recentes da sua subárvore. Uma consulta por prefixo é só a descida até o nó
+ * — custo proporcional ao tamanho do prefixo, independente de quantos nomes casam.
+ * <p>
+ * Valores são ordinais int; a recência vem de {@code rank} (maior = mais recente).
+ * Não é thread-safe: quem usa serializa escritas e protege leituras (ver {@link NameSuggestIndex}).
+ */
+public class NamePrefixTrie {
+
+    private static final int[] EMPTY = new int[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int k;
+    private final IntToLongFunction rank;
+    private final Node root = new Node("");
+    private int nodes = 1;
+
+    public NamePrefixTrie(int k, IntToLongFunction rank) {
+        if (k <= 0) throw new IllegalArgumentException("k deve ser > 0");
+        this.k = k;
+        this.rank = rank;
+    }
+
+    public int nodeCount() {
+        return nodes;
+    }
+
+    /** Até {@code limit} (≤ K) ordinais com chave começando por {@code prefix}, mais recentes primeiro. */
+    public int[] top(String prefix, int limit) {
+        Node n = find(prefix);
+        if (n == null) return EMPTY;
+        return n.top.length <= limit ? n.top.clone() : Arrays.copyOf(n.top, limit);
+    }
+
+    public void insert(String key, int value) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int idx = node.indexOf(key.charAt(i));
+            if (idx < 0) {
+                Node leaf = new Node(key.substring(i));
+                nodes++;
+                node.insertChild(-idx - 1, leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[idx];
+            int lcp = commonPrefix(child.label, key, i);
+            if (lcp < child.label.length()) {
+                // quebra a aresta: mid fica com o trecho comum e herda a subárvore (e o top-K) do filho
+                Node mid = new Node(child.label.substring(0, lcp));
+                nodes++;
+                child.label = child.label.substring(lcp);
+                mid.children = new Node[] { child };
+                mid.top = child.top.clone();
+                node.children[idx] = mid;
+                child = mid;
+            }
+            node = child;
+            i += lcp;
+            path.add(node);
+        }
+        node.terminals = append(node.terminals, value);
+        for (Node n : path) n.offer(value);
+    }
+
+    public void remove(String key, int value) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int idx = node.indexOf(key.charAt(i));
+            if (idx < 0) return;
+            Node child = node.children[idx];
+            if (!key.startsWith(child.label, i)) return;
+            node = child;
+            i += child.label.length();
+            path.add(node);
+        }
+        int pos = position(node.terminals, value);
+        if (pos < 0) return;
+        node.terminals = removeAt(node.terminals, pos);
+
+        // de baixo para cima: poda folhas vazias e recalcula o top-K de quem continha o valor
+        for (int d = path.size() - 1; d >= 0; d--) {
+            Node n = path.get(d);
+            if (d > 0 && n.terminals.length == 0 && n.children.length == 0) {
+                path.get(d - 1).removeChild(n);
+                nodes--;
+                continue;
+            }
+            if (position(n.top, value) >= 0) n.recompute();
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int idx = node.indexOf(prefix.charAt(i));
+            if (idx < 0) return null;
+            Node child = node.children[idx];
+            int remaining = prefix.length() - i;
+            if (remaining <= child.label.length()) {
+                // prefixo termina no meio (ou no fim) da aresta
+                return child.label.startsWith(prefix.substring(i)) ? child : null;
+            }
+            if (!prefix.startsWith(child.label, i)) return null;
+            i += child.label.length();
+            node = child;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int j = 0;
+        while (j < max && label.charAt(j) == key.charAt(from + j)) j++;
+        return j;
+    }
+
+    private final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;   // ordenados pelo primeiro char do label
+        int[] terminals = EMPTY;         // valores cuja chave termina exatamente aqui
+        int[] top = EMPTY;               // top-K da subárvore, mais recente primeiro
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char c) {
+            int lo = 0, hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = children[mid].label.charAt(0);
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] next = new Node[children.length + 1];
+            System.arraycopy(children, 0, next, 0, at);
+            next[at] = child;
+            System.arraycopy(children, at, next, at + 1, children.length - at);
+            children = next;
+        }
+
+        void removeChild(Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    Node[] next = new Node[children.length - 1];
+                    System.arraycopy(children, 0, next, 0, i);
+                    System.arraycopy(children, i + 1, next, i, children.length - i - 1);
+                    children = next;
+                    return;
+                }
+            }
+        }
+
+        /** Insere no top-K se couber (mesmo valor pode chegar por duas chaves do mesmo nome). */
+        void offer(int value) {
+            if (position(top, value) >= 0) return;
+            long r = rank.applyAsLong(value);
+            if (top.length == k && rank.applyAsLong(top[k - 1]) >= r) return;
+            int pos = 0;
+            while (pos < top.length && rank.applyAsLong(top[pos]) >= r) pos++;
+            int len = Math.min(k, top.length + 1);
+            int[] next = new int[len];
+            System.arraycopy(top, 0, next, 0, pos);
+            next[pos] = value;
+            System.arraycopy(top, pos, next, pos + 1, len - pos - 1);
+            top = next;
+        }
+
+        void recompute() {
+            top = EMPTY;
+            for (int v : terminals) offer(v);
+            for (Node c : children) {
+                for (int v : c.top) offer(v);
+            }
+        }
+    }
+
+    private static int position(int[] a, int v) {
+        for (int i = 0; i < a.length; i++) if (a[i] == v) return i;
+        return -1;
+    }
+
+    private static int[] append(int[] a, int v) {
+        if (position(a, v) >= 0) return a;
+        int[] next = Arrays.copyOf(a, a.length + 1);
+        next[a.length] = v;
+        return next;
+    }
+
+    private static int[] removeAt(int[] a, int pos) {
+        int[] next = new int[a.length - 1];
+        System.arraycopy(a, 0, next, 0, pos);
+        System.arraycopy(a, pos + 1, next, pos, a.length - pos - 1);
+        return next;
+    }
+}
@@ -0,0 +1,291 @@
+package br.ars.user_service.search;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.events.UserRegisteredEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
+import br.ars.user_service.util.Names;
+
+/**
+ * Autocomplete de nomes ("mencionar usuário"): prefixo do nome normalizado (sem acento, minúsculo)
+ * → os K usuários mais recentes (DataCriacao). Cada palavra do nome também é ponto de entrada,
+ * então "sil" acha "João Silva".
+ * <p>
+ * Carga inicial em background lendo {@code users} em streaming; registro e deleção pelos eventos.
+ * Consulta é uma descida na {@link NamePrefixTrie} sob read lock, sem banco.
+ */
+@Slf4j
+@Component
+public class NameSuggestIndex {
+
+    public record Suggestion(UUID id, String nome, String avatarUrl) {}
+
+    // chaves maiores não ajudam a desambiguar e só custam nós
+    private static final int MAX_KEY_LENGTH = 48;
+    private static final int MAX_WORDS = 4;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NamePrefixTrie trie;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<UUID, Integer> ordinalById = new HashMap<>();
+    // alterados/removidos durante a carga: o evento vale mais que a linha que o streaming ainda vai trazer
+    private final Set<UUID> changedWhileLoading = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readTx;
+    private final Timer queryTime;
+    private final int topK;
+
+    @Value("${app.search.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.suggest.fetch-size:5000}")
+    private int fetchSize;
+
+    public NameSuggestIndex(DataSource dataSource, PlatformTransactionManager txManager, MeterRegistry meters,
+                            @Value("${app.search.suggest.top-k:10}") int topK) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.topK = topK;
+        this.trie = new NamePrefixTrie(topK, ord -> entries.get(ord).createdAtMs);
+        this.queryTime = Timer.builder("users.suggest.time").publishPercentileHistogram().register(meters);
+
+        Gauge.builder("users.suggest.index.users", this, NameSuggestIndex::userCount).register(meters);
+        Gauge.builder("users.suggest.index.nodes", this, NameSuggestIndex::nodeCount).register(meters);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    /** Até {@code limit} usuários cujo nome (ou alguma palavra dele) começa com {@code q}. */
+    public List<Suggestion> suggest(String q, int limit) {
+        long t0 = System.nanoTime();
+        String prefix = Names.searchKey(q);
+        if (prefix.isEmpty()) return List.of();
+        if (prefix.length() > MAX_KEY_LENGTH) prefix = prefix.substring(0, MAX_KEY_LENGTH);
+        lock.readLock().lock();
+        try {
+            int[] ords = trie.top(prefix, Math.min(limit, topK));
+            List<Suggestion> out = new ArrayList<>(ords.length);
+            for (int ord : ords) {
+                Entry e = entries.get(ord);
+                if (e != null) out.add(new Suggestion(e.id, e.nome, e.avatarUrl));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+            queryTime.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ===================== carga inicial =====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnReady() {
+        if (!enabled) {
+            log.info("[NameSuggest] Desabilitado.");
+            return;
+        }
+        Thread t = new Thread(this::load, "name-suggest-load");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void load() {
+        long t0 = System.nanoTime();
+        setLoading(true);
+        try {
+            readTx.executeWithoutResult(s -> {
+                jdbc.setFetchSize(fetchSize);
+                List<Entry> chunk = new ArrayList<>(fetchSize);
+                jdbc.query("select id, nome, avatar, data_criacao from users", (RowCallbackHandler) rs -> {
+                    Timestamp created = rs.getTimestamp(4);
+                    chunk.add(new Entry(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3),
+                            created != null ? created.getTime() : 0L));
+                    if (chunk.size() >= fetchSize) {
+                        applyChunk(chunk);
+                        chunk.clear();
+                    }
+                });
+                applyChunk(chunk);
+            });
+            lock.writeLock().lock();
+            try {
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("[NameSuggest] Carga concluída | usuarios={} | nos={} | ms={}",
+                    userCount(), nodeCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+        } catch (Exception ex) {
+            log.error("[NameSuggest] Falha na carga inicial: {}", ex.getMessage(), ex);
+        } finally {
+            setLoading(false);
+        }
+    }
+
+    private void setLoading(boolean on) {
+        lock.writeLock().lock();
+        try {
+            loading = on;
+            changedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyChunk(List<Entry> chunk) {
+        lock.writeLock().lock();
+        try {
+            for (Entry e : chunk) {
+                if (!changedWhileLoading.contains(e.id)) putLocked(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===================== atualização =====================
+
+    public void put(UserView v) {
+        if (v == null || v.id() == null) return;
+        long created = v.dataCriacao() != null
+                ? v.dataCriacao().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            if (loading) changedWhileLoading.add(v.id());
+            putLocked(new Entry(v.id(), v.nome(), v.avatarUrl(), created));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            if (loading) changedWhileLoading.add(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    void onRegistered(UserRegisteredEvent e) {
+        put(e.user());
+    }
+
+    // nome ou avatar mudou: put reindexa (remove as chaves antigas)
+    @EventListener
+    void onUpdated(UserUpdatedEvent e) {
+        put(e.user());
+    }
+
+    @EventListener
+    void onDeleted(UserDeletedEvent e) {
+        remove(e.id());
+    }
+
+    private void putLocked(Entry e) {
+        if (e.id == null) return;
+        removeLocked(e.id);          // nome mudou / evento repetido: reindexa
+        List<String> keys = keysOf(e.nome);
+        if (keys.isEmpty()) return;
+        int ord = entries.size();
+        entries.add(e);
+        ordinalById.put(e.id, ord);
+        for (String k : keys) trie.insert(k, ord);
+    }
+
+    private void removeLocked(UUID id) {
+        Integer ord = ordinalById.remove(id);
+        if (ord == null) return;
+        Entry e = entries.get(ord);
+        for (String k : keysOf(e.nome)) trie.remove(k, ord);
+        entries.set(ord, null);
+    }
+
+    /** Nome inteiro + o resto do nome a partir de cada palavra ("joao da silva", "da silva", "silva"). */
+    static List<String> keysOf(String nome) {
+        String key = Names.searchKey(nome);
+        if (key.isEmpty()) return List.of();
+        if (key.length() > MAX_KEY_LENGTH) key = key.substring(0, MAX_KEY_LENGTH).trim();
+        List<String> keys = new ArrayList<>(MAX_WORDS);
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0 && keys.size() < MAX_WORDS; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // ===================== métricas =====================
+
+    int userCount() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return trie.nodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Entry {
+        final UUID id;
+        final String nome;
+        final String avatarUrl;
+        final long createdAtMs;
+
+        Entry(UUID id, String nome, String avatarUrl, long createdAtMs) {
+            this.id = id;
+            this.nome = nome;
+            this.avatarUrl = avatarUrl;
+            this.createdAtMs = createdAtMs;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package br.ars.user_service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.events.UserRegisteredEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
+
+/**
+ * Índice invertido tag → bitmap (Roaring) de ordinais densos de usuário.
+ * <ul>
+ *   <li>cada usuário ganha um ordinal int na primeira vez que aparece; ordinais não são reaproveitados
+ *       (usuário deletado deixa um buraco, que o Roaring comprime);</li>
+ *   <li>carga inicial em background lendo {@code user_tags} em streaming; registro e deleção chegam
+ *       pelos eventos da aplicação;</li>
+ *   <li>consultas E/OU/NÃO viram and/or/andNot entre bitmaps — sem join em SQL.</li>
+ * </ul>
+ * Leitura e escrita sob um ReadWriteLock: RoaringBitmap não é thread-safe e as escritas são raras.
+ */
+@Slf4j
+@Component
+public class TagIndex {
+
+    private static final String[] NO_TAGS = new String[0];
+
+    /** Página de resultado: ids na ordem dos ordinais, total e cursor para a próxima página (null = fim). */
+    public record Page(List<UUID> ids, long total, Integer nextCursor) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoaringBitmap> byTag = new HashMap<>();
+    private final Map<UUID, Integer> ordinalById = new HashMap<>();
+    private final List<UUID> idByOrdinal = new ArrayList<>();
+    // tags atuais de cada ordinal (normalizadas): put/remove só tocam esses bitmaps, sem varrer byTag
+    private final List<String[]> tagsByOrdinal = new ArrayList<>();
+
+    // usuários alterados/removidos durante a carga inicial: o evento já é o estado atual,
+    // e o streaming pode trazer as linhas antigas depois dele
+    private final Set<UUID> changedWhileLoading = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readTx;
+    private final Timer queryTime;
+
+    @Value("${app.search.tag-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.tag-index.fetch-size:5000}")
+    private int fetchSize;
+
+    public TagIndex(DataSource dataSource, PlatformTransactionManager txManager, MeterRegistry meters) {
+        // JdbcTemplate próprio: o fetchSize de streaming não deve vazar para o bean compartilhado
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.queryTime = Timer.builder("users.tag.search.time").publishPercentileHistogram().register(meters);
+
+        Gauge.builder("users.tag.index.bytes", this, TagIndex::bitmapBytes).register(meters);
+        Gauge.builder("users.tag.index.tags", this, TagIndex::tagCount).register(meters);
+        Gauge.builder("users.tag.index.users", this, TagIndex::userCount).register(meters);
+    }
+
+    public static String normalize(String tag) {
+        if (tag == null) return null;
+        String t = tag.trim().toLowerCase(Locale.ROOT);
+        return t.isEmpty() ? null : t;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ===================== carga inicial =====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnReady() {
+        if (!enabled) {
+            log.info("[TagIndex] Desabilitado.");
+            return;
+        }
+        Thread t = new Thread(this::load, "tag-index-load");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void load() {
+        long t0 = System.nanoTime();
+        long[] rows = {0};
+        setLoading(true);
+        try {
+            // fetchSize só faz streaming no Postgres com autocommit desligado (dentro de transação)
+            readTx.executeWithoutResult(s -> {
+                jdbc.setFetchSize(fetchSize);
+                List<Object[]> chunk = new ArrayList<>(fetchSize);
+                jdbc.query("select user_id, tag from user_tags", (RowCallbackHandler) rs -> {
+                    chunk.add(new Object[] { rs.getObject(1, UUID.class), rs.getString(2) });
+                    if (chunk.size() >= fetchSize) {
+                        rows[0] += applyChunk(chunk);
+                        chunk.clear();
+                    }
+                });
+                rows[0] += applyChunk(chunk);
+            });
+            lock.writeLock().lock();
+            try {
+                byTag.values().forEach(RoaringBitmap::runOptimize);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("[TagIndex] Carga concluída | linhas={} | usuarios={} | tags={} | bytes={} | ms={}",
+                    rows[0], userCount(), tagCount(), bitmapBytes(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+        } catch (Exception ex) {
+            log.error("[TagIndex] Falha na carga inicial: {}", ex.getMessage(), ex);
+        } finally {
+            setLoading(false);
+        }
+    }
+
+    void setLoading(boolean on) {
+        lock.writeLock().lock();
+        try {
+            loading = on;
+            changedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int applyChunk(List<Object[]> chunk) {
+        lock.writeLock().lock();
+        try {
+            int n = 0;
+            for (Object[] row : chunk) {
+                UUID id = (UUID) row[0];
+                String tag = normalize((String) row[1]);
+                if (id == null || tag == null || changedWhileLoading.contains(id)) continue;
+                int ord = ordinalOf(id);
+                String[] current = tagsByOrdinal.get(ord);
+                if (contains(current, tag)) continue;
+                addTo(tag, ord);
+                String[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = tag;
+                tagsByOrdinal.set(ord, grown);
+                n++;
+            }
+            return n;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===================== atualização =====================
+
+    /** Substitui as tags do usuário no índice. */
+    public void put(UUID id, Collection<String> tags) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            if (loading) changedWhileLoading.add(id);
+            int ord = ordinalOf(id);
+            removeOrdinal(ord);
+            List<String> added = new ArrayList<>();
+            if (tags != null) {
+                for (String raw : tags) {
+                    String tag = normalize(raw);
+                    if (tag != null && !added.contains(tag)) {
+                        addTo(tag, ord);
+                        added.add(tag);
+                    }
+                }
+            }
+            tagsByOrdinal.set(ord, added.toArray(NO_TAGS));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            if (loading) changedWhileLoading.add(id);
+            Integer ord = ordinalById.remove(id);
+            if (ord == null) return;
+            idByOrdinal.set(ord, null);
+            removeOrdinal(ord);
+            tagsByOrdinal.set(ord, NO_TAGS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    void onRegistered(UserRegisteredEvent e) {
+        put(e.user().id(), e.user().tags());
+    }
+
+    @EventListener
+    void onUpdated(UserUpdatedEvent e) {
+        put(e.user().id(), e.user().tags());
+    }
+
+    @EventListener
+    void onDeleted(UserDeletedEvent e) {
+        remove(e.id());
+    }
+
+    // ===================== consulta =====================
+
+    /**
+     * Avalia a consulta e devolve até {@code size} ids depois do ordinal {@code cursor}.
+     * Os termos E são aplicados do menor bitmap para o maior, então o resultado encolhe cedo.
+     */
+    public Page search(TagQuery q, Integer cursor, int size) {
+        long t0 = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> terms = new ArrayList<>(q.all().size());
+            for (List<String> anyOf : q.all()) {
+                terms.add(union(anyOf));
+            }
+            terms.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+
+            RoaringBitmap result = terms.get(0);
+            for (int i = 1; i < terms.size() && !result.isEmpty(); i++) {
+                result = RoaringBitmap.and(result, terms.get(i));
+            }
+            for (String tag : q.none()) {
+                RoaringBitmap excluded = byTag.get(tag);
+                if (excluded != null && !result.isEmpty()) result = RoaringBitmap.andNot(result, excluded);
+            }
+
+            List<UUID> ids = new ArrayList<>(Math.min(size, result.getCardinality()));
+            PeekableIntIterator it = result.getIntIterator();
+            if (cursor != null) it.advanceIfNeeded(cursor + 1);
+            int last = -1;
+            while (it.hasNext() && ids.size() < size) {
+                last = it.next();
+                UUID id = idByOrdinal.get(last);
+                if (id != null) ids.add(id);
+            }
+            Integer next = it.hasNext() ? last : null;
+            return new Page(ids, result.getLongCardinality(), next);
+        } finally {
+            lock.readLock().unlock();
+            queryTime.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // sempre um bitmap novo: o resultado é modificado/consumido fora do lock de escrita
+    private RoaringBitmap union(List<String> tags) {
+        List<RoaringBitmap> parts = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            RoaringBitmap b = byTag.get(tag);
+            if (b != null) parts.add(b);
+        }
+        if (parts.isEmpty()) return new RoaringBitmap();
+        if (parts.size() == 1) return parts.get(0).clone();
+        return FastAggregation.or(parts.iterator());
+    }
+
+    // ===================== internos (sob write lock) =====================
+
+    private int ordinalOf(UUID id) {
+        Integer ord = ordinalById.get(id);
+        if (ord != null) return ord;
+        int next = idByOrdinal.size();
+        idByOrdinal.add(id);
+        tagsByOrdinal.add(NO_TAGS);
+        ordinalById.put(id, next);
+        return next;
+    }
+
+    private void addTo(String tag, int ord) {
+        byTag.computeIfAbsent(tag, k -> new RoaringBitmap()).add(ord);
+    }
+
+    // só os bitmaps das tags que o ordinal tem: O(tags do usuário), não O(tags do índice)
+    private void removeOrdinal(int ord) {
+        for (String tag : tagsByOrdinal.get(ord)) {
+            RoaringBitmap b = byTag.get(tag);
+            if (b == null) continue;
+            b.remove(ord);
+            if (b.isEmpty()) byTag.remove(tag);
+        }
+        tagsByOrdinal.set(ord, NO_TAGS);
+    }
+
+    private static boolean contains(String[] tags, String tag) {
+        for (String t : tags) {
+            if (t.equals(tag)) return true;
+        }
+        return false;
+    }
+
+    // ===================== métricas =====================
+
+    long bitmapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (RoaringBitmap b : byTag.values()) bytes += b.getLongSizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int tagCount() {
+        lock.readLock().lock();
+        try {
+            return byTag.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int userCount() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.ars.user_service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consulta booleana de tags no formato do parâmetro {@code ?tags=}:
+ * <ul>
+ *   <li>vírgula = E: {@code java,spring} → tem java e spring;</li>
+ *   <li>barra vertical = OU dentro do termo: {@code java,spring|quarkus} → java e (spring ou quarkus);</li>
+ *   <li>prefixo {@code -} exclui: {@code java,-junior}.</li>
+ * </ul>
+ * Precisa de pelo menos um termo positivo (exclusão pura varreria a base inteira).
+ */
+public record TagQuery(List<List<String>> all, List<String> none) {
+
+    public static final int MAX_TERMS = 32;
+
+    public static TagQuery parse(String expr) {
+        if (expr == null || expr.isBlank()) throw new IllegalArgumentException("Informe ao menos uma tag.");
+        List<List<String>> all = new ArrayList<>();
+        List<String> none = new ArrayList<>();
+        int terms = 0;
+        for (String rawTerm : expr.split(",")) {
+            String term = rawTerm.trim();
+            if (term.isEmpty()) continue;
+            if (++terms > MAX_TERMS) throw new IllegalArgumentException("Consulta com termos demais (máx. " + MAX_TERMS + ").");
+            if (term.startsWith("-")) {
+                String tag = TagIndex.normalize(term.substring(1));
+                if (tag == null) throw new IllegalArgumentException("Tag vazia em: " + rawTerm);
+                none.add(tag);
+                continue;
+            }
+            List<String> anyOf = new ArrayList<>();
+            for (String alt : term.split("\\|")) {
+                String tag = TagIndex.normalize(alt);
+                if (tag != null) anyOf.add(tag);
+            }
+            if (anyOf.isEmpty()) throw new IllegalArgumentException("Tag vazia em: " + rawTerm);
+            all.add(List.copyOf(anyOf));
+        }
+        if (all.isEmpty()) throw new IllegalArgumentException("Informe ao menos uma tag positiva.");
+        return new TagQuery(List.copyOf(all), List.copyOf(none));
+    }
+}
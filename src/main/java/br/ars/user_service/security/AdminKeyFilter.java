@@ -0,0 +1,63 @@
+package br.ars.user_service.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * X-Admin-Key → ROLE_ADMIN, para as rotas operacionais (purge, gravação JFR). O feed de mudanças
+ * é público (payload sem dados pessoais, ver UserChangeLog) e não passa por aqui.
+ * <ul>
+ *   <li>chave em app.security.admin-key; vazia = nenhuma requisição vira admin (rotas admin sempre 401);</li>
+ *   <li>comparação em tempo constante sobre o SHA-256 das duas chaves (tamanho da chave não vaza);</li>
+ *   <li>chave errada não derruba a requisição: segue com a autenticação que tiver e as regras decidem.</li>
+ * </ul>
+ * Como o BearerTokenFilter, registrado só na cadeia do Spring Security.
+ */
+@Slf4j
+public class AdminKeyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Admin-Key";
+    private static final List<SimpleGrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final byte[] expected;
+
+    public AdminKeyFilter(String adminKey) {
+        this.expected = adminKey == null || adminKey.isBlank() ? null : sha256(adminKey.trim());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String key = req.getHeader(HEADER);
+        if (expected != null && key != null && !key.isBlank()) {
+            if (MessageDigest.isEqual(expected, sha256(key.trim()))) {
+                var auth = new UsernamePasswordAuthenticationToken("admin", null, ADMIN);
+                SecurityContextHolder.getContext().setAuthentication(auth);
+            } else {
+                log.warn("[Auth] X-Admin-Key inválida | ip={} | uri={}", req.getRemoteAddr(), req.getRequestURI());
+            }
+        }
+        chain.doFilter(req, res);
+    }
+
+    private static byte[] sha256(String s) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package br.ars.user_service.security;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import br.ars.user_service.web.JsonBodies;
+
+/**
+ * Authorization: Bearer → assinatura, expiração e lista de revogação ({@link JwtUtil#isRevoked}, em memória).
+ * Token válido vira a autenticação da requisição (principal = id do usuário, ROLE_USER). Token inválido ou
+ * revogado não autentica: a requisição segue anônima, com o motivo em {@link #INVALID_TOKEN}, e as regras do
+ * SecurityConfig decidem — rota pública (login, registro) atende normalmente; rota protegida responde 401
+ * com {@link JsonBodies#TOKEN_INVALID} ({@link #entryPoint()}). O /logout trata o próprio token
+ * (revogar duas vezes não é erro).
+ * Registrado só na cadeia do Spring Security (não é @Component, senão rodaria também como filtro do servlet).
+ */
+@Slf4j
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    /** Atributo da requisição com o motivo da recusa do token apresentado. */
+    public static final String INVALID_TOKEN = BearerTokenFilter.class.getName() + ".invalid";
+
+    private static final String PREFIX = "Bearer ";
+    private static final List<SimpleGrantedAuthority> USER = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final JwtUtil jwt;
+
+    public BearerTokenFilter(JwtUtil jwt) {
+        this.jwt = jwt;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return req.getRequestURI().endsWith("/api/users/logout");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        String header = req.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(PREFIX)) {
+            chain.doFilter(req, res);
+            return;
+        }
+        Claims claims;
+        try {
+            claims = jwt.parseClaims(header.substring(PREFIX.length()).trim());
+            if (jwt.isRevoked(claims)) {
+                ignore(req, res, chain, "revogado");
+                return;
+            }
+        } catch (JwtException | IllegalArgumentException ex) {
+            ignore(req, res, chain, ex.getClass().getSimpleName());
+            return;
+        }
+        var auth = new UsernamePasswordAuthenticationToken(claims.getSubject(), null, USER);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        chain.doFilter(req, res);
+    }
+
+    private static void ignore(HttpServletRequest req, HttpServletResponse res, FilterChain chain, String reason)
+            throws ServletException, IOException {
+        log.debug("[Auth] Token recusado | motivo={}", reason);
+        req.setAttribute(INVALID_TOKEN, reason);
+        chain.doFilter(req, res);
+    }
+
+    /** 401 das rotas protegidas; com token recusado, o corpo explica o motivo genérico. */
+    public static AuthenticationEntryPoint entryPoint() {
+        return (req, res, ex) -> {
+            res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            if (req.getAttribute(INVALID_TOKEN) != null) {
+                res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                res.getOutputStream().write(JsonBodies.TOKEN_INVALID);
+            }
+        };
+    }
+}
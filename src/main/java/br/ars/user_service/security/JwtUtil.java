@@ -2,6 +2,7 @@ package br.ars.user_service.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
@@ -12,14 +13,28 @@ import java.util.UUID;
 public class JwtUtil {
 
     private final String jwtSecret = System.getenv().getOrDefault("JWT_SECRET", "segredoMuitoSecretoSuperLongo123456789");
-    private final long jwtExpirationMs = 86400000; // 1 dia
+    private final long jwtExpirationMs; // padrão: 1 dia
+
+    private final TokenRevocationStore revocations;
+    // derivada uma vez: o HMAC key spec não muda entre tokens
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    public JwtUtil(TokenRevocationStore revocations,
+                   @Value("${app.security.jwt.expiration-ms:86400000}") long jwtExpirationMs) {
+        this.revocations = revocations;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(UUID userId, String email) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti: permite revogar este token (logout)
                 .setSubject(userId.toString())
                 .claim("email", email)
                 .setIssuedAt(new Date())
@@ -28,22 +43,36 @@ public class JwtUtil {
                 .compact();
     }
 
+    /** Assinatura, expiração e lista de revogação (em memória, sem ida ao banco). */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
+            return !isRevoked(parseClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+    /** Claims de um token com assinatura e expiração válidas (não consulta revogação). */
+    public Claims parseClaims(String token) {
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
+    }
+
+    public boolean isRevoked(Claims claims) {
+        UUID userId = UUID.fromString(claims.getSubject());
+        long iat = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+        long exp = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        return revocations.isRevoked(claims.getId(), userId, iat, exp);
+    }
+
+    public UUID getUserIdFromToken(String token) {
+        Claims claims = parseClaims(token);
 
         return UUID.fromString(claims.getSubject());
     }
+
+    public long getExpirationMs() {
+        return jwtExpirationMs;
+    }
 }
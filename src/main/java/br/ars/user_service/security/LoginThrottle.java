@@ -0,0 +1,140 @@
+package br.ars.user_service.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contador de falhas de login por conta (EmailKey), com bloqueio exponencial.
+ * <ul>
+ *   <li>as primeiras {@code free-failures} falhas não bloqueiam; a partir daí cada falha bloqueia por
+ *       base × 2^(excedente), até o teto;</li>
+ *   <li>conta bloqueada é recusada antes da ida ao banco e do bcrypt — o ataque custa um lookup em mapa;</li>
+ *   <li>e-mails inexistentes também contam: credential stuffing em massa cai no mesmo bloqueio;</li>
+ *   <li>entrada = hash de 64 bits da chave + 3 campos; expira após a janela sem falhas.</li>
+ * </ul>
+ * Estado por réplica (memória local): com N réplicas o atacante ganha no máximo N× as tentativas livres.
+ * <p>
+ * Teto de {@code max-entries}: cheio, tenta uma limpeza (no máximo uma por segundo, não a cada chamada) e,
+ * se continuar cheio, a chave nova não é rastreada — as já rastreadas (bloqueios em curso) ficam intactas,
+ * em vez de um flood de e-mails distintos derrubar os bloqueios existentes. Estouro transitório limitado
+ * ao número de threads concorrentes.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final long MIN_SWEEP_INTERVAL_MS = 1000;
+
+    private final Map<Long, State> states = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepMs = new AtomicLong();
+    private final Counter throttled;
+    private final Counter untracked;
+
+    private final int freeFailures;
+    private final long baseLockMs;
+    private final long maxLockMs;
+    private final long windowMs;
+    private final int maxEntries;
+
+    public LoginThrottle(MeterRegistry meters,
+                         @Value("${app.security.login.free-failures:5}") int freeFailures,
+                         @Value("${app.security.login.base-lock-ms:1000}") long baseLockMs,
+                         @Value("${app.security.login.max-lock-ms:900000}") long maxLockMs,
+                         @Value("${app.security.login.window-ms:900000}") long windowMs,
+                         @Value("${app.security.login.max-entries:500000}") int maxEntries) {
+        this.freeFailures = freeFailures;
+        this.baseLockMs = baseLockMs;
+        this.maxLockMs = maxLockMs;
+        this.windowMs = windowMs;
+        this.maxEntries = maxEntries;
+        this.throttled = Counter.builder("security.login.throttled").register(meters);
+        this.untracked = Counter.builder("security.login.untracked").register(meters);
+        Gauge.builder("security.login.tracked", states, Map::size).register(meters);
+    }
+
+    /** Lança {@link LoginThrottledException} se a conta está bloqueada agora. */
+    public void checkAllowed(String emailKey) {
+        if (emailKey == null) return;
+        State s = states.get(keyOf(emailKey));
+        if (s == null) return;
+        long remaining = s.lockedUntilMs - System.currentTimeMillis();
+        if (remaining > 0) {
+            throttled.increment();
+            throw new LoginThrottledException(remaining);
+        }
+    }
+
+    public void recordFailure(String emailKey) {
+        if (emailKey == null) return;
+        long now = System.currentTimeMillis();
+        long key = keyOf(emailKey);
+        if (states.size() >= maxEntries && !states.containsKey(key) && !makeRoom(now)) {
+            untracked.increment();
+            log.debug("[LoginThrottle] Mapa cheio, falha não rastreada | emailKey={} | max={}", emailKey, maxEntries);
+            return;
+        }
+        State s = states.compute(key, (k, cur) -> {
+            State st = cur == null || now - cur.lastFailureMs > windowMs ? new State() : cur;
+            st.failures++;
+            st.lastFailureMs = now;
+            int excess = st.failures - freeFailures;
+            if (excess > 0) {
+                st.lockedUntilMs = now + Math.min(maxLockMs, baseLockMs << Math.min(30, excess - 1));
+            }
+            return st;
+        });
+        if (s.failures == freeFailures + 1) {
+            log.warn("[LoginThrottle] Conta bloqueada por falhas repetidas | emailKey={} | falhas={}", emailKey, s.failures);
+        }
+    }
+
+    public void recordSuccess(String emailKey) {
+        if (emailKey != null) states.remove(keyOf(emailKey));
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login.sweep-ms:60000}")
+    void sweepExpired() {
+        sweep(System.currentTimeMillis());
+    }
+
+    /** Limpeza sob demanda, no máximo uma por segundo entre todas as threads; true se abriu espaço. */
+    private boolean makeRoom(long now) {
+        long due = nextSweepMs.get();
+        if (now >= due && nextSweepMs.compareAndSet(due, now + MIN_SWEEP_INTERVAL_MS)) sweep(now);
+        return states.size() < maxEntries;
+    }
+
+    int trackedCount() {
+        return states.size();
+    }
+
+    private void sweep(long now) {
+        states.values().removeIf(s -> s.lockedUntilMs <= now && now - s.lastFailureMs > windowMs);
+    }
+
+    /** FNV-1a 64: a chave no mapa é um long, não a String do e-mail. */
+    private static long keyOf(String emailKey) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : emailKey.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static final class State {
+        int failures;
+        long lastFailureMs;
+        long lockedUntilMs;
+    }
+}
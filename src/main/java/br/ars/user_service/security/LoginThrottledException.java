@@ -0,0 +1,16 @@
+package br.ars.user_service.security;
+
+/** Conta com login bloqueado temporariamente por excesso de falhas. */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public LoginThrottledException(long retryAfterMs) {
+        super("Muitas tentativas de login. Tente novamente mais tarde.");
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
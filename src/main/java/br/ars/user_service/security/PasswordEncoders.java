@@ -0,0 +1,135 @@
+package br.ars.user_service.security;
+
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Monta o encoder de senhas: {@link DelegatingPasswordEncoder} com bcrypt e argon2.
+ * <ul>
+ *   <li>hash gravado leva o algoritmo no prefixo ({@code {bcrypt}$2a$11$...}, {@code {argon2}$argon2id$v=19$m=...})
+ *       e o custo nos próprios parâmetros do formato;</li>
+ *   <li>hash antigo sem prefixo (bcrypt puro) continua validando e é marcado para upgrade;</li>
+ *   <li>o custo é calibrado para ficar perto do alvo nesta máquina, sem cair abaixo do mínimo
+ *       configurado. Réplicas em hardware diferente podem calibrar custos diferentes: o upgrade só sobe
+ *       custo, então converge para o maior.</li>
+ *   <li>a calibração roda numa thread daemon depois do start (mede hashes de centenas de ms e atrasaria o
+ *       boot em segundos); até terminar vale o custo mínimo configurado, depois o encoder é trocado.</li>
+ * </ul>
+ */
+@Slf4j
+public final class PasswordEncoders {
+
+    private PasswordEncoders() {}
+
+    public record Settings(String algorithm, long targetMs,
+                           int bcryptMinStrength, int bcryptMaxStrength,
+                           int argon2MemoryKb, int argon2Parallelism,
+                           int argon2MinIterations, int argon2MaxIterations) {}
+
+    public static PasswordEncoder create(Settings s) {
+        String id = s.algorithm() == null ? "bcrypt" : s.algorithm().trim().toLowerCase();
+        if (!id.equals("bcrypt") && !id.equals("argon2")) {
+            throw new IllegalArgumentException("app.security.password.encoder inválido: " + s.algorithm() + " (use bcrypt ou argon2)");
+        }
+        PasswordEncoder bcryptMin = new BCryptPasswordEncoder(s.bcryptMinStrength());
+        PasswordEncoder argon2Min = argon2(s, s.argon2MinIterations());
+        Swappable encoder = new Swappable(delegating(id, bcryptMin, argon2Min));
+        if (s.targetMs() <= 0) return encoder;
+
+        Thread t = new Thread(() -> {
+            try {
+                // só o algoritmo em uso é calibrado; o outro fica com o mínimo (serve apenas para validar hashes antigos)
+                PasswordEncoder bcrypt = id.equals("bcrypt") ? calibrateBcrypt(s) : bcryptMin;
+                PasswordEncoder argon2 = id.equals("argon2") ? calibrateArgon2(s) : argon2Min;
+                encoder.delegate = delegating(id, bcrypt, argon2);
+            } catch (Exception ex) {
+                log.error("[PasswordEncoder] Calibração falhou, mantendo custo configurado | erro={}", ex.getMessage(), ex);
+            }
+        }, "password-calibration");
+        t.setDaemon(true);
+        t.start();
+        return encoder;
+    }
+
+    private static PasswordEncoder delegating(String id, PasswordEncoder bcrypt, PasswordEncoder argon2) {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(id, Map.of("bcrypt", bcrypt, "argon2", argon2));
+        // hashes gravados antes do prefixo: bcrypt puro
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    // cada ponto de strength dobra o custo: mede do mínimo para cima e para no último que cabe no alvo
+    private static PasswordEncoder calibrateBcrypt(Settings s) {
+        int strength = s.bcryptMinStrength();
+        long ms = s.targetMs() > 0 ? measure(new BCryptPasswordEncoder(strength)) : 0;
+        while (s.targetMs() > 0 && strength < s.bcryptMaxStrength() && ms * 2 <= s.targetMs()) {
+            long next = measure(new BCryptPasswordEncoder(strength + 1));
+            if (next > s.targetMs()) break;
+            strength++;
+            ms = next;
+        }
+        log.info("[PasswordEncoder] bcrypt calibrado | strength={} | hashMs={} | alvoMs={}", strength, ms, s.targetMs());
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // memória e paralelismo fixos (configuração); iterações escalam ~linearmente com o tempo
+    private static PasswordEncoder calibrateArgon2(Settings s) {
+        int iterations = s.argon2MinIterations();
+        long ms = 0;
+        if (s.targetMs() > 0) {
+            ms = Math.max(1, measure(argon2(s, iterations)));
+            long perIteration = Math.max(1, ms / iterations);
+            iterations = (int) Math.max(s.argon2MinIterations(), Math.min(s.argon2MaxIterations(), s.targetMs() / perIteration));
+            ms = perIteration * iterations;
+        }
+        log.info("[PasswordEncoder] argon2 calibrado | iterations={} | memoryKb={} | parallelism={} | hashMs~{} | alvoMs={}",
+                iterations, s.argon2MemoryKb(), s.argon2Parallelism(), ms, s.targetMs());
+        return argon2(s, iterations);
+    }
+
+    private static Argon2PasswordEncoder argon2(Settings s, int iterations) {
+        return new Argon2PasswordEncoder(16, 32, s.argon2Parallelism(), s.argon2MemoryKb(), iterations);
+    }
+
+    // um hash de aquecimento (JIT, tabelas) e o menor de três medições
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode("calibracao");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long t0 = System.nanoTime();
+            encoder.encode("calibracao-" + i);
+            best = Math.min(best, (System.nanoTime() - t0) / 1_000_000);
+        }
+        return best;
+    }
+
+    /** Encoder em uso, trocado uma vez quando a calibração termina. */
+    private static final class Swappable implements PasswordEncoder {
+
+        volatile PasswordEncoder delegate;
+
+        Swappable(PasswordEncoder initial) {
+            this.delegate = initial;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
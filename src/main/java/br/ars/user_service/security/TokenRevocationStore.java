@@ -0,0 +1,175 @@
+package br.ars.user_service.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.models.RevokedToken;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.repository.RevokedTokenRepository;
+import br.ars.user_service.util.BloomFilter;
+
+/**
+ * Lista de revogação de JWT consultada em memória na validação do token.
+ * <ul>
+ *   <li>revogações por {@code jti} ficam em buckets alinhados à expiração do token
+ *       (bucket = exp / bucketMs); bucket vencido é descartado inteiro;</li>
+ *   <li>cada bucket tem um Bloom filter na frente: token não revogado (o caso comum) custa uma
+ *       consulta ao filtro, sem tocar no set exato;</li>
+ *   <li>revogação "todos os tokens do usuário" (ex.: conta deletada) é um mapa userId → instante;</li>
+ *   <li>o Postgres (revoked_tokens) é a fonte da verdade: cada réplica sincroniza periodicamente.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    // revogações mais antigas que isso são re-lidas no sync (commits fora de ordem entre réplicas)
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository repo;
+    private final DbRequestQueueService db;
+
+    private final long bucketMs;
+    private final int expectedPerBucket;
+    private final long maxTokenLifetimeMs;
+
+    private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Long> revokedUsers = new ConcurrentHashMap<>();
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationStore(RevokedTokenRepository repo,
+                                DbRequestQueueService db,
+                                MeterRegistry meters,
+                                @Value("${app.security.revocation.bucket-minutes:60}") long bucketMinutes,
+                                @Value("${app.security.revocation.expected-per-bucket:10000}") int expectedPerBucket,
+                                @Value("${app.security.jwt.expiration-ms:86400000}") long maxTokenLifetimeMs) {
+        this.repo = repo;
+        this.db = db;
+        this.bucketMs = Duration.ofMinutes(bucketMinutes).toMillis();
+        this.expectedPerBucket = expectedPerBucket;
+        this.maxTokenLifetimeMs = maxTokenLifetimeMs;
+
+        Gauge.builder("security.revocation.buckets", buckets, Map::size).register(meters);
+        Gauge.builder("security.revocation.users", revokedUsers, Map::size).register(meters);
+    }
+
+    // ===== consulta (hot path) =====
+
+    public boolean isRevoked(String jti, UUID userId, long issuedAtMs, long expiresAtMs) {
+        if (userId != null) {
+            Long cutoff = revokedUsers.get(userId);
+            if (cutoff != null && issuedAtMs <= cutoff) return true;
+        }
+        if (jti == null) return false;
+        Bucket b = buckets.get(bucketOf(expiresAtMs));
+        return b != null && b.filter.mightContain(jti) && b.jtis.contains(jti);
+    }
+
+    // ===== revogação =====
+
+    /** Revoga um token (logout). Persiste e já vale localmente; outras réplicas pegam no próximo sync. */
+    public void revoke(String jti, UUID userId, Instant expiresAt) {
+        Instant now = Instant.now();
+        db.write(() -> repo.save(new RevokedToken(jti, userId, now, expiresAt)));
+        addJti(jti, expiresAt.toEpochMilli());
+        log.info("[Revocation] Token revogado | jti={} | userId={}", jti, userId);
+    }
+
+    /** Revoga todos os tokens do usuário emitidos até agora. */
+    public void revokeAllForUser(UUID userId) {
+        Instant now = Instant.now();
+        Instant expires = now.plusMillis(maxTokenLifetimeMs);
+        db.write(() -> repo.save(new RevokedToken(null, userId, now, expires)));
+        revokedUsers.merge(userId, now.toEpochMilli(), Math::max);
+        log.info("[Revocation] Todos os tokens revogados | userId={}", userId);
+    }
+
+    /** Exclusão em lote: uma transação para o chunk inteiro em vez de uma por usuário. */
+    public void revokeAllForUsers(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) return;
+        Instant now = Instant.now();
+        Instant expires = now.plusMillis(maxTokenLifetimeMs);
+        List<RevokedToken> rows = userIds.stream().map(id -> new RevokedToken(null, id, now, expires)).toList();
+        db.writeVoid(() -> repo.saveAll(rows));
+        for (UUID id : userIds) revokedUsers.merge(id, now.toEpochMilli(), Math::max);
+        log.info("[Revocation] Tokens revogados em lote | usuarios={}", userIds.size());
+    }
+
+    // ===== sync / manutenção =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    void initialLoad() {
+        try {
+            sync();
+        } catch (Exception ex) {
+            log.error("[Revocation] Falha na carga inicial: {}", ex.getMessage(), ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-ms:5000}",
+               initialDelayString = "${app.security.revocation.sync-ms:5000}")
+    void sync() {
+        Instant now = Instant.now();
+        Instant since = lastSync.equals(Instant.EPOCH) ? Instant.EPOCH : lastSync.minus(SYNC_OVERLAP);
+        List<RevokedToken> rows = db.read(() -> repo.findActiveRevokedSince(since, now));
+        for (RevokedToken r : rows) {
+            if (r.getJti() != null) {
+                addJti(r.getJti(), r.getExpiresAt().toEpochMilli());
+            } else if (r.getUserId() != null) {
+                revokedUsers.merge(r.getUserId(), r.getRevokedAt().toEpochMilli(), Math::max);
+            }
+        }
+        lastSync = now;
+        pruneExpired(now.toEpochMilli());
+        if (!rows.isEmpty()) log.info("[Revocation] Sync | novas={} | buckets={}", rows.size(), buckets.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.cleanup-ms:3600000}")
+    void cleanupDatabase() {
+        int n = db.write(() -> repo.deleteExpired(Instant.now()));
+        if (n > 0) log.info("[Revocation] Linhas expiradas removidas={}", n);
+    }
+
+    void pruneExpired(long nowMs) {
+        // bucket b cobre exp em [b*bucketMs, (b+1)*bucketMs): tudo abaixo do bucket atual já expirou
+        buckets.headMap(bucketOf(nowMs)).clear();
+        revokedUsers.entrySet().removeIf(e -> e.getValue() + maxTokenLifetimeMs < nowMs);
+    }
+
+    private void addJti(String jti, long expiresAtMs) {
+        if (expiresAtMs < System.currentTimeMillis()) return;
+        Bucket b = buckets.computeIfAbsent(bucketOf(expiresAtMs), k -> new Bucket(expectedPerBucket));
+        b.jtis.add(jti);
+        b.filter.put(jti);
+    }
+
+    private long bucketOf(long epochMs) {
+        return epochMs / bucketMs;
+    }
+
+    private static final class Bucket {
+        final BloomFilter filter;
+        final Set<String> jtis = ConcurrentHashMap.newKeySet();
+
+        Bucket(int expected) {
+            this.filter = new BloomFilter(expected);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package br.ars.user_service.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ars.user_service.repository.UserRepository;
+import br.ars.user_service.repository.UserRepository.EmailKeyPending;
+import br.ars.user_service.util.EmailKeys;
+
+/**
+ * Preenche a coluna EmailKey das linhas antigas, online, em lotes curtos
+ * (uma transação por lote, keyset por id) para não segurar conexão nem travar a tabela.
+ * Linha cuja chave já pertence a outro usuário fica marcada com {@link #DUPLICATE_PREFIX}:
+ * sai da fila de pendentes e o fallback legado pode desligar. Ela continua acessível por id;
+ * por e-mail quem responde é a linha que já tinha a chave (como antes do backfill).
+ */
+@Slf4j
+@Service
+public class EmailKeyBackfillService {
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    /** Nunca colide com EmailKeys.normalize (que sempre devolve minúsculas). */
+    static final String DUPLICATE_PREFIX = "DUP:";
+
+    private final UserRepository repo;
+    private final TransactionTemplate tx;
+
+    // espelha "existe EmailKey nula?" (sondado no start e ao fim do backfill); até a primeira sonda, assume que sim
+    private volatile boolean legacyRowsRemain = true;
+
+    @Value("${app.email-key.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.email-key.backfill.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.email-key.backfill.pause-ms:50}")
+    private long pauseMs;
+
+    public EmailKeyBackfillService(UserRepository repo, PlatformTransactionManager txManager) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startOnReady() {
+        refreshLegacyFlag();
+        if (!enabled) {
+            log.info("[EmailKeyBackfill] Desabilitado | linhasLegadas={}", legacyRowsRemain);
+            return;
+        }
+        if (!legacyRowsRemain) {
+            log.info("[EmailKeyBackfill] Nenhuma linha pendente.");
+            return;
+        }
+        Thread t = new Thread(this::run, "email-key-backfill");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void run() {
+        UUID after = MIN_UUID;
+        long updated = 0;
+        long conflicts = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<EmailKeyPending> batch = repo.findPendingEmailKeys(after, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) break;
+
+                try {
+                    updated += tx.execute(s -> applyBatch(batch));
+                } catch (DataIntegrityViolationException dup) {
+                    // lote abortado por chave duplicada: refaz linha a linha e pula as conflitantes
+                    for (EmailKeyPending row : batch) {
+                        try {
+                            updated += tx.execute(s -> repo.setEmailKey(row.getId(), EmailKeys.normalize(row.getEmail())));
+                        } catch (DataIntegrityViolationException ex) {
+                            conflicts++;
+                            tx.execute(s -> repo.setEmailKey(row.getId(), DUPLICATE_PREFIX + row.getId()));
+                            log.warn("[EmailKeyBackfill] EmailKey duplicada, linha marcada | id={} | email={}",
+                                    row.getId(), row.getEmail());
+                        }
+                    }
+                }
+
+                after = batch.get(batch.size() - 1).getId();
+                if (pauseMs > 0) Thread.sleep(pauseMs);
+            }
+            refreshLegacyFlag();
+            log.info("[EmailKeyBackfill] Concluído | atualizadas={} | conflitos={} | linhasLegadas={}",
+                    updated, conflicts, legacyRowsRemain);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.error("[EmailKeyBackfill] Falha | atualizadas={} | erro={}", updated, ex.getMessage(), ex);
+        }
+    }
+
+    /** Ainda pode haver linha com EmailKey nula (backfill não terminou ou está desligado). */
+    public boolean legacyRowsRemain() {
+        return legacyRowsRemain;
+    }
+
+    /**
+     * Linha antiga (EmailKey nula) cujo e-mail normaliza para {@code key}. A comparação é feita aqui,
+     * com EmailKeys.normalize, porque lower/trim do banco não equivale a NFKC. Varre só as pendentes,
+     * e só enquanto elas existem: com o backfill concluído não toca no banco.
+     */
+    public Optional<UUID> findLegacyId(String key) {
+        if (key == null || !legacyRowsRemain) return Optional.empty();
+        UUID after = MIN_UUID;
+        while (true) {
+            List<EmailKeyPending> page = repo.findPendingEmailKeys(after, PageRequest.of(0, batchSize));
+            for (EmailKeyPending row : page) {
+                if (key.equals(EmailKeys.normalize(row.getEmail()))) return Optional.of(row.getId());
+            }
+            if (page.size() < batchSize) return Optional.empty();
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    void refreshLegacyFlag() {
+        try {
+            legacyRowsRemain = repo.existsByEmailKeyIsNull();
+        } catch (Exception ex) {
+            // sem a sonda, mantém o fallback ligado: mais lento, nunca errado
+            legacyRowsRemain = true;
+            log.warn("[EmailKeyBackfill] Falha ao sondar linhas legadas | erro={}", ex.getMessage());
+        }
+    }
+
+    private int applyBatch(List<EmailKeyPending> batch) {
+        int n = 0;
+        for (EmailKeyPending row : batch) {
+            n += repo.setEmailKey(row.getId(), EmailKeys.normalize(row.getEmail()));
+        }
+        return n;
+    }
+}
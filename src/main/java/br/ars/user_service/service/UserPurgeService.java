@@ -0,0 +1,282 @@
+package br.ars.user_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.ars.user_service.cdn.BunnyCdnClient;
+import br.ars.user_service.changes.UserChangeLog;
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.repository.AvatarUploadOutboxRepository;
+import br.ars.user_service.repository.UserRepository;
+import br.ars.user_service.repository.UserRepository.PurgeInfo;
+import br.ars.user_service.security.TokenRevocationStore;
+import br.ars.user_service.util.UuidV7;
+
+/**
+ * Exclusão de usuários em lote (e a exclusão unitária, que é um lote de um).
+ * <ul>
+ *   <li>por chunk, uma transação com statements set-based: lê id/emailKey/avatarUrl, grava os eventos
+ *       DELETED do feed, apaga o outbox de avatar, user_tags e users — nada de carregar entidade por entidade;</li>
+ *   <li>revogação dos tokens do chunk numa transação só; eventos de exclusão depois do commit
+ *       (caches e índices em memória);</li>
+ *   <li>avatares apagados no Bunny em paralelo limitado (cdn-parallelism), com retry e backoff;
+ *       o objeto órfão que esgota as tentativas só é contado e logado;</li>
+ *   <li>jobs em background com progresso consultável; estado em memória desta réplica.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class UserPurgeService {
+
+    private final UserRepository users;
+    private final AvatarUploadOutboxRepository avatarOutbox;
+    private final DbRequestQueueService db;
+    private final TokenRevocationStore revocations;
+    private final ApplicationEventPublisher events;
+    private final BunnyCdnClient bunny;
+    private final UserChangeLog changeLog;
+
+    private final ExecutorService jobRunner;
+    private final ExecutorService cdnPool;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private final Counter usersDeleted;
+    private final Counter avatarsDeleted;
+    private final Counter avatarsFailed;
+
+    private final int chunkSize;
+    private final int maxIds;
+    private final int cdnMaxAttempts;
+    private final long cdnBackoffMs;
+    private final Duration jobRetention;
+
+    public UserPurgeService(UserRepository users, AvatarUploadOutboxRepository avatarOutbox,
+                            DbRequestQueueService db, TokenRevocationStore revocations,
+                            ApplicationEventPublisher events, BunnyCdnClient bunny, UserChangeLog changeLog,
+                            MeterRegistry meters,
+                            @Value("${app.purge.chunk-size:500}") int chunkSize,
+                            @Value("${app.purge.max-ids:100000}") int maxIds,
+                            @Value("${app.purge.cdn-parallelism:16}") int cdnParallelism,
+                            @Value("${app.purge.cdn-max-attempts:4}") int cdnMaxAttempts,
+                            @Value("${app.purge.cdn-backoff-ms:500}") long cdnBackoffMs,
+                            @Value("${app.purge.job-retention-minutes:60}") long jobRetentionMinutes) {
+        this.users = users;
+        this.avatarOutbox = avatarOutbox;
+        this.db = db;
+        this.revocations = revocations;
+        this.events = events;
+        this.bunny = bunny;
+        this.changeLog = changeLog;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+        this.cdnMaxAttempts = cdnMaxAttempts;
+        this.cdnBackoffMs = cdnBackoffMs;
+        this.jobRetention = Duration.ofMinutes(jobRetentionMinutes);
+
+        this.jobRunner = Executors.newSingleThreadExecutor(r -> daemon(r, "user-purge"));
+        this.cdnPool = Executors.newFixedThreadPool(cdnParallelism, r -> daemon(r, "purge-cdn"));
+
+        this.usersDeleted = Counter.builder("users.purge.deleted").register(meters);
+        this.avatarsDeleted = Counter.builder("users.purge.avatar").tag("result", "deleted").register(meters);
+        this.avatarsFailed = Counter.builder("users.purge.avatar").tag("result", "failed").register(meters);
+    }
+
+    // ===================== API =====================
+
+    /** Agenda a exclusão; ids repetidos contam uma vez. Progresso em {@link #job(UUID)}. */
+    public Job submit(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) throw new IllegalArgumentException("Informe ao menos um id.");
+        if (ids.size() > maxIds) throw new IllegalArgumentException("Máximo de " + maxIds + " ids por job.");
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+
+        Job job = new Job(UuidV7.next(), distinct.size());
+        jobs.put(job.id, job);
+        jobRunner.execute(() -> run(job, distinct));
+        log.info("[Purge] Job agendado | jobId={} | ids={}", job.id, distinct.size());
+        return job;
+    }
+
+    public Optional<Job> job(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /** Exclusão síncrona no banco (o avatar sai em background). Devolve os que existiam. */
+    public List<PurgeInfo> deleteNow(Collection<UUID> ids) {
+        List<PurgeInfo> deleted = deleteChunk(List.copyOf(ids));
+        for (PurgeInfo p : deleted) deleteAvatar(p.getAvatarUrl());
+        return deleted;
+    }
+
+    // ===================== job =====================
+
+    private void run(Job job, List<UUID> ids) {
+        job.status = "running";
+        List<CompletableFuture<Boolean>> avatars = new ArrayList<>();
+        try {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                List<PurgeInfo> deleted = deleteChunk(chunk);
+
+                job.processed.addAndGet(chunk.size());
+                job.deleted.addAndGet(deleted.size());
+                job.notFound.addAndGet(chunk.size() - deleted.size());
+
+                // CDN em paralelo com os próximos chunks do banco
+                for (PurgeInfo p : deleted) {
+                    if (p.getAvatarUrl() == null) continue;
+                    job.avatarsPending.incrementAndGet();
+                    avatars.add(deleteAvatar(p.getAvatarUrl()).whenComplete((ok, ex) -> {
+                        job.avatarsPending.decrementAndGet();
+                        (Boolean.TRUE.equals(ok) ? job.avatarsDeleted : job.avatarsFailed).incrementAndGet();
+                    }));
+                }
+            }
+            CompletableFuture.allOf(avatars.toArray(CompletableFuture[]::new)).join();
+            job.status = "done";
+            log.info("[Purge] Job concluído | jobId={} | excluidos={} | inexistentes={} | avatares={} | avataresFalhos={} | ms={}",
+                    job.id, job.deleted.get(), job.notFound.get(), job.avatarsDeleted.get(), job.avatarsFailed.get(),
+                    Duration.between(job.createdAt, Instant.now()).toMillis());
+        } catch (Exception ex) {
+            job.status = "failed";
+            job.error = ex.getMessage();
+            log.error("[Purge] Job falhou | jobId={} | processados={} | erro={}", job.id, job.processed.get(), ex.getMessage(), ex);
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    private List<PurgeInfo> deleteChunk(List<UUID> chunk) {
+        List<PurgeInfo> deleted = db.write(() -> {
+            List<PurgeInfo> found = users.findPurgeInfo(chunk);
+            if (found.isEmpty()) return found;
+            List<UUID> ids = found.stream().map(PurgeInfo::getId).toList();
+            changeLog.appendDeleted(ids);
+            avatarOutbox.deleteByUserIds(ids);
+            users.deleteTagsOf(ids);
+            users.deleteAllByIds(ids);
+            return found;
+        });
+        if (deleted.isEmpty()) return deleted;
+
+        usersDeleted.increment(deleted.size());
+        revocations.revokeAllForUsers(deleted.stream().map(PurgeInfo::getId).toList());
+        for (PurgeInfo p : deleted) events.publishEvent(new UserDeletedEvent(p.getId(), p.getEmailKey()));
+        return deleted;
+    }
+
+    /**
+     * Apaga no Bunny o objeto de uma avatarUrl (também usado na troca de avatar, para o objeto antigo).
+     * true = objeto apagado (ou já inexistente); false = desistiu após as tentativas.
+     */
+    public CompletableFuture<Boolean> deleteAvatar(String avatarUrl) {
+        String key = bunny.keyFromPublicUrl(avatarUrl);
+        if (key == null) return CompletableFuture.completedFuture(true);
+        return CompletableFuture.supplyAsync(() -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    bunny.deleteObject(key);
+                    avatarsDeleted.increment();
+                    return true;
+                } catch (Exception ex) {
+                    if (attempt >= cdnMaxAttempts) {
+                        avatarsFailed.increment();
+                        log.warn("[Purge] Avatar não apagado no CDN | key={} | tentativas={} | erro={}", key, attempt, ex.getMessage());
+                        return false;
+                    }
+                    try {
+                        Thread.sleep(cdnBackoffMs << Math.min(10, attempt - 1));
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+        }, cdnPool);
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.cleanup-ms:300000}")
+    void forgetFinishedJobs() {
+        Instant limit = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(limit));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobRunner.shutdownNow();
+        cdnPool.shutdownNow();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r);
+        t.setName(name + "-" + t.getId());
+        t.setDaemon(true);
+        return t;
+    }
+
+    // ===================== estado do job =====================
+
+    public static final class Job {
+        private final UUID id;
+        private final int total;
+        private final Instant createdAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong deleted = new AtomicLong();
+        private final AtomicLong notFound = new AtomicLong();
+        private final AtomicLong avatarsPending = new AtomicLong();
+        private final AtomicLong avatarsDeleted = new AtomicLong();
+        private final AtomicLong avatarsFailed = new AtomicLong();
+        private volatile String status = "queued";
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private Job(UUID id, int total) {
+            this.id = id;
+            this.total = total;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public Map<String, Object> progress() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("jobId", id);
+            m.put("status", status);
+            m.put("total", total);
+            m.put("processed", processed.get());
+            m.put("deleted", deleted.get());
+            m.put("notFound", notFound.get());
+            m.put("avatarsDeleted", avatarsDeleted.get());
+            m.put("avatarsPending", avatarsPending.get());
+            m.put("avatarsFailed", avatarsFailed.get());
+            m.put("createdAt", createdAt);
+            if (finishedAt != null) m.put("finishedAt", finishedAt);
+            if (error != null) m.put("error", error);
+            return m;
+        }
+    }
+}
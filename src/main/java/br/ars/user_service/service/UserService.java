@@ -1,30 +1,57 @@
 package br.ars.user_service.service;
 
-import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-
-import javax.naming.NamingException;
-import javax.naming.directory.Attribute;
-import javax.naming.directory.Attributes;
-import javax.naming.directory.DirContext;
-import javax.naming.directory.InitialDirContext;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import br.ars.user_service.cdn.AvatarUploadService;
 import br.ars.user_service.cdn.BunnyCdnClient;
+import br.ars.user_service.changes.UserChangeLog;
+import br.ars.user_service.datasource.RecentWrites;
 import br.ars.user_service.dto.PerfilResponse;
+import br.ars.user_service.concurrency.SingleFlight;
 import br.ars.user_service.dto.RegisterRequest;
+import br.ars.user_service.dto.UpdateProfileRequest;
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.enums.UserType;
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.events.UserRegisteredEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
 import br.ars.user_service.mapper.UserMapper;
 import br.ars.user_service.models.User;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.registration.MxVerdictCache;
 import br.ars.user_service.repository.UserRepository;
 import br.ars.user_service.security.JwtUtil;
-
-import jakarta.transaction.Transactional;
+import br.ars.user_service.security.LoginThrottle;
+import br.ars.user_service.security.TokenRevocationStore;
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+import br.ars.user_service.util.EmailKeys;
+import br.ars.user_service.util.Names;
+import br.ars.user_service.util.UuidV7;
 
 @Slf4j
 @Service
@@ -35,166 +62,448 @@ public class UserService {
     private final PasswordEncoder encoder;
     private final JwtUtil jwtUtil;
     private final BunnyCdnClient bunny;
-
-    @Value("${bunny.cdn.base-url}")
-    private String cdnBaseUrl;
+    private final DbRequestQueueService db;
+    private final TokenRevocationStore revocations;
+    private final ApplicationEventPublisher events;
+    private final AvatarUploadService avatarUploads;
+    private final LoginThrottle loginThrottle;
+    private final UserPurgeService purge;
+    private final RecentWrites recentWrites;
+    private final UserChangeLog changeLog;
+    private final MxVerdictCache mxVerdicts;
+    private final EmailKeyBackfillService emailKeyBackfill;
+    private volatile String dummyHash;
+    private final Executor hashPool;
+    private final Counter rehashed;
+    // tempo com conexão em mãos por registro (recheca + INSERT)
+    private final Timer txTime;
+
+    // leituras concorrentes da mesma chave viram uma só ida ao banco
+    private final SingleFlight<UUID, Optional<UserView>> byId = new SingleFlight<>();
+    private final SingleFlight<String, Optional<UserView>> byEmail = new SingleFlight<>();
+
+    // desligável em ambientes sem DNS externo (teste de carga local)
+    @Value("${app.registration.mx-check.enabled:true}")
+    private boolean mxCheckEnabled;
+
+    @Value("${app.security.password.rehash-on-login:true}")
+    private boolean rehashOnLogin;
 
     public UserService(UserRepository repo, UserMapper mapper, PasswordEncoder encoder,
-                       JwtUtil jwtUtil, BunnyCdnClient bunny) {
+                       JwtUtil jwtUtil, BunnyCdnClient bunny, DbRequestQueueService db,
+                       TokenRevocationStore revocations, ApplicationEventPublisher events,
+                       AvatarUploadService avatarUploads, LoginThrottle loginThrottle, UserPurgeService purge, RecentWrites recentWrites,
+                       UserChangeLog changeLog, MxVerdictCache mxVerdicts, EmailKeyBackfillService emailKeyBackfill,
+                       @Qualifier("hashPool") Executor hashPool, MeterRegistry meters) {
         this.repo = repo;
         this.mapper = mapper;
         this.encoder = encoder;
         this.jwtUtil = jwtUtil;
         this.bunny = bunny;
+        this.db = db;
+        this.revocations = revocations;
+        this.events = events;
+        this.avatarUploads = avatarUploads;
+        this.loginThrottle = loginThrottle;
+        this.purge = purge;
+        this.recentWrites = recentWrites;
+        this.changeLog = changeLog;
+        this.mxVerdicts = mxVerdicts;
+        this.emailKeyBackfill = emailKeyBackfill;
+        this.hashPool = hashPool;
+        this.rehashed = Counter.builder("security.password.rehash").register(meters);
+        this.txTime = Timer.builder("registration.tx.time").publishPercentileHistogram().register(meters);
+
+        for (var e : java.util.Map.of("id", byId, "email", byEmail).entrySet()) {
+            SingleFlight<?, ?> sf = e.getValue();
+            FunctionCounter.builder("users.read.singleflight.calls", sf, SingleFlight::leaders)
+                    .tags("key", e.getKey(), "role", "leader").register(meters);
+            FunctionCounter.builder("users.read.singleflight.calls", sf, SingleFlight::followers)
+                    .tags("key", e.getKey(), "role", "follower").register(meters);
+            Gauge.builder("users.read.singleflight.coalescing.ratio", sf, SingleFlight::coalescingRatio)
+                    .tag("key", e.getKey()).register(meters);
+        }
     }
 
     /** Síncrono (controller chama direto). */
-    @Transactional
-    public User register(RegisterRequest req, MultipartFile avatar) {
+    public UserView register(RegisterRequest req, MultipartFile avatar) {
         log.info("[UserService] Iniciando registro | email={} | nome={} | avatarPresente={}",
                 req != null ? req.getEmail() : null,
                 req != null ? req.getNome() : null,
                 (avatar != null && !avatar.isEmpty()));
 
+        if (avatar == null || avatar.isEmpty()) {
+            return register(req, null, null, null);
+        }
+        try {
+            return register(req, avatar.getBytes(), avatar.getOriginalFilename(), avatar.getContentType());
+        } catch (java.io.IOException e) {
+            log.error("[UserService] Erro lendo avatar multipart: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro lendo arquivo para upload", e);
+        }
+    }
+
+    /**
+     * Assíncrono (worker da fila chama este overload com BYTES).
+     * <ol>
+     *   <li>antes da transação: formato, MX (DNS), checagem barata de duplicado e bcrypt;</li>
+     *   <li>transação curta no bulkhead: recheca duplicado + um único INSERT (id e avatarUrl já montados);</li>
+     *   <li>depois do commit: upload do avatar no ioPool, com outbox para reenvio se falhar.</li>
+     * </ol>
+     */
+    public UserView register(RegisterRequest req, byte[] avatarBytes, String filename, String contentType) {
+        log.info("[UserService] Iniciando registro (BYTES) | email={} | nome={} | hasBytes={}",
+                req != null ? req.getEmail() : null,
+                req != null ? req.getNome() : null,
+                avatarBytes != null && avatarBytes.length > 0);
+
         final String rawEmail = req.getEmail();
         if (rawEmail == null || !isValidEmailFormat(rawEmail)) {
             log.warn("[UserService] E-mail inválido | rawEmail={}", rawEmail);
             throw new IllegalArgumentException("E-mail inválido.");
         }
-        if (!domainHasMX(rawEmail)) {
+        if (mxCheckEnabled && !mxVerdicts.hasMx(rawEmail)) {
             log.warn("[UserService] Domínio sem MX | email={}", rawEmail);
             throw new IllegalArgumentException("Domínio de e-mail sem MX válido. Verifique o endereço informado.");
         }
 
-        final String email = rawEmail.trim().toLowerCase();
-        repo.findByEmail(email).ifPresent(u -> { throw new IllegalArgumentException("Email já cadastrado."); });
+        final String email = EmailKeys.normalize(rawEmail);
+        // checagem barata antes do bcrypt; a definitiva é feita de novo dentro da transação
+        if (db.read(() -> existsByKey(email))) throw new IllegalArgumentException("Email já cadastrado.");
 
         User user = mapper.toEntity(req);
         if (user.getSenha() == null || user.getSenha().isBlank()) {
             throw new IllegalArgumentException("Senha obrigatória.");
         }
         user.setEmail(email);
-        user.setSenha(encoder.encode(user.getSenha()));
-        user = repo.save(user);
-        log.info("[UserService] Usuário persistido | id={} | email={}", user.getId(), user.getEmail());
+        user.setEmailKey(email);
+        try (StageTimer.Span s = StageTimer.start(Stage.HASH)) {
+            user.setSenha(encoder.encode(user.getSenha()));
+        }
 
-        if (avatar == null || avatar.isEmpty()) {
-            log.info("[UserService] Sem avatar (MultipartFile nulo/vazio) — finalizando registro sem upload.");
-            return user;
+        // id (UUIDv7) atribuído antes do INSERT: a chave do avatar e a avatarUrl final já vão no INSERT
+        user.setId(UuidV7.next());
+        boolean hasAvatar = avatarBytes != null && avatarBytes.length > 0;
+        String avatarKey = null;
+        if (hasAvatar) {
+            String baseName = Names.slug(firstWordOrDefault(req.getNome(), "user"), "user");
+            avatarKey = "users/" + baseName + user.getId() + "." + resolveExt(contentType, filename);
+            user.setAvatarUrl(bunny.publicUrl(avatarKey));
         }
 
-        String baseName = sanitizeBaseName(firstWordOrDefault(req.getNome(), "user"));
-        String ext = resolveExt(avatar.getContentType(), avatar.getOriginalFilename());
-        String key = "users/" + baseName + user.getId().toString() + "." + ext;
+        UserView saved = db.write(() -> txTime.record(() -> insert(user)));
+        log.info("[UserService] Usuário persistido | id={} | email={}", saved.id(), saved.email());
 
-        log.info("[UserService] Upload avatar (multipart) | key={} | ct={} | size={}",
-                key, avatar.getContentType(), avatar.getSize());
+        if (hasAvatar) {
+            log.info("[UserService] Upload avatar pós-commit | key={} | ct={} | bytes={}", avatarKey, contentType, avatarBytes.length);
+            avatarUploads.uploadAfterCommit(saved.id(), avatarKey, avatarBytes, contentType);
+        }
 
-        bunny.uploadAvatar(avatar, key);
+        forgetReads(saved.id(), saved.emailKey());
+        events.publishEvent(new UserRegisteredEvent(saved));
+        return saved;
+    }
 
-        String finalUrl = normalizedCdnBase() + "/" + key;
-        user.setAvatarUrl(finalUrl);
-        user = repo.save(user);
-        log.info("[UserService] AvatarUrl setado={}", user.getAvatarUrl());
+    /** Roda dentro da transação do bulkhead: a recheca de duplicado, o INSERT e o evento do feed de mudanças. */
+    private UserView insert(User user) {
+        if (existsByKey(user.getEmailKey())) throw new IllegalArgumentException("Email já cadastrado.");
+        UserView saved = UserView.of(repo.save(user));
+        changeLog.append(UserChangeLog.REGISTERED, saved);
+        return saved;
+    }
+
+    // ===== demais métodos da sua classe =====
 
-        return user;
+    public PerfilResponse getPerfilByEmail(String email) {
+        return findViewByEmail(email)
+            .map(PerfilResponse::from)
+            .orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
     }
 
-    /** Assíncrono (worker da fila chama este overload com BYTES). */
-    @Transactional
-    public User register(RegisterRequest req, byte[] avatarBytes, String filename, String contentType) {
-        log.info("[UserService] Iniciando registro (BYTES) | email={} | nome={} | hasBytes={}",
-                req != null ? req.getEmail() : null,
-                req != null ? req.getNome() : null,
-                avatarBytes != null && avatarBytes.length > 0);
+    /** Leitura coalescida por e-mail (chave normalizada). */
+    public Optional<UserView> findViewByEmail(String email) {
+        return findViewByEmailKey(EmailKeys.normalize(email));
+    }
 
-        final String rawEmail = req.getEmail();
-        if (rawEmail == null || !isValidEmailFormat(rawEmail)) {
-            throw new IllegalArgumentException("E-mail inválido.");
-        }
-        if (!domainHasMX(rawEmail)) {
-            throw new IllegalArgumentException("Domínio de e-mail sem MX válido. Verifique o endereço informado.");
+    /**
+     * Conta bloqueada pelo LoginThrottle é recusada antes do banco e do bcrypt. E-mail inexistente
+     * paga um bcrypt de mentira (mesmo custo) e a mesma mensagem: tempo e resposta não revelam se a conta existe.
+     */
+    public String authenticateAndGenerateToken(String email, String rawPassword) {
+        String key = EmailKeys.normalize(email);
+        try (StageTimer.Span s = StageTimer.start(Stage.RATE_LIMIT)) {
+            loginThrottle.checkAllowed(key);
         }
 
-        final String email = rawEmail.trim().toLowerCase();
-        repo.findByEmail(email).ifPresent(u -> { throw new IllegalArgumentException("Email já cadastrado."); });
+        User user = key == null ? null : readFor(null, key, () -> findByKey(key)).orElse(null);
+        // bcrypt fora do banco: não segura worker/conexão durante o hash
+        boolean ok;
+        try (StageTimer.Span s = StageTimer.start(Stage.HASH)) {
+            if (user != null) {
+                ok = encoder.matches(rawPassword, user.getSenha());
+            } else {
+                encoder.matches(rawPassword, dummyHash());
+                ok = false;
+            }
+        }
+        if (!ok) {
+            loginThrottle.recordFailure(key);
+            throw new RuntimeException("Credenciais inválidas.");
+        }
+        loginThrottle.recordSuccess(key);
+        if (rehashOnLogin && encoder.upgradeEncoding(user.getSenha())) {
+            rehashInBackground(user.getId(), user.getSenha(), rawPassword);
+        }
+        return jwtUtil.generateToken(user.getId(), user.getEmail());
+    }
 
-        User user = mapper.toEntity(req);
-        if (user.getSenha() == null || user.getSenha().isBlank()) {
-            throw new IllegalArgumentException("Senha obrigatória.");
+    /**
+     * Hash sem prefixo, de outro algoritmo ou com custo abaixo do atual: recalcula com o encoder atual
+     * (a senha em claro só existe agora) e troca condicionalmente. Fora da resposta do login; pool cheio = fica para o próximo.
+     */
+    private void rehashInBackground(UUID userId, String oldHash, String rawPassword) {
+        try {
+            hashPool.execute(() -> {
+                try {
+                    String newHash = encoder.encode(rawPassword);
+                    int n = db.write(() -> repo.replaceSenha(userId, oldHash, newHash));
+                    if (n == 1) {
+                        rehashed.increment();
+                        log.info("[UserService] Hash de senha atualizado no login | userId={}", userId);
+                    }
+                } catch (Exception ex) {
+                    log.warn("[UserService] Rehash da senha falhou | userId={} | erro={}", userId, ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException rex) {
+            log.debug("[UserService] hashPool cheio, rehash adiado | userId={}", userId);
         }
-        user.setEmail(email);
-        user.setSenha(encoder.encode(user.getSenha()));
-        user = repo.save(user);
-        log.info("[UserService] Usuário persistido | id={} | email={}", user.getId(), user.getEmail());
+    }
 
-        if (avatarBytes == null || avatarBytes.length == 0) {
-            log.info("[UserService] Sem avatarBytes — finalizando registro sem upload.");
-            return user;
+    // hash com o custo atual do encoder; comparar contra ele custa o mesmo que um login real.
+    // Refeito quando o encoder o considera desatualizado (calibração trocou o custo depois do primeiro uso).
+    private String dummyHash() {
+        String h = dummyHash;
+        if (h == null || encoder.upgradeEncoding(h)) {
+            h = encoder.encode(UUID.randomUUID().toString());
+            dummyHash = h;
         }
+        return h;
+    }
+
+    /** Leitura coalescida: requisições simultâneas para o mesmo id compartilham uma ida ao banco. */
+    public Optional<UserView> findById(UUID id) {
+        return byId.execute(id, () -> readFor(id, null, () -> repo.findById(id).map(UserView::of)));
+    }
 
-        String baseName = sanitizeBaseName(firstWordOrDefault(req.getNome(), "user"));
-        String ext = resolveExt(contentType, filename);
-        String key = "users/" + baseName + user.getId().toString() + "." + ext;
+    /** Views na ordem dos ids pedidos (ids que não existem mais são omitidos). */
+    public List<UserView> findViewsByIds(List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, UserView> found = db.read(() -> repo.findByIdIn(ids).stream()
+                .map(UserView::of)
+                .collect(Collectors.toMap(UserView::id, Function.identity(), (a, b) -> a)));
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        String key = EmailKeys.normalize(email);
+        return key == null ? Optional.empty() : readFor(null, key, () -> findByKey(key).map(UserService::withTags));
+    }
 
-        log.info("[UserService] Upload avatar (bytes) | key={} | ct={} | bytes={}", key, contentType, avatarBytes.length);
+    public boolean existsByEmail(String email) {
+        return findViewByEmailKey(EmailKeys.normalize(email)).isPresent();
+    }
 
-        bunny.uploadBytes(avatarBytes, contentType, key);
+    // ===================== alteração de perfil =====================
 
-        String finalUrl = normalizedCdnBase() + "/" + key;
-        user.setAvatarUrl(finalUrl);
-        user = repo.save(user);
-        log.info("[UserService] AvatarUrl setado={}", user.getAvatarUrl());
+    /**
+     * PATCH: transação curta no bulkhead que carrega a linha, confere a versão esperada (If-Match) e aplica
+     * só os campos enviados e diferentes do atual. Com @DynamicUpdate o UPDATE leva só essas colunas,
+     * com "where versao = ?" do lock otimista. Nada mudou = nenhuma escrita, mesma versão.
+     */
+    public UserView updateProfile(UUID id, Long expectedVersion, UpdateProfileRequest req) {
+        if (req == null) throw new IllegalArgumentException("Corpo obrigatório.");
+        UserType tipo = parseTipo(req.getTipo());
+        String nome = trimToNull(req.getNome());
+        String telefone = trimToNull(req.getTelefone());
 
-        return user;
+        UserView updated;
+        try {
+            updated = db.write(() -> {
+                User u = loadForUpdate(id, expectedVersion);
+                boolean changed = false;
+                if (nome != null && !nome.equals(u.getNome())) { u.setNome(nome); changed = true; }
+                if (telefone != null && !telefone.equals(u.getTelefone())) { u.setTelefone(telefone); changed = true; }
+                if (tipo != null && tipo != u.getTipo()) { u.setTipo(tipo); changed = true; }
+                if (req.getBio() != null) {
+                    String bio = req.getBio().isEmpty() ? null : req.getBio();
+                    if (!Objects.equals(bio, u.getBio())) { u.setBio(bio); changed = true; }
+                }
+                if (req.getTags() != null) {
+                    List<String> tags = req.getTags().stream().filter(Objects::nonNull).map(String::trim)
+                            .filter(t -> !t.isEmpty()).distinct().toList();
+                    if (!tags.equals(u.getTags())) {
+                        if (u.getTags() == null) {
+                            u.setTags(new java.util.ArrayList<>(tags));
+                        } else {
+                            u.getTags().clear();
+                            u.getTags().addAll(tags);
+                        }
+                        changed = true;
+                    }
+                }
+                if (!changed) return null;
+                repo.saveAndFlush(u);
+                UserView v = UserView.of(u);
+                changeLog.append(UserChangeLog.UPDATED, v);
+                return v;
+            });
+        } catch (org.springframework.orm.ObjectOptimisticLockingFailureException race) {
+            throw new VersionConflictException("Perfil alterado por outra requisição. Releia e tente de novo.");
+        } catch (org.springframework.dao.DataIntegrityViolationException dup) {
+            throw new IllegalArgumentException("Telefone já cadastrado.");
+        }
+        if (updated == null) {
+            return findById(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+        }
+        log.info("[UserService] Perfil alterado | id={} | versao={}", id, updated.version());
+        events.publishEvent(new UserUpdatedEvent(updated));
+        return updated;
     }
 
-    // ===== demais métodos da sua classe =====
+    /**
+     * Troca do avatar: sobe o objeto novo (key nova, nunca sobrescreve — o CDN não serve a imagem antiga do cache)
+     * no ioPool antes de tocar no banco; transação curta só com o UPDATE da avatarUrl; objeto antigo (o da linha
+     * lida na transação) apagado depois do commit. Se o UPDATE falhar, o objeto novo é que é apagado.
+     */
+    public UserView replaceAvatar(UUID id, Long expectedVersion, byte[] bytes, String filename, String contentType) {
+        if (bytes == null || bytes.length == 0) throw new IllegalArgumentException("Avatar vazio.");
+        UserView current = findById(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+        if (expectedVersion != null && expectedVersion != current.version()) {
+            throw new VersionConflictException("Versão do perfil desatualizada.");
+        }
 
-    @Transactional
-    public PerfilResponse getPerfilByEmail(String email) {
-        User user = repo.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+        String baseName = Names.slug(firstWordOrDefault(current.nome(), "user"), "user");
+        String key = "users/" + baseName + id + "-" + Long.toString(System.currentTimeMillis(), 36)
+                + "." + resolveExt(contentType, filename);
+        String newUrl = bunny.publicUrl(key);
+        avatarUploads.upload(key, bytes, contentType).join();
+
+        AvatarSwap swap;
+        try {
+            swap = db.write(() -> {
+                User u = loadForUpdate(id, expectedVersion);
+                // o antigo vem da linha lida nesta transação: com `current` (lido antes), dois PUTs concorrentes
+                // apagariam o mesmo original e o objeto intermediário ficaria órfão no CDN
+                String previousUrl = u.getAvatarUrl();
+                u.setAvatarUrl(newUrl);
+                repo.saveAndFlush(u);
+                UserView v = UserView.of(u);
+                changeLog.append(UserChangeLog.AVATAR_SET, v);
+                return new AvatarSwap(v, previousUrl);
+            });
+        } catch (RuntimeException ex) {
+            purge.deleteAvatar(newUrl);
+            if (ex instanceof org.springframework.orm.ObjectOptimisticLockingFailureException) {
+                throw new VersionConflictException("Perfil alterado por outra requisição. Releia e tente de novo.");
+            }
+            throw ex;
+        }
+        UserView updated = swap.view();
+        log.info("[UserService] Avatar trocado | id={} | key={} | versao={}", id, key, updated.version());
+        if (swap.previousUrl() != null && !swap.previousUrl().equals(newUrl)) purge.deleteAvatar(swap.previousUrl());
+        events.publishEvent(new UserUpdatedEvent(updated));
+        return updated;
+    }
+
+    private record AvatarSwap(UserView view, String previousUrl) {}
 
-        PerfilResponse perfil = new PerfilResponse();
-        perfil.setNome(user.getNome());
-        perfil.setTelefone(user.getTelefone());
-        perfil.setTipo(user.getTipo() != null ? user.getTipo().name() : null);
-        perfil.setBio(user.getBio());
-        perfil.setAvatarUrl(user.getAvatarUrl() != null && !user.getAvatarUrl().isBlank()
-                ? user.getAvatarUrl() : null);
-        return perfil;
+    /** Dentro da transação: linha + checagem da versão esperada (If-Match). */
+    private User loadForUpdate(UUID id, Long expectedVersion) {
+        User u = repo.findById(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+        if (expectedVersion != null && !expectedVersion.equals(u.getVersion())) {
+            throw new VersionConflictException("Versão do perfil desatualizada.");
+        }
+        Hibernate.initialize(u.getTags());
+        return u;
     }
 
-    @Transactional
-    public String authenticateAndGenerateToken(String email, String rawPassword) {
-        User user = repo.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
-        if (!encoder.matches(rawPassword, user.getSenha())) {
-            throw new RuntimeException("Senha inválida.");
+    private static UserType parseTipo(String tipo) {
+        if (tipo == null || tipo.isBlank()) return null;
+        try {
+            return UserType.valueOf(tipo.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo inválido: " + tipo);
         }
-        return jwtUtil.generateToken(user.getId(), user.getEmail());
     }
 
-    @Transactional
-    public Optional<User> findById(UUID id) { return repo.findById(id); }
+    private static String trimToNull(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
 
-    @Transactional
-    public Optional<User> findByEmail(String email) { return repo.findByEmail(email); }
+    @EventListener
+    void onUpdated(UserUpdatedEvent e) {
+        forgetReads(e.user().id(), e.user().emailKey());
+    }
 
-    @Transactional
+    /** Mesmo caminho da exclusão em lote: statements set-based, tokens revogados, avatar apagado no CDN. */
     public void deleteUser(UUID id) {
-        if (!repo.existsById(id)) throw new RuntimeException("Usuário não encontrado para deletar.");
-        repo.deleteById(id);
+        if (purge.deleteNow(List.of(id)).isEmpty()) {
+            throw new RuntimeException("Usuário não encontrado para deletar.");
+        }
     }
 
-    // ===== helpers =====
+    @EventListener
+    void onDeleted(UserDeletedEvent e) {
+        forgetReads(e.id(), e.emailKey());
+    }
 
-    private String normalizedCdnBase() {
-        if (cdnBaseUrl == null || cdnBaseUrl.isBlank()) {
-            throw new IllegalStateException("bunny.cdn.base-url não configurado");
+    /** Logout: revoga o token apresentado. Tokens antigos, sem jti, revogam todas as sessões do usuário. */
+    public void logout(String token) {
+        Claims claims = jwtUtil.parseClaims(token);
+        UUID userId = UUID.fromString(claims.getSubject());
+        if (claims.getId() == null) {
+            revocations.revokeAllForUser(userId);
+            return;
         }
-        return cdnBaseUrl.endsWith("/") ? cdnBaseUrl.substring(0, cdnBaseUrl.length() - 1) : cdnBaseUrl;
+        revocations.revoke(claims.getId(), userId, claims.getExpiration().toInstant());
+    }
+
+    private Optional<UserView> findViewByEmailKey(String key) {
+        if (key == null) return Optional.empty();
+        return byEmail.execute(key, () -> readFor(null, key, () -> findByKey(key).map(UserView::of)));
+    }
+
+    /** Busca pela EmailKey; linha antiga com a chave ainda nula cai no e-mail legado (ver EmailKeyBackfillService). */
+    private Optional<User> findByKey(String key) {
+        Optional<User> u = repo.findByEmailKey(key);
+        if (u.isPresent()) return u;
+        return emailKeyBackfill.findLegacyId(key).flatMap(repo::findById);
+    }
+
+    private boolean existsByKey(String key) {
+        return repo.existsByEmailKey(key) || emailKeyBackfill.findLegacyId(key).isPresent();
+    }
+
+    /** Usuário escrito há pouco nesta instância lê do primário; o resto pode ir à réplica. */
+    private <T> T readFor(UUID id, String emailKey, java.util.function.Supplier<T> work) {
+        return recentWrites.isRecent(id, emailKey) ? db.readPrimary(work) : db.read(work);
+    }
+
+    /** Depois de uma escrita (já commitada): leituras seguintes do mesmo cliente veem o novo estado. */
+    private void forgetReads(UUID id, String emailKey) {
+        if (id != null) byId.forget(id);
+        if (emailKey != null) byEmail.forget(emailKey);
+    }
+
+    // ===== helpers =====
+
+    /** Inicializa as tags ainda dentro da transação (a entidade sai do bulkhead destacada). */
+    private static User withTags(User u) {
+        Hibernate.initialize(u.getTags());
+        return u;
     }
 
     private String firstWordOrDefault(String s, String def) {
@@ -203,16 +512,6 @@ public class UserService {
         return first.isBlank() ? def : first;
     }
 
-    private String sanitizeBaseName(String s) {
-        String noAccents = java.text.Normalizer.normalize(s, java.text.Normalizer.Form.NFD)
-                .replaceAll("\\p{M}", "");
-        String out = noAccents.replaceAll("[^A-Za-z0-9_-]+", "_")
-                .replaceAll("_+", "_")
-                .replaceAll("^_+|_+$", "")
-                .toLowerCase();
-        return out.isBlank() ? "user" : out;
-    }
-
     private String resolveExt(String contentType, String originalFilename) {
         if (contentType != null) {
             switch (contentType.toLowerCase()) {
@@ -238,27 +537,4 @@ public class UserService {
         String e = email.trim();
         return e.matches("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
     }
-
-    private boolean domainHasMX(String email) {
-        try {
-            String domain = email.substring(email.indexOf('@') + 1).trim();
-            if (domain.isEmpty()) return false;
-
-            Hashtable<String, String> env = new Hashtable<>();
-            env.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
-            env.put("com.sun.jndi.dns.timeout.initial", "2000");
-            env.put("com.sun.jndi.dns.timeout.retries", "1");
-
-            DirContext ictx = new InitialDirContext(env);
-            Attributes attrs = ictx.getAttributes(domain, new String[] { "MX" });
-            Attribute attr = attrs.get("MX");
-            if (attr != null && attr.size() > 0) return true;
-
-            attrs = ictx.getAttributes(domain, new String[] { "A", "AAAA" });
-            return (attrs.get("A") != null || attrs.get("AAAA") != null);
-
-        } catch (NamingException | StringIndexOutOfBoundsException ex) {
-            return false;
-        }
-    }
 }
@@ -0,0 +1,9 @@
+package br.ars.user_service.service;
+
+/** If-Match não bate com a versão atual, ou outra escrita venceu a corrida (lock otimista). */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
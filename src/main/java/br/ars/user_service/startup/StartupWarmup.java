@@ -0,0 +1,146 @@
+package br.ars.user_service.startup;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.security.JwtUtil;
+
+/**
+ * Aquecimento antes da readiness: o Spring só publica ACCEPTING_TRAFFIC depois que os
+ * ApplicationRunners terminam, então a réplica nova entra no balanceador já com
+ * pool Hikari cheio, chave JWT derivada, bcrypt JITado e os endpoints quentes exercitados.
+ *
+ * Com app.startup.training-run=true (build fastStartupArchive) a app sai logo após o
+ * aquecimento, e o JVM grava o arquivo AppCDS com as classes carregadas até ali.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private final ConfigurableApplicationContext context;
+    private final DataSource dataSource;
+    private final JwtUtil jwtUtil;
+    private final PasswordEncoder encoder;
+    private final Environment env;
+
+    @Value("${app.startup.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.startup.warmup.connections:${spring.datasource.hikari.minimum-idle:2}}")
+    private int connections;
+
+    @Value("${app.startup.warmup.http-iterations:20}")
+    private int httpIterations;
+
+    @Value("${app.startup.training-run:false}")
+    private boolean trainingRun;
+
+    public StartupWarmup(ConfigurableApplicationContext context, DataSource dataSource,
+                         JwtUtil jwtUtil, PasswordEncoder encoder, Environment env) {
+        this.context = context;
+        this.dataSource = dataSource;
+        this.jwtUtil = jwtUtil;
+        this.encoder = encoder;
+        this.env = env;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled || trainingRun) {
+            long t0 = System.nanoTime();
+            step("hikari", this::fillPool);
+            step("jwt", this::touchJwt);
+            step("bcrypt", this::touchBcrypt);
+            step("http", this::touchEndpoints);
+            log.info("[Warmup] Concluído | ms={}", (System.nanoTime() - t0) / 1_000_000L);
+        }
+        log.info("[Warmup] Pronto para tráfego | uptimeMs={}", ManagementFactory.getRuntimeMXBean().getUptime());
+
+        if (trainingRun) {
+            log.info("[Warmup] Training run: encerrando para gravar o arquivo CDS");
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    // abre as conexões em paralelo ao tráfego zero, em vez de no primeiro pico
+    private void fillPool() throws Exception {
+        List<Connection> held = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection c = dataSource.getConnection();
+                held.add(c);
+                c.isValid(2);
+            }
+        } finally {
+            for (Connection c : held) c.close();
+        }
+    }
+
+    private void touchJwt() {
+        String token = jwtUtil.generateToken(UUID.randomUUID(), "warmup@localhost");
+        jwtUtil.validateToken(token);
+    }
+
+    private void touchBcrypt() {
+        String hash = encoder.encode("warmup-" + UUID.randomUUID());
+        encoder.matches("warmup", hash);
+    }
+
+    // Jackson, MVC, ETag/bytes e o bulkhead do banco pelo caminho real da requisição
+    private void touchEndpoints() throws Exception {
+        String port = env.getProperty("local.server.port");
+        if (port == null) return;
+        String base = "http://localhost:" + port + "/api/users";
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        List<String> paths = List.of(
+                "/exists?email=warmup@localhost",
+                "/perfil?email=warmup@localhost",
+                "/" + UUID.randomUUID()
+        );
+        for (int i = 0; i < httpIterations; i++) {
+            for (String path : paths) {
+                HttpRequest req = HttpRequest.newBuilder(URI.create(base + path))
+                        .timeout(Duration.ofSeconds(5))
+                        .header("Accept-Encoding", "gzip")
+                        .GET().build();
+                http.send(req, HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+
+    private void step(String name, WarmupStep step) {
+        long t0 = System.nanoTime();
+        try {
+            step.run();
+            log.info("[Warmup] Etapa ok | etapa={} | ms={}", name, (System.nanoTime() - t0) / 1_000_000L);
+        } catch (Exception ex) {
+            // aquecimento é best-effort: nunca impede a réplica de subir
+            log.warn("[Warmup] Etapa falhou | etapa={} | erro={}", name, ex.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,200 @@
+package br.ars.user_service.startup;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.cache.ProfileBytesCache;
+import br.ars.user_service.cache.UserVersionIndex;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.registration.MxVerdictCache;
+import br.ars.user_service.repository.UserRepository;
+import br.ars.user_service.repository.UserRepository.VersionInfo;
+
+/**
+ * Snapshot do estado quente em memória para o próximo start não começar frio.
+ * <ul>
+ *   <li>periodicamente (e no shutdown) grava bytes de perfil renderizados e vereditos de MX em
+ *       {@link WarmSnapshotFile}. Usuários conhecidos (id + emailKey) não entram: o índice de versões só guarda
+ *       entradas por segundos e nada no start os usaria para o /exists;</li>
+ *   <li>no start, antes da readiness (ApplicationRunner, antes do {@link StartupWarmup}), mapeia o arquivo:
+ *       vereditos de MX entram direto (têm validade própria), perfis entram como fatias do mapeamento,
+ *       paginadas só quando servidas. Bytes de perfil são por versão: só são usados quando a leitura do banco
+ *       traz a mesma versão, então entrada antiga nunca é servida;</li>
+ *   <li>depois, em background e em lotes pequenos, confere id/versão dos perfis no banco: entrada de versão
+ *       velha ou de usuário apagado sai, e as confirmadas alimentam o índice de versões (If-None-Match → 304).
+ *       O índice nunca recebe versão vinda do arquivo sem essa conferência.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmSnapshot implements ApplicationRunner {
+
+    private final ProfileBytesCache profiles;
+    private final UserVersionIndex versions;
+    private final MxVerdictCache mx;
+    private final UserRepository repo;
+    private final DbRequestQueueService db;
+
+    private final Counter validatedOk;
+    private final Counter validatedStale;
+
+    // só grava depois que o start tentou carregar: um crash logo no boot não troca um snapshot bom por um vazio
+    private volatile boolean started;
+
+    @Value("${app.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.snapshot.path:${java.io.tmpdir}/user-service/warm.snap}")
+    private String path;
+
+    @Value("${app.snapshot.max-age-hours:24}")
+    private long maxAgeHours;
+
+    @Value("${app.snapshot.validate.batch-size:500}")
+    private int validateBatch;
+
+    @Value("${app.snapshot.validate.pause-ms:50}")
+    private long validatePauseMs;
+
+    public WarmSnapshot(ProfileBytesCache profiles, UserVersionIndex versions, MxVerdictCache mx,
+                        UserRepository repo, DbRequestQueueService db, MeterRegistry meters) {
+        this.profiles = profiles;
+        this.versions = versions;
+        this.mx = mx;
+        this.repo = repo;
+        this.db = db;
+        this.validatedOk = Counter.builder("snapshot.validated").tag("result", "ok").register(meters);
+        this.validatedStale = Counter.builder("snapshot.validated").tag("result", "stale").register(meters);
+    }
+
+    // ===================== start =====================
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (enabled) load();
+        } finally {
+            started = true;
+        }
+    }
+
+    private void load() {
+        long t0 = System.nanoTime();
+        WarmSnapshotFile.Contents c;
+        try {
+            c = WarmSnapshotFile.read(Path.of(path));
+        } catch (Exception ex) {
+            log.warn("[Snapshot] Arquivo ignorado | path={} | erro={}", path, ex.getMessage());
+            return;
+        }
+        if (c == null) {
+            log.info("[Snapshot] Nenhum snapshot, start frio | path={}", path);
+            return;
+        }
+        long ageMs = System.currentTimeMillis() - c.createdAtMs();
+        if (ageMs > Duration.ofHours(maxAgeHours).toMillis()) {
+            log.info("[Snapshot] Snapshot velho demais, ignorado | idadeMin={}", ageMs / 60_000);
+            return;
+        }
+
+        c.mx().forEach(mx::restore);
+        // candidatos à validação: ids dos perfis (um id pode ter mais de um formato no arquivo)
+        Set<UUID> candidates = new LinkedHashSet<>();
+        for (WarmSnapshotFile.ProfileEntry p : c.profiles()) {
+            profiles.restore(p.kind(), p.id(), p.version(), p.json());
+            candidates.add(p.id());
+        }
+        log.info("[Snapshot] Carregado | perfis={} | mx={} | idadeMin={} | ms={}",
+                c.profiles().size(), c.mx().size(), ageMs / 60_000, (System.nanoTime() - t0) / 1_000_000L);
+
+        if (!candidates.isEmpty()) {
+            List<UUID> ids = new ArrayList<>(candidates);
+            Thread t = new Thread(() -> validate(ids), "warm-snapshot-validate");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    // lotes pequenos com pausa: não disputa o bulkhead com o tráfego que acabou de chegar
+    private void validate(List<UUID> ids) {
+        long t0 = System.nanoTime();
+        int ok = 0, stale = 0;
+        try {
+            for (int from = 0; from < ids.size(); from += validateBatch) {
+                List<UUID> batch = ids.subList(from, Math.min(ids.size(), from + validateBatch));
+                Map<UUID, VersionInfo> found = new LinkedHashMap<>();
+                for (VersionInfo v : db.read(() -> repo.findVersionInfo(batch))) found.put(v.getId(), v);
+                for (UUID id : batch) {
+                    VersionInfo v = found.get(id);
+                    if (v == null) {
+                        profiles.evict(id);
+                        stale++;
+                        continue;
+                    }
+                    long version = v.getVersion() != null ? v.getVersion() : 0L;
+                    profiles.retainVersion(id, version);
+                    versions.record(id, v.getEmailKey(), version);
+                    ok++;
+                }
+                if (validatePauseMs > 0) Thread.sleep(validatePauseMs);
+            }
+            log.info("[Snapshot] Validação concluída | ok={} | removidos={} | ms={}", ok, stale, (System.nanoTime() - t0) / 1_000_000L);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            // entradas não validadas continuam inofensivas: perfis só servem na versão lida do banco
+            log.warn("[Snapshot] Validação interrompida | ok={} | removidos={} | erro={}", ok, stale, ex.getMessage());
+        } finally {
+            validatedOk.increment(ok);
+            validatedStale.increment(stale);
+        }
+    }
+
+    // ===================== gravação =====================
+
+    @Scheduled(fixedDelayString = "${app.snapshot.interval-ms:300000}", initialDelayString = "${app.snapshot.interval-ms:300000}")
+    void scheduledWrite() {
+        write();
+    }
+
+    @PreDestroy
+    void writeOnShutdown() {
+        write();
+    }
+
+    public synchronized void write() {
+        if (!enabled || !started) return;
+        long t0 = System.nanoTime();
+        List<WarmSnapshotFile.ProfileEntry> profileEntries = new ArrayList<>();
+        profiles.forEach((kind, id, r) -> profileEntries.add(new WarmSnapshotFile.ProfileEntry(kind, id, r.version(), r.jsonBuffer())));
+        List<MxVerdictCache.Verdict> verdicts = new ArrayList<>();
+        mx.forEachValid(verdicts::add);
+        try {
+            long bytes = WarmSnapshotFile.write(Path.of(path), System.currentTimeMillis(), profileEntries, verdicts);
+            log.info("[Snapshot] Gravado | perfis={} | mx={} | bytes={} | ms={}",
+                    profileEntries.size(), verdicts.size(), bytes, (System.nanoTime() - t0) / 1_000_000L);
+        } catch (Exception ex) {
+            log.warn("[Snapshot] Falha gravando | path={} | erro={}", path, ex.getMessage());
+        }
+    }
+}
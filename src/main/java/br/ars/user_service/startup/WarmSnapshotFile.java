@@ -0,0 +1,238 @@
+package br.ars.user_service.startup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import br.ars.user_service.registration.MxVerdictCache;
+
+/**
+ * Formato binário do snapshot de reinício (big-endian, versão {@link #FORMAT_VERSION}):
+ * <pre>
+ * cabeçalho: magic "USWS" | formato int | criadoEm long (epoch ms) | tamanho total long | seções int
+ * seção:     tipo int | quantidade int | bytes do corpo long | corpo
+ *   PROFILES: quantidade × [kind byte | id msb long | id lsb long | versão long | offset long | tamanho int],
+ *             seguida da área de JSON (offsets relativos ao início dela)
+ *   USERS:    (descontinuada; arquivos antigos ainda trazem, a leitura pula)
+ *   MX:       quantidade × [expiraEm long | temMx byte | domínio (short + UTF-8)]
+ * </pre>
+ * A leitura mapeia o arquivo e percorre só as tabelas; o JSON de cada perfil vira uma fatia do mapeamento,
+ * paginada pelo SO quando (e se) for servida. Tipo de seção desconhecido é pulado; formato diferente ou
+ * tamanho que não bate com o arquivo (gravação interrompida) descartam o snapshot inteiro.
+ */
+final class WarmSnapshotFile {
+
+    static final int MAGIC = 0x55535753; // "USWS"
+    static final int FORMAT_VERSION = 1;
+
+    static final int PROFILES = 1;
+    static final int USERS = 2; // não é mais gravada
+    static final int MX = 3;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    private static final int SECTION_HEADER_BYTES = 4 + 4 + 8;
+    private static final int PROFILE_RECORD_BYTES = 1 + 8 + 8 + 8 + 8 + 4;
+
+    record ProfileEntry(String kind, UUID id, long version, ByteBuffer json) {}
+
+    record Contents(long createdAtMs, List<ProfileEntry> profiles, List<MxVerdictCache.Verdict> mx) {}
+
+    private WarmSnapshotFile() {}
+
+    // ===================== escrita =====================
+
+    /** Grava num temporário ao lado e troca com move atômico: quem lê nunca vê arquivo pela metade. */
+    static long write(Path target, long createdAtMs, List<ProfileEntry> profiles,
+                      List<MxVerdictCache.Verdict> mx) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        long total;
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Out out = new Out(ch)) {
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(createdAtMs).putLong(0L).putInt(2);
+
+            long body = section(out, PROFILES, profiles.size());
+            long offset = 0;
+            for (ProfileEntry p : profiles) {
+                out.put((byte) p.kind().charAt(0))
+                        .putLong(p.id().getMostSignificantBits()).putLong(p.id().getLeastSignificantBits())
+                        .putLong(p.version()).putLong(offset).putInt(p.json().remaining());
+                offset += p.json().remaining();
+            }
+            for (ProfileEntry p : profiles) out.put(p.json().duplicate());
+            endSection(out, body);
+
+            body = section(out, MX, mx.size());
+            for (MxVerdictCache.Verdict v : mx) {
+                out.putLong(v.expiresAtMs()).put((byte) (v.hasMx() ? 1 : 0)).putString(v.domain());
+            }
+            endSection(out, body);
+
+            total = out.position();
+            out.patchLong(16, total);
+            out.flush();
+            ch.force(false);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return total;
+    }
+
+    private static long section(Out out, int type, int count) throws IOException {
+        out.putInt(type).putInt(count).putLong(0L);
+        return out.position();
+    }
+
+    private static void endSection(Out out, long bodyStart) throws IOException {
+        out.patchLong(bodyStart - 8, out.position() - bodyStart);
+    }
+
+    // ===================== leitura =====================
+
+    /** null = arquivo inexistente. IOException = arquivo inválido (o chamador descarta). */
+    static Contents read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) throw new IOException("tamanho inválido: " + size);
+            // o mapeamento continua válido depois de fechar o canal (e de o arquivo ser trocado pelo próximo snapshot)
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (buf.getInt(0) != MAGIC) throw new IOException("magic inválido");
+        int format = buf.getInt(4);
+        if (format != FORMAT_VERSION) throw new IOException("formato " + format + " não suportado");
+        long createdAtMs = buf.getLong(8);
+        if (buf.getLong(16) != buf.capacity()) throw new IOException("arquivo truncado");
+        int sections = buf.getInt(24);
+
+        List<ProfileEntry> profiles = new ArrayList<>();
+        List<MxVerdictCache.Verdict> mx = new ArrayList<>();
+        int pos = HEADER_BYTES;
+        for (int s = 0; s < sections; s++) {
+            check(buf, pos, SECTION_HEADER_BYTES);
+            int type = buf.getInt(pos);
+            int count = buf.getInt(pos + 4);
+            long bytes = buf.getLong(pos + 8);
+            int body = pos + SECTION_HEADER_BYTES;
+            check(buf, body, bytes);
+            ByteBuffer section = buf.slice(body, (int) bytes);
+            switch (type) {
+                case PROFILES -> readProfiles(section, count, profiles);
+                case MX -> readMx(section, count, mx);
+                default -> { } // USERS (antiga) ou seção de versão futura
+            }
+            pos = body + (int) bytes;
+        }
+        return new Contents(createdAtMs, profiles, mx);
+    }
+
+    private static void readProfiles(ByteBuffer s, int count, List<ProfileEntry> out) throws IOException {
+        long table = (long) count * PROFILE_RECORD_BYTES;
+        check(s, 0, table);
+        int blobs = (int) table;
+        for (int i = 0; i < count; i++) {
+            int r = i * PROFILE_RECORD_BYTES;
+            String kind = String.valueOf((char) s.get(r));
+            UUID id = new UUID(s.getLong(r + 1), s.getLong(r + 9));
+            long version = s.getLong(r + 17);
+            long offset = s.getLong(r + 25);
+            int length = s.getInt(r + 33);
+            check(s, blobs + offset, length);
+            out.add(new ProfileEntry(kind, id, version, s.slice(blobs + (int) offset, length)));
+        }
+    }
+
+    private static void readMx(ByteBuffer s, int count, List<MxVerdictCache.Verdict> out) throws IOException {
+        for (int i = 0; i < count; i++) {
+            check(s, s.position(), 9);
+            long expiresAtMs = s.getLong();
+            boolean hasMx = s.get() != 0;
+            String domain = getString(s);
+            if (domain != null) out.add(new MxVerdictCache.Verdict(domain, hasMx, expiresAtMs));
+        }
+    }
+
+    private static String getString(ByteBuffer s) throws IOException {
+        check(s, s.position(), 2);
+        short len = s.getShort();
+        if (len < 0) return null;
+        check(s, s.position(), len);
+        byte[] b = new byte[len];
+        s.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void check(ByteBuffer b, long from, long length) throws IOException {
+        if (from < 0 || length < 0 || from + length > b.limit()) throw new IOException("registro fora dos limites");
+    }
+
+    /** Escrita sequencial com buffer, mais o remendo dos tamanhos que só se sabe no fim. */
+    private static final class Out implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+        private long flushed;
+
+        Out(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        long position() {
+            return flushed + buf.position();
+        }
+
+        Out put(byte b) throws IOException { ensure(1); buf.put(b); return this; }
+        Out putInt(int v) throws IOException { ensure(4); buf.putInt(v); return this; }
+        Out putLong(long v) throws IOException { ensure(8); buf.putLong(v); return this; }
+
+        Out put(ByteBuffer src) throws IOException {
+            flush();
+            while (src.hasRemaining()) flushed += ch.write(src);
+            return this;
+        }
+
+        Out putString(String s) throws IOException {
+            if (s == null) return putShort((short) -1);
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            if (b.length > Short.MAX_VALUE) throw new IOException("string longa demais para o snapshot");
+            putShort((short) b.length);
+            ensure(b.length);
+            buf.put(b);
+            return this;
+        }
+
+        private Out putShort(short v) throws IOException { ensure(2); buf.putShort(v); return this; }
+
+        void patchLong(long at, long value) throws IOException {
+            flush();
+            ByteBuffer b = ByteBuffer.allocate(8).putLong(0, value);
+            while (b.hasRemaining()) ch.write(b, at + b.position());
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) flushed += ch.write(buf);
+            buf.clear();
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() < n) flush();
+            if (buf.remaining() < n) throw new IOException("registro maior que o buffer");
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package br.ars.user_service.timing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/jfr — gravação JFR sob demanda, sem reiniciar nem anexar agente:
+ * <ul>
+ *   <li>POST (seconds, settings = default | profile) inicia; GET mostra o estado; DELETE para e grava;</li>
+ *   <li>limitada: duração até app.timing.jfr.max-duration-s, tamanho até app.timing.jfr.max-size-mb; ao fim
+ *       da duração o próprio JFR para e grava o arquivo;</li>
+ *   <li>uma gravação por vez, arquivos em app.timing.jfr.dir, só os app.timing.jfr.keep mais recentes ficam.</li>
+ * </ul>
+ * Fora da exposição web por padrão; exposto, exige ROLE_ADMIN (SecurityConfig).
+ * Os {@link StageEvent} vão sempre habilitados, com ou sem Server-Timing.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final DateTimeFormatter FILE_TS = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path dir;
+    private final long maxDurationSeconds;
+    private final long maxSizeBytes;
+    private final int keep;
+
+    private Recording recording;
+    private Path destination;
+
+    public JfrRecordingEndpoint(@Value("${app.timing.jfr.dir:${java.io.tmpdir}/user-service/jfr}") String dir,
+                                @Value("${app.timing.jfr.max-duration-s:600}") long maxDurationSeconds,
+                                @Value("${app.timing.jfr.max-size-mb:200}") long maxSizeMb,
+                                @Value("${app.timing.jfr.keep:5}") int keep) {
+        this.dir = Path.of(dir);
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeBytes = maxSizeMb * 1024L * 1024L;
+        this.keep = Math.max(1, keep);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> state() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("state", recording == null ? "NONE" : recording.getState().name());
+        if (recording != null) {
+            out.put("startedAt", recording.getStartTime());
+            out.put("duration", recording.getDuration());
+            out.put("bytes", recording.getSize());
+            out.put("file", destination.toString());
+        }
+        out.put("files", files().stream().map(Path::toString).toList());
+        return out;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long seconds, @Nullable String settings) {
+        if (isRunning()) throw new InvalidEndpointRequestException("Já existe uma gravação em andamento", "gravação em andamento");
+        long s = seconds == null || seconds <= 0 ? maxDurationSeconds : Math.min(seconds, maxDurationSeconds);
+        String name = settings == null || settings.isBlank() ? "default" : settings.trim();
+        Configuration config;
+        try {
+            config = Configuration.getConfiguration(name);
+        } catch (Exception ex) {
+            throw new InvalidEndpointRequestException("settings inválido: " + name + " (default | profile)", "settings inválido");
+        }
+
+        closeRecording();
+        // o arquivo da nova gravação só aparece no stop: abre espaço para ele antes
+        prune(keep - 1);
+        try {
+            Files.createDirectories(dir);
+            Recording r = new Recording(config);
+            r.setName("user-service-on-demand");
+            r.enable(StageEvent.class);
+            r.setToDisk(true);
+            r.setMaxSize(maxSizeBytes);
+            r.setDuration(Duration.ofSeconds(s));
+            destination = dir.resolve("user-service-" + FILE_TS.format(Instant.now()) + ".jfr");
+            r.setDestination(destination);
+            r.start();
+            recording = r;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Falha iniciando gravação JFR: " + ex.getMessage(), ex);
+        }
+        log.info("[JFR] Gravação iniciada | settings={} | segundos={} | maxMb={} | arquivo={}",
+                name, s, maxSizeBytes / (1024 * 1024), destination);
+        return state();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (isRunning()) {
+            // com destino definido, stop() grava o arquivo antes de retornar
+            recording.stop();
+            log.info("[JFR] Gravação parada | arquivo={} | bytes={}", destination, size(destination));
+        }
+        return state();
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (isRunning()) recording.stop();
+        closeRecording();
+    }
+
+    private boolean isRunning() {
+        return recording != null && (recording.getState() == RecordingState.RUNNING
+                || recording.getState() == RecordingState.DELAYED);
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    // mantém só os retain arquivos mais recentes
+    private void prune(int retain) {
+        List<Path> all = files();
+        for (int i = retain; i < all.size(); i++) {
+            try {
+                Files.deleteIfExists(all.get(i));
+            } catch (IOException ex) {
+                log.warn("[JFR] Falha removendo gravação antiga | arquivo={} | erro={}", all.get(i), ex.getMessage());
+            }
+        }
+    }
+
+    // mais recentes primeiro (o nome carrega o timestamp)
+    private List<Path> files() {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException ex) {
+            return List.of();
+        }
+    }
+
+    private static long size(Path p) {
+        try {
+            return Files.size(p);
+        } catch (IOException ex) {
+            return -1L;
+        }
+    }
+}
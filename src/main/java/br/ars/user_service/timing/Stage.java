@@ -0,0 +1,24 @@
+package br.ars.user_service.timing;
+
+/** Estágios cronometrados por requisição; {@link #token()} é o nome usado no header Server-Timing. */
+public enum Stage {
+    RATE_LIMIT("ratelimit", "rate limit / throttle de login"),
+    PARSE("parse", "leitura do JSON"),
+    DB("db", "bulkhead do banco (fila + transação)"),
+    HASH("hash", "bcrypt/argon2"),
+    QUEUE_WAIT("queue", "espera na fila de registro"),
+    DNS("dns", "consulta MX"),
+    CDN_PUT("cdn", "PUT no storage da CDN");
+
+    private final String token;
+    private final String description;
+
+    Stage(String token, String description) {
+        this.token = token;
+        this.description = description;
+    }
+
+    public String token() { return token; }
+
+    public String description() { return description; }
+}
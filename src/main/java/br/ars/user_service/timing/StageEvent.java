@@ -0,0 +1,32 @@
+package br.ars.user_service.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR de um estágio. Desligado (custo de um if) fora de uma gravação que o habilite —
+ * o {@link JfrRecordingEndpoint} habilita sempre. {@code elapsed} existe porque a espera na fila
+ * é medida depois do fato e não tem begin()/end().
+ */
+@Name("br.ars.user_service.Stage")
+@Label("Estágio da requisição")
+@Description("Tempo gasto em um estágio (rate limit, parse, banco, hash, fila, DNS, CDN)")
+@Category({ "User Service", "Requisições" })
+@StackTrace(false)
+class StageEvent extends Event {
+
+    @Label("Estágio")
+    String stage;
+
+    @Label("Rota")
+    String route;
+
+    @Label("Duração do estágio")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -0,0 +1,121 @@
+package br.ars.user_service.timing;
+
+import java.util.Locale;
+
+/**
+ * Tempo por estágio da requisição/comando corrente, por thread (mesmo modelo do RequestDeadline).
+ * Aberto pelo StageTimingFilter nas requisições HTTP e pelos workers de registro; lido no fim para o
+ * header Server-Timing e para o log de requisição lenta.
+ * <p>
+ * Cada estágio também vira um {@link StageEvent} no JFR, mesmo em threads sem contexto (ioPool do avatar,
+ * rehash em background). Sem contexto e sem gravação JFR ativa, {@link #start} devolve um span vazio.
+ */
+public final class StageTimer {
+
+    private static final ThreadLocal<StageTimer> CURRENT = new ThreadLocal<>();
+    private static final Stage[] STAGES = Stage.values();
+
+    private final String route;
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[STAGES.length];
+    private Span pending;
+
+    private StageTimer(String route) {
+        this.route = route;
+    }
+
+    public static StageTimer begin(String route) {
+        StageTimer t = new StageTimer(route);
+        CURRENT.set(t);
+        return t;
+    }
+
+    /** Contexto da thread corrente, ou null. */
+    public static StageTimer current() { return CURRENT.get(); }
+
+    public static void clear() { CURRENT.remove(); }
+
+    /** Abre um estágio; use em try-with-resources. Chamadas repetidas do mesmo estágio somam. */
+    public static Span start(Stage stage) {
+        StageTimer t = CURRENT.get();
+        StageEvent event = new StageEvent();
+        if (t == null && !event.isEnabled()) return Span.NOOP;
+        event.begin();
+        return new Span(stage, t, event, System.nanoTime());
+    }
+
+    /** Estágio medido por fora (ex.: espera na fila, do enqueue ao take). */
+    public static void record(Stage stage, long elapsedNanos) {
+        if (elapsedNanos < 0) return;
+        StageTimer t = CURRENT.get();
+        if (t != null) t.nanos[stage.ordinal()] += elapsedNanos;
+        StageEvent event = new StageEvent();
+        if (event.shouldCommit()) commit(event, stage, t, elapsedNanos);
+    }
+
+    /** Estágio aberto num callback e fechado em outro (leitura do corpo pelo RequestBodyAdvice). */
+    public void openPending(Stage stage) {
+        closePending();
+        pending = start(stage);
+    }
+
+    public void closePending() {
+        Span s = pending;
+        pending = null;
+        if (s != null) s.close();
+    }
+
+    public long elapsedNanos() { return System.nanoTime() - startNanos; }
+
+    public String route() { return route; }
+
+    /** Formato do Server-Timing: {@code db;dur=3.2, hash;dur=251.0, total;dur=260.4} — só estágios que ocorreram. */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder(96);
+        for (Stage s : STAGES) {
+            long n = nanos[s.ordinal()];
+            if (n == 0L) continue;
+            appendMetric(sb, s.token(), n);
+        }
+        appendMetric(sb, "total", elapsedNanos());
+        return sb.toString();
+    }
+
+    private static void appendMetric(StringBuilder sb, String token, long n) {
+        if (sb.length() > 0) sb.append(", ");
+        sb.append(token).append(";dur=").append(String.format(Locale.ROOT, "%.1f", n / 1_000_000.0));
+    }
+
+    private static void commit(StageEvent event, Stage stage, StageTimer t, long elapsedNanos) {
+        event.stage = stage.token();
+        event.route = t != null ? t.route : Thread.currentThread().getName();
+        event.elapsed = elapsedNanos;
+        event.commit();
+    }
+
+    public static final class Span implements AutoCloseable {
+
+        static final Span NOOP = new Span(null, null, null, 0L);
+
+        private final Stage stage;
+        private final StageTimer timer;
+        private final StageEvent event;
+        private final long t0;
+
+        private Span(Stage stage, StageTimer timer, StageEvent event, long t0) {
+            this.stage = stage;
+            this.timer = timer;
+            this.event = event;
+            this.t0 = t0;
+        }
+
+        @Override
+        public void close() {
+            if (stage == null) return;
+            long elapsed = System.nanoTime() - t0;
+            if (timer != null) timer.nanos[stage.ordinal()] += elapsed;
+            event.end();
+            if (event.shouldCommit()) commit(event, stage, timer, elapsed);
+        }
+    }
+}
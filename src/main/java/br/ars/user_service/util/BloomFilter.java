@@ -0,0 +1,100 @@
+package br.ars.user_service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter "blocked": todos os bits de uma chave caem no mesmo bloco de 512 bits
+ * (uma linha de cache), então a consulta negativa — o caso comum — é um único acesso à memória.
+ * Thread-safe (bits em AtomicLongArray); não suporta remoção.
+ */
+public class BloomFilter {
+
+    private static final int WORDS_PER_BLOCK = 8;          // 8 × 64 = 512 bits
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * 64;
+
+    private final AtomicLongArray words;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * @param expectedInsertions capacidade planejada (acima disso a taxa de falso positivo sobe)
+     * @param bitsPerKey         ~10 bits/chave ≈ 1% de falso positivo
+     */
+    public BloomFilter(int expectedInsertions, int bitsPerKey) {
+        long bits = Math.max(BITS_PER_BLOCK, (long) Math.max(1, expectedInsertions) * bitsPerKey);
+        this.blocks = (int) Math.min(Integer.MAX_VALUE / WORDS_PER_BLOCK, (bits + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK);
+        this.words = new AtomicLongArray(blocks * WORDS_PER_BLOCK);
+        this.hashes = Math.max(1, Math.min(16, (int) Math.round(bitsPerKey * Math.log(2))));
+    }
+
+    public BloomFilter(int expectedInsertions) {
+        this(expectedInsertions, 10);
+    }
+
+    /** Reconstrói a partir dos words serializados (ver {@link #toWords()}). */
+    public BloomFilter(long[] words, int hashes) {
+        if (words.length == 0 || words.length % WORDS_PER_BLOCK != 0) {
+            throw new IllegalArgumentException("tamanho inválido: " + words.length);
+        }
+        this.words = new AtomicLongArray(words);
+        this.blocks = words.length / WORDS_PER_BLOCK;
+        this.hashes = hashes;
+    }
+
+    public void put(String key) {
+        long h = hash64(key);
+        int base = blockOf(h) * WORDS_PER_BLOCK;
+        int h2 = (int) h;
+        for (int i = 0; i < hashes; i++) {
+            int bit = ((h2 + i * (h2 >>> 16 | 1)) & (BITS_PER_BLOCK - 1));
+            int idx = base + (bit >>> 6);
+            long mask = 1L << (bit & 63);
+            long cur = words.get(idx);
+            while ((cur & mask) == 0 && !words.compareAndSet(idx, cur, cur | mask)) {
+                cur = words.get(idx);
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long h = hash64(key);
+        int base = blockOf(h) * WORDS_PER_BLOCK;
+        int h2 = (int) h;
+        for (int i = 0; i < hashes; i++) {
+            int bit = ((h2 + i * (h2 >>> 16 | 1)) & (BITS_PER_BLOCK - 1));
+            if ((words.get(base + (bit >>> 6)) & (1L << (bit & 63))) == 0) return false;
+        }
+        return true;
+    }
+
+    public int hashes() { return hashes; }
+
+    public long sizeInBytes() { return (long) words.length() * Long.BYTES; }
+
+    public long[] toWords() {
+        long[] out = new long[words.length()];
+        for (int i = 0; i < out.length; i++) out[i] = words.get(i);
+        return out;
+    }
+
+    private int blockOf(long h) {
+        return (int) Long.remainderUnsigned(h >>> 32, blocks);
+    }
+
+    /** FNV-1a 64 + finalizador do murmur3 (boa dispersão, sem dependências). */
+    static long hash64(String key) {
+        byte[] b = key.getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte x : b) {
+            h ^= x;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
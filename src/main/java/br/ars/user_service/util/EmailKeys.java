@@ -0,0 +1,22 @@
+package br.ars.user_service.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Normalização canônica de e-mail usada como chave de busca (coluna EmailKey).
+ * Todo caminho que procura usuário por e-mail deve passar por aqui, senão
+ * "User@Gmail.com" e "user@gmail.com" viram chaves diferentes.
+ */
+public final class EmailKeys {
+
+    private EmailKeys() {}
+
+    /** trim + NFKC + lower-case independente de locale. Retorna null para entrada nula/vazia. */
+    public static String normalize(String email) {
+        if (email == null) return null;
+        String e = email.trim();
+        if (e.isEmpty()) return null;
+        return Normalizer.normalize(e, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+}
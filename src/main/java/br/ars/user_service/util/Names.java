@@ -0,0 +1,38 @@
+package br.ars.user_service.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de nomes de usuário: sem acentos e em minúsculas, para que "João", "joao"
+ * e "JOÃO" caiam na mesma chave — no nome do arquivo do avatar e no índice de sugestões.
+ */
+public final class Names {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_SLUG = Pattern.compile("[^A-Za-z0-9_-]+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private Names() {}
+
+    public static String stripAccents(String s) {
+        return MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /** Trecho seguro para chave/URL ("José da Silva" → "jose_da_silva"); vazio vira {@code def}. */
+    public static String slug(String s, String def) {
+        if (s == null) return def;
+        String out = NON_SLUG.matcher(stripAccents(s)).replaceAll("_")
+                .replaceAll("_+", "_")
+                .replaceAll("^_+|_+$", "")
+                .toLowerCase(Locale.ROOT);
+        return out.isBlank() ? def : out;
+    }
+
+    /** Chave de busca: sem acento, minúscula, palavras separadas por um espaço ("  Zé-Maria " → "ze maria"). */
+    public static String searchKey(String s) {
+        if (s == null) return "";
+        return NON_ALNUM.matcher(stripAccents(s).toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,48 @@
+package br.ars.user_service.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUID versão 7 (RFC 9562): 48 bits de timestamp Unix em ms, depois aleatório.
+ * Ids gerados em sequência são crescentes, então o insert cai sempre no fim do índice da PK
+ * (e de user_tags.user_id) em vez de numa página aleatória.
+ * <p>
+ * Dentro do mesmo milissegundo os 12 bits de rand_a viram contador (método 1 da RFC): a ordem
+ * é monotônica mesmo sob rajada; se o contador estoura, o timestamp avança 1 ms.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static long lastMs;
+    private static int counter;
+
+    private UuidV7() {}
+
+    public static UUID next() {
+        long ms;
+        int seq;
+        synchronized (UuidV7.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMs) {
+                lastMs = now;
+                counter = RANDOM.nextInt(1 << 11);   // começa na metade de baixo: sobra espaço para a rajada
+            } else if (++counter > 0xFFF) {
+                lastMs++;                              // relógio parado/voltou ou >2k ids no mesmo ms
+                counter = 0;
+            }
+            ms = lastMs;
+            seq = counter;
+        }
+        long msb = (ms << 16) | 0x7000L | seq;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /** Instante (ms) embutido num UUIDv7. */
+    public static long timestampMillis(UUID id) {
+        if (id.version() != 7) throw new IllegalArgumentException("UUID não é v7: " + id);
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
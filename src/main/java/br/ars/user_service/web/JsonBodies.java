@@ -0,0 +1,84 @@
+package br.ars.user_service.web;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Corpos de status/erro serializados uma vez, na carga da classe. Os constantes viram byte[] prontos;
+ * os que só variam em expectedWaitMs guardam o prefixo serializado e concatenam o número.
+ * Nada de Map.of + Jackson por requisição nos caminhos de rejeição, que são justamente os do pico.
+ */
+public final class JsonBodies {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final byte[] LOGIN_MISSING_FIELDS = of("bad_request", "Informe email e password.");
+    public static final byte[] LOGOUT_MISSING_TOKEN = of("unauthorized", "Informe o token (Authorization: Bearer ...).");
+    public static final byte[] LOGOUT_INVALID_TOKEN = of("unauthorized", "Token inválido.");
+    public static final byte[] TOKEN_INVALID = of("unauthorized", "Token inválido, expirado ou revogado.");
+    public static final byte[] USER_NOT_FOUND = of("not_found", "Usuário não encontrado");
+    public static final byte[] TAG_INDEX_LOADING = of("index_loading", "Índice de tags ainda carregando.");
+    public static final byte[] SUGGEST_INDEX_LOADING = of("index_loading", "Índice de nomes ainda carregando.");
+    public static final byte[] EXISTS_TRUE = "{\"exists\":true}".getBytes(StandardCharsets.US_ASCII);
+    public static final byte[] EXISTS_FALSE = "{\"exists\":false}".getBytes(StandardCharsets.US_ASCII);
+    public static final byte[] PURGE_JOB_NOT_FOUND = of("not_found", "Job inexistente nesta instância (ou já expirado).");
+
+    public static final WithWait QUEUE_FULL = new WithWait("queue_full", "Sistema em pico. Tente novamente em instantes.");
+    public static final WithWait CLIENT_QUEUE_FULL = new WithWait("client_queue_full",
+            "Muitos registros pendentes para este cliente. Aguarde a conclusão dos anteriores.");
+
+    private JsonBodies() {}
+
+    /** {"status":...,"message":...} */
+    public static byte[] of(String status, String message) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("status", status);
+        m.put("message", message);
+        try {
+            return MAPPER.writeValueAsBytes(m);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static ResponseEntity<byte[]> respond(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    public static ResponseEntity<byte[]> respond(HttpStatus status, String retryAfter, byte[] body) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /** {"status":...,"message":...,"expectedWaitMs":N}: prefixo pronto, só o número é escrito por resposta. */
+    public static final class WithWait {
+        private final byte[] prefix;
+
+        WithWait(String status, String message) {
+            byte[] base = of(status, message);
+            byte[] tail = ",\"expectedWaitMs\":".getBytes(StandardCharsets.US_ASCII);
+            // troca o '}' final por ,"expectedWaitMs":
+            this.prefix = Arrays.copyOf(base, base.length - 1 + tail.length);
+            System.arraycopy(tail, 0, prefix, base.length - 1, tail.length);
+        }
+
+        public byte[] render(long expectedWaitMs) {
+            byte[] n = Long.toString(expectedWaitMs).getBytes(StandardCharsets.US_ASCII);
+            byte[] out = Arrays.copyOf(prefix, prefix.length + n.length + 1);
+            System.arraycopy(n, 0, out, prefix.length, n.length);
+            out[out.length - 1] = '}';
+            return out;
+        }
+    }
+}
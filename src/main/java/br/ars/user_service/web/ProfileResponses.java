@@ -0,0 +1,119 @@
+package br.ars.user_service.web;
+
+import java.util.function.Function;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import br.ars.user_service.cache.ProfileBytesCache;
+import br.ars.user_service.cache.UserVersionIndex;
+import br.ars.user_service.dto.UserView;
+
+/**
+ * Respostas das leituras de perfil com ETag forte ("kind-id-versão", mais o sufixo do formato binário):
+ * 304 direto do índice de versões quando possível, senão bytes pré-serializados (gzip se aceito)
+ * em JSON, ou CBOR/Smile quando o Accept pede (ver {@link WireFormat}).
+ */
+@Component
+@RequiredArgsConstructor
+public class ProfileResponses {
+
+    private static final String GZIP_SUFFIX = "-gz";
+
+    private final ProfileBytesCache bytes;
+    private final UserVersionIndex versions;
+
+    /** 304 sem tocar no banco se o If-None-Match bate com a versão conhecida; null caso contrário. */
+    public ResponseEntity<byte[]> notModified(HttpServletRequest req, String kind, UserVersionIndex.Entry known) {
+        String inm = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (inm == null || known == null) return null;
+        String etag = ProfileBytesCache.etag(kind, formatOf(req), known.id(), known.version());
+        return matches(inm, etag) ? notModifiedResponse(req, etag) : null;
+    }
+
+    public ResponseEntity<byte[]> respond(HttpServletRequest req, String kind, UserView view, Function<UserView, ?> toBody) {
+        versions.record(view);
+        WireFormat format = formatOf(req);
+        ProfileBytesCache.Rendered r = bytes.get(kind, format, view, toBody);
+
+        String inm = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (inm != null && matches(inm, r.etag())) return notModifiedResponse(req, r.etag());
+
+        boolean gzip = acceptsGzip(req);
+        ResponseEntity.BodyBuilder b = ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT);
+        if (gzip) {
+            return b.eTag(gzipEtag(r.etag()))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(r.gzip());
+        }
+        return b.eTag(r.etag()).body(r.json());
+    }
+
+    private ResponseEntity<byte[]> notModifiedResponse(HttpServletRequest req, String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(acceptsGzip(req) ? gzipEtag(etag) : etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * Versão esperada a partir do If-Match (ETag de qualquer representação do mesmo usuário, com ou sem -gz).
+     * Sem header ou "*" = null (sem checagem). ETag de outro usuário ou malformado = IllegalArgumentException.
+     */
+    public static Long ifMatchVersion(HttpServletRequest req, java.util.UUID id) {
+        String im = req.getHeader(HttpHeaders.IF_MATCH);
+        if (im == null || im.isBlank() || im.trim().equals("*")) return null;
+        String c = im.split(",")[0].trim();
+        if (c.startsWith("W/")) c = c.substring(2);
+        if (c.length() >= 2 && c.startsWith("\"") && c.endsWith("\"")) c = c.substring(1, c.length() - 1);
+        if (c.endsWith(GZIP_SUFFIX)) c = c.substring(0, c.length() - GZIP_SUFFIX.length());
+        c = WireFormat.stripSuffix(c);
+        // "kind-id-versão": o id também tem hífens, então a versão é o que vem depois do último
+        int dash = c.lastIndexOf('-');
+        int first = c.indexOf('-');
+        if (first < 0 || dash <= first || !c.substring(first + 1, dash).equals(id.toString())) {
+            throw new IllegalArgumentException("If-Match inválido para este usuário.");
+        }
+        try {
+            return Long.parseLong(c.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match inválido para este usuário.");
+        }
+    }
+
+    /** Aceita a variante gzip e a identidade do mesmo ETag; ignora prefixo W/. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        String bare = etag.substring(1, etag.length() - 1);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*")) return true;
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.length() >= 2 && c.startsWith("\"") && c.endsWith("\"")) c = c.substring(1, c.length() - 1);
+            if (c.endsWith(GZIP_SUFFIX)) c = c.substring(0, c.length() - GZIP_SUFFIX.length());
+            if (c.equals(bare)) return true;
+        }
+        return false;
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    private static WireFormat formatOf(HttpServletRequest req) {
+        return WireFormat.negotiate(req.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest req) {
+        String ae = req.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return ae != null && ae.toLowerCase().contains("gzip");
+    }
+}
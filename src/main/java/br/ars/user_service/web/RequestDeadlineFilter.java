@@ -0,0 +1,54 @@
+package br.ars.user_service.web;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import br.ars.user_service.concurrency.RequestDeadline;
+
+/**
+ * Marca o deadline da requisição na chegada: orçamento do cliente (header X-Request-Timeout-Ms,
+ * limitado a app.db.max-timeout-ms) ou app.db.default-timeout-ms.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    @Value("${app.db.default-timeout-ms:2000}")
+    private long defaultTimeoutMs;
+
+    @Value("${app.db.max-timeout-ms:10000}")
+    private long maxTimeoutMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        RequestDeadline.setIn(budgetMs(req.getHeader(TIMEOUT_HEADER)), TimeUnit.MILLISECONDS);
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long budgetMs(String header) {
+        if (header == null || header.isBlank()) return defaultTimeoutMs;
+        try {
+            long v = Long.parseLong(header.trim());
+            return v <= 0 ? defaultTimeoutMs : Math.min(v, maxTimeoutMs);
+        } catch (NumberFormatException e) {
+            return defaultTimeoutMs;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package br.ars.user_service.web;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import br.ars.user_service.timing.Stage;
+import br.ars.user_service.timing.StageTimer;
+
+/**
+ * Leitura de @RequestBody como estágio "parse" (login, patch, purge) e Server-Timing nas respostas com corpo,
+ * escrito aqui porque depois do corpo a resposta já está commitada. O part "data" do /register é lido à
+ * mão no controller e cronometrado lá.
+ */
+@ControllerAdvice
+public class StageTimingAdvice extends RequestBodyAdviceAdapter implements ResponseBodyAdvice<Object> {
+
+    @Value("${app.timing.server-timing.enabled:false}")
+    private boolean serverTiming;
+
+    // ===================== corpo da requisição =====================
+
+    @Override
+    public boolean supports(MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return StageTimer.current() != null;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage input, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        StageTimer t = StageTimer.current();
+        if (t != null) t.openPending(Stage.PARSE);
+        return input;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage input, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        closePending();
+        return body;
+    }
+
+    @Override
+    public Object handleEmptyBody(Object body, HttpInputMessage input, MethodParameter parameter, Type targetType,
+                                  Class<? extends HttpMessageConverter<?>> converterType) {
+        closePending();
+        return body;
+    }
+
+    private static void closePending() {
+        StageTimer t = StageTimer.current();
+        if (t != null) t.closePending();
+    }
+
+    // ===================== corpo da resposta =====================
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return serverTiming;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        StageTimer t = StageTimer.current();
+        if (t != null) response.getHeaders().set(StageTimingFilter.SERVER_TIMING, t.toServerTiming());
+        return body;
+    }
+}
@@ -0,0 +1,63 @@
+package br.ars.user_service.web;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import br.ars.user_service.timing.StageTimer;
+
+/**
+ * Abre o {@link StageTimer} da requisição. No fim: Server-Timing (se habilitado) nas respostas sem corpo
+ * ou recusadas antes do controller — as com corpo recebem o header no {@link StageTimingAdvice}, antes do
+ * commit — e log dos estágios quando a requisição passa de app.timing.slow-ms.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StageTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    @Value("${app.timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.timing.server-timing.enabled:false}")
+    private boolean serverTiming;
+
+    @Value("${app.timing.slow-ms:1000}")
+    private long slowMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        StageTimer timer = StageTimer.begin(req.getMethod() + " " + req.getRequestURI());
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            StageTimer.clear();
+            timer.closePending();
+            if (serverTiming && !res.isCommitted() && !res.containsHeader(SERVER_TIMING)) {
+                res.setHeader(SERVER_TIMING, timer.toServerTiming());
+            }
+            long ms = timer.elapsedNanos() / 1_000_000L;
+            if (slowMs > 0 && ms >= slowMs && !req.isAsyncStarted()) {
+                log.warn("[Timing] Requisição lenta | rota={} | status={} | ms={} | estagios={}",
+                        timer.route(), res.getStatus(), ms, timer.toServerTiming());
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package br.ars.user_service.web;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos de resposta dos DTOs de leitura. JSON é o padrão (clientes públicos, navegador, {@code *}/{@code *});
+ * CBOR e Smile só quando pedidos explicitamente no Accept — chamadas internas entre serviços.
+ * Cada formato tem ETag próprio (sufixo), já que os bytes diferem.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.parseMediaType("application/cbor"), "-cbor"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "-smile");
+
+    public static final String CBOR_VALUE = "application/cbor";
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    WireFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType mediaType() { return mediaType; }
+
+    public String etagSuffix() { return etagSuffix; }
+
+    /** Primeiro formato nosso na ordem de qualidade do Accept; sem Accept, inválido ou sem binário pedido = JSON. */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank() || accept.indexOf("cbor") < 0 && accept.indexOf("smile") < 0) return JSON;
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()); // estável: empate mantém a ordem
+        for (MediaType t : types) {
+            if (t.getQualityValue() <= 0) continue;
+            if (t.isWildcardType() || t.isWildcardSubtype() || JSON.mediaType.isCompatibleWith(t)) return JSON;
+            if (CBOR.mediaType.isCompatibleWith(t)) return CBOR;
+            if (SMILE.mediaType.isCompatibleWith(t)) return SMILE;
+        }
+        return JSON;
+    }
+
+    /** Tira o sufixo de formato de um ETag sem aspas (If-Match aceita a versão de qualquer representação). */
+    static String stripSuffix(String bareEtag) {
+        for (WireFormat f : values()) {
+            if (!f.etagSuffix.isEmpty() && bareEtag.endsWith(f.etagSuffix)) {
+                return bareEtag.substring(0, bareEtag.length() - f.etagSuffix.length());
+            }
+        }
+        return bareEtag;
+    }
+}
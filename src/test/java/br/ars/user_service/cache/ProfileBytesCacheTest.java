@@ -0,0 +1,64 @@
+package br.ars.user_service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.web.WireFormat;
+
+class ProfileBytesCacheTest {
+
+    private final ProfileBytesCache cache = new ProfileBytesCache(new ObjectMapper(), new SimpleMeterRegistry(), 100);
+
+    @Test
+    void restoredEntryServesJsonAndGzipFromTheMappedBuffer() throws IOException {
+        UUID id = UUID.randomUUID();
+        byte[] json = "{\"nome\":\"Ana\"}".getBytes(StandardCharsets.UTF_8);
+        cache.restore(ProfileBytesCache.KIND_USER, id, 3, ByteBuffer.wrap(json).asReadOnlyBuffer());
+
+        ProfileBytesCache.Rendered r = cache.get(ProfileBytesCache.KIND_USER, WireFormat.JSON, view(id, 3),
+                v -> { throw new AssertionError("não deveria serializar"); });
+
+        assertArrayEquals(json, gunzip(r.gzip()));
+        assertArrayEquals(json, r.json());
+    }
+
+    @Test
+    void newVersionIsRenderedAgainAndOldOneEvicted() {
+        UUID id = UUID.randomUUID();
+        ProfileBytesCache.Rendered v1 = cache.get(ProfileBytesCache.KIND_USER, WireFormat.JSON, view(id, 1), v -> Map.of("v", 1));
+        assertSame(v1, cache.get(ProfileBytesCache.KIND_USER, WireFormat.JSON, view(id, 1), v -> Map.of("v", 1)));
+
+        ProfileBytesCache.Rendered v2 = cache.get(ProfileBytesCache.KIND_USER, WireFormat.JSON, view(id, 2), v -> Map.of("v", 2));
+
+        assertEquals("{\"v\":2}", new String(v2.json(), StandardCharsets.UTF_8));
+        assertEquals(ProfileBytesCache.etag(ProfileBytesCache.KIND_USER, WireFormat.JSON, id, 2), v2.etag());
+        AtomicReference<Long> seen = new AtomicReference<>();
+        cache.forEach((kind, uid, rendered) -> seen.set(rendered.version()));
+        assertEquals(2L, seen.get());
+    }
+
+    private static byte[] gunzip(byte[] gz) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static UserView view(UUID id, long version) {
+        return new UserView(id, "Ana", "ana@x.com", "ana@x.com", null, null, null, null, null, null, version);
+    }
+}
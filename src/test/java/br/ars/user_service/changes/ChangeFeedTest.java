@@ -0,0 +1,94 @@
+package br.ars.user_service.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.ars.user_service.models.UserChangeEvent;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.repository.UserChangeEventRepository;
+
+class ChangeFeedTest {
+
+    private final UserChangeEventRepository repo = mock(UserChangeEventRepository.class);
+    private final DbRequestQueueService db = mock(DbRequestQueueService.class);
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        when(db.readPrimary(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        when(db.write(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        feed = new ChangeFeed(repo, db, new SimpleMeterRegistry(), 16, 1);
+        ReflectionTestUtils.setField(feed, "pollBatch", 100);
+        ReflectionTestUtils.setField(feed, "gapRecheckMs", 60_000L);
+        ReflectionTestUtils.setField(feed, "gapMaxIds", 100);
+        feed.initHead(0);
+    }
+
+    @Test
+    void gapHoldsPublicationUntilTimeout() {
+        ReflectionTestUtils.setField(feed, "gapTimeoutMs", 60_000L);
+        when(repo.findAfter(anyLong(), any())).thenReturn(List.of(event(1), event(3)));
+
+        feed.pollOnce();
+
+        assertEquals(List.of(1L), offsets());
+        assertEquals(0, feed.skippedCount());
+    }
+
+    @Test
+    void skippedIdThatCommitsLateIsRepublishedWithNewId() {
+        when(repo.findAfter(anyLong(), any())).thenReturn(List.of(event(1), event(3)), List.of());
+        feed.pollOnce();
+        assertEquals(List.of(1L, 3L), offsets());
+        assertEquals(1, feed.skippedCount());
+
+        UserChangeEvent late = event(2);
+        when(repo.findAllById(List.of(2L))).thenReturn(List.of(late));
+        when(repo.deleteOne(2L)).thenReturn(1);
+        feed.pollOnce();
+
+        ArgumentCaptor<UserChangeEvent> copy = ArgumentCaptor.forClass(UserChangeEvent.class);
+        verify(repo).save(copy.capture());
+        assertEquals(late.getUserId(), copy.getValue().getUserId());
+        assertEquals(late.getVersion(), copy.getValue().getVersion());
+        assertEquals(0, feed.skippedCount());
+    }
+
+    @Test
+    void lateEventAlreadyMovedByAnotherInstanceIsNotCopiedTwice() {
+        when(repo.findAfter(anyLong(), any())).thenReturn(List.of(event(1), event(3)), List.of());
+        feed.pollOnce();
+
+        when(repo.findAllById(List.of(2L))).thenReturn(List.of(event(2)));
+        when(repo.deleteOne(2L)).thenReturn(0);
+        feed.pollOnce();
+
+        verify(repo, never()).save(any());
+        assertEquals(0, feed.skippedCount());
+    }
+
+    private List<Long> offsets() {
+        return feed.read(0, 100).items().stream().map(ChangeFeed.Item::offset).toList();
+    }
+
+    private static UserChangeEvent event(long id) {
+        UserChangeEvent e = new UserChangeEvent(UUID.randomUUID(), UserChangeLog.UPDATED, id, "{}");
+        ReflectionTestUtils.setField(e, "id", id);
+        return e;
+    }
+}
@@ -0,0 +1,77 @@
+package br.ars.user_service.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void initialLimitIsClamped() {
+        assertEquals(10, new AdaptiveLimiter("t", 50, 1, 10).limit());
+        assertEquals(3, new AdaptiveLimiter("t", 0, 3, 10).limit());
+    }
+
+    @Test
+    void permitsStopAtTheLimit() throws InterruptedException {
+        AdaptiveLimiter l = new AdaptiveLimiter("t", 2, 1, 2);
+        assertTrue(l.tryAcquire());
+        assertTrue(l.tryAcquire());
+        assertFalse(l.tryAcquire());
+        assertFalse(l.tryAcquire(5, TimeUnit.MILLISECONDS));
+
+        l.release();
+        assertEquals(1, l.inFlight());
+        assertTrue(l.tryAcquire());
+    }
+
+    @Test
+    void growsWhileFullyUsedWithGoodLatency() {
+        AdaptiveLimiter l = new AdaptiveLimiter("t", 4, 1, 10);
+        for (int round = 0; round < 200; round++) {
+            int n = l.limit();
+            for (int i = 0; i < n; i++) assertTrue(l.tryAcquire());
+            for (int i = 0; i < n; i++) l.release(MS, false);
+        }
+        assertEquals(10, l.limit());
+    }
+
+    @Test
+    void dropShrinksOncePerRtt() {
+        AdaptiveLimiter l = new AdaptiveLimiter("t", 10, 1, 10);
+        l.tryAcquire();
+        l.release(1, true);
+        assertEquals(9, l.limit());
+
+        // rajada de descartes dentro da mesma janela não derruba o limite de novo
+        l.tryAcquire();
+        l.release(TimeUnit.HOURS.toNanos(1), true);
+        assertEquals(9, l.limit());
+    }
+
+    @Test
+    void slowSampleIsCongestion() {
+        AdaptiveLimiter l = new AdaptiveLimiter("t", 10, 1, 10);
+        l.tryAcquire();
+        l.release(MS, false);
+        assertEquals(10, l.limit());
+
+        l.tryAcquire();
+        l.release(10 * MS, false);
+        assertEquals(9, l.limit());
+    }
+
+    @Test
+    void neverBelowMinimum() {
+        AdaptiveLimiter l = new AdaptiveLimiter("t", 2, 2, 10);
+        l.tryAcquire();
+        l.release(1, true);
+        assertEquals(2, l.limit());
+    }
+}
@@ -0,0 +1,101 @@
+package br.ars.user_service.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Object> flight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Object value = new Object();
+
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return value;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            loads.incrementAndGet();
+            return new Object();
+        }));
+        waitFor(() -> flight.followers() == 1);
+        release.countDown();
+
+        assertSame(value, leader.get(5, TimeUnit.SECONDS));
+        assertSame(value, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(0.5, flight.coalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void failureReachesFollowersAndIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            loading.countDown();
+            await(release);
+            throw new IllegalStateException("db");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Throwable> follower = CompletableFuture.supplyAsync(() ->
+                assertThrows(IllegalStateException.class, () -> flight.execute("k", Object::new)));
+        waitFor(() -> flight.followers() == 1);
+        release.countDown();
+
+        assertEquals("db", follower.get(5, TimeUnit.SECONDS).getMessage());
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", flight.execute("k", () -> "ok"));
+    }
+
+    @Test
+    void forgetStartsANewFlightForLaterCallers() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> stale = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            loading.countDown();
+            await(release);
+            return "old";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        flight.forget("k");
+
+        assertEquals("new", flight.execute("k", () -> "new"));
+        release.countDown();
+        assertEquals("old", stale.get(5, TimeUnit.SECONDS));
+        assertEquals(2, flight.leaders());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > until) throw new AssertionError("condição não atingida");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package br.ars.user_service.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import br.ars.user_service.datasource.DataSourceRoute;
+import br.ars.user_service.queue.DbRequestQueueService.Priority;
+
+class DbRequestQueueServiceTest {
+
+    private static final long FAR = TimeUnit.SECONDS.toNanos(30);
+
+    private DbRequestQueueService db;
+
+    @AfterEach
+    void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    void readsPassWritesUntilTheWriteHasWaitedLongerThanTheAging() throws Exception {
+        db = start(2_000, 100);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        CountDownLatch gate = block();
+        CompletableFuture<?> w1 = db.submit(Priority.WRITE, deadline(), () -> order.add("w1"));
+        CompletableFuture<?> r1 = db.submit(Priority.READ, deadline(), () -> order.add("r1"));
+        gate.countDown();
+        CompletableFuture.allOf(w1, r1).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("r1", "w1"), order);
+
+        order.clear();
+        gate = block();
+        CompletableFuture<?> w2 = db.submit(Priority.WRITE, deadline(), () -> order.add("w2"));
+        Thread.sleep(200);
+        CompletableFuture<?> r2 = db.submit(Priority.READ, deadline(), () -> order.add("r2"));
+        gate.countDown();
+        CompletableFuture.allOf(w2, r2).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("w2", "r2"), order);
+    }
+
+    @Test
+    void queuedTaskPastDeadlineIsDroppedWithoutRunning() throws Exception {
+        db = start(50, 100);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CountDownLatch gate = block();
+        assertThrows(DeadlineExceededException.class, () -> db.write(() -> ran.getAndSet(true)));
+        gate.countDown();
+
+        db.submit(Priority.READ, deadline(), () -> null).get(5, TimeUnit.SECONDS);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void writeAlreadyRunningPastDeadlineReturnsItsResult() {
+        db = start(50, 100);
+
+        String result = db.write(() -> {
+            sleep(200);
+            return "commit";
+        });
+
+        assertEquals("commit", result);
+    }
+
+    @Test
+    void readAlreadyRunningPastDeadlineIsAbandoned() {
+        db = start(50, 100);
+
+        assertThrows(DeadlineExceededException.class, () -> db.read(() -> {
+            sleep(200);
+            return "late";
+        }));
+    }
+
+    @Test
+    void readPrimaryForcesThePrimaryRoute() {
+        db = start(2_000, 100);
+
+        assertTrue(db.readPrimary(DataSourceRoute::isPrimaryForced));
+        assertFalse(db.read(DataSourceRoute::isPrimaryForced));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replicaUrlWithoutRoutingBeanFailsTheBoot() {
+        // contexto AOT gerado sem réplica, runtime com DB_REPLICA_URL
+        assertThrows(IllegalStateException.class, () -> new DbRequestQueueService(new SimpleMeterRegistry(),
+                mock(PlatformTransactionManager.class), 1, 1, 100, 2_000, 100, mock(ObjectProvider.class)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DbRequestQueueService start(long timeoutMs, long agingMs) {
+        DbRequestQueueService db = new DbRequestQueueService(new SimpleMeterRegistry(),
+                mock(PlatformTransactionManager.class), 1, 0, 100, timeoutMs, agingMs,
+                mock(ObjectProvider.class));
+        db.startWorkers();
+        return db;
+    }
+
+    /** Ocupa o único worker até o latch abrir. */
+    private CountDownLatch block() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        db.submit(Priority.WRITE, deadline(), () -> {
+            running.countDown();
+            try {
+                return gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        return gate;
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + FAR;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
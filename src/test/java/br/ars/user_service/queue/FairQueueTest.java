@@ -0,0 +1,66 @@
+package br.ars.user_service.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class FairQueueTest {
+
+    @Test
+    void weightedRoundRobinAcrossLanes() throws InterruptedException {
+        FairQueue<String> q = new FairQueue<>(100, 10);
+        q.offer("a", 2, "a1");
+        q.offer("a", 2, "a2");
+        q.offer("a", 2, "a3");
+        q.offer("b", 1, "b1");
+        q.offer("c", 1, "c1");
+
+        assertEquals(List.of("a1", "a2", "b1", "c1", "a3"), takeAll(q));
+        assertEquals(0, q.size());
+        assertEquals(0, q.laneCount());
+    }
+
+    @Test
+    void noisyClientOnlyFillsItsOwnLane() {
+        FairQueue<String> q = new FairQueue<>(100, 2);
+        assertEquals(FairQueue.Offer.OK, q.offer("ip:1", 1, "x"));
+        assertEquals(FairQueue.Offer.OK, q.offer("ip:1", 1, "x"));
+        assertEquals(FairQueue.Offer.LANE_FULL, q.offer("ip:1", 1, "x"));
+        assertEquals(FairQueue.Offer.OK, q.offer("ip:2", 1, "y"));
+
+        assertEquals(2, q.laneDepth("ip:1"));
+        assertEquals(1, q.rejectedLaneFull());
+    }
+
+    @Test
+    void globalCapacityRejectsAndReleasesTheLaneSlot() throws InterruptedException {
+        FairQueue<String> q = new FairQueue<>(2, 2);
+        q.offer("a", 1, "a1");
+        q.offer("b", 1, "b1");
+        assertEquals(FairQueue.Offer.QUEUE_FULL, q.offer("c", 1, "c1"));
+        assertEquals(0, q.laneDepth("c"));
+        assertEquals(1, q.rejectedQueueFull());
+
+        q.take();
+        assertEquals(FairQueue.Offer.OK, q.offer("c", 1, "c1"));
+    }
+
+    @Test
+    void pollTimesOutOnEmptyQueue() throws InterruptedException {
+        for (WaitStrategy s : WaitStrategy.values()) {
+            FairQueue<String> q = new FairQueue<>(10, 10, s, 8);
+            assertNull(q.poll(5, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static List<String> takeAll(FairQueue<String> q) throws InterruptedException {
+        List<String> out = new ArrayList<>();
+        for (String s; (s = q.poll(10, TimeUnit.MILLISECONDS)) != null; ) out.add(s);
+        return out;
+    }
+}
@@ -0,0 +1,72 @@
+package br.ars.user_service.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class IntakeRingTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new IntakeRing<String>(5).slots());
+        assertEquals(8, new IntakeRing<String>(8).slots());
+        assertEquals(16, new IntakeRing<String>(9).slots());
+    }
+
+    @Test
+    void drainsInPublishOrderAndWrapsAround() {
+        IntakeRing<Integer> ring = new IntakeRing<>(4);
+        List<Integer> out = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) ring.publish("k", 1, round * 4 + i);
+            assertEquals(2, ring.drain((k, w, item) -> out.add(item), 2));
+            assertEquals(2, ring.drain((k, w, item) -> out.add(item), 10));
+            assertFalse(ring.hasPublished());
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) expected.add(i);
+        assertEquals(expected, out);
+    }
+
+    @Test
+    void keepsKeyAndWeightWithTheItem() {
+        IntakeRing<String> ring = new IntakeRing<>(4);
+        ring.publish("key:a", 3, "x");
+        assertTrue(ring.hasPublished());
+        List<String> out = new ArrayList<>();
+        ring.drain((k, w, item) -> out.add(k + "/" + w + "/" + item), 10);
+        assertEquals(List.of("key:a/3/x"), out);
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10_000;
+        IntakeRing<Integer> ring = new IntakeRing<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        // a FairQueue garante admitidos ≤ slots; aqui o consumidor drena em paralelo
+        for (int p = 0; p < producers; p++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perProducer; i++) ring.publish("k", 1, 1);
+                done.countDown();
+            });
+        }
+        long[] sum = new long[1];
+        while (done.getCount() > 0 || ring.hasPublished()) {
+            ring.drain((k, w, item) -> sum[0] += item, 256);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals((long) producers * perProducer, sum[0]);
+    }
+}
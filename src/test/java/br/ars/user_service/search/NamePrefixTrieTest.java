@@ -0,0 +1,61 @@
+package br.ars.user_service.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class NamePrefixTrieTest {
+
+    // rank = o próprio ordinal: maior = mais recente
+    private final NamePrefixTrie trie = new NamePrefixTrie(3, v -> v);
+
+    @Test
+    void prefixReturnsMostRecentFirst() {
+        trie.insert("ana", 1);
+        trie.insert("anabela", 2);
+        trie.insert("andre", 3);
+        trie.insert("bruno", 4);
+
+        assertArrayEquals(new int[] { 3, 2, 1 }, trie.top("an", 10));
+        assertArrayEquals(new int[] { 2, 1 }, trie.top("ana", 10));
+        assertArrayEquals(new int[] { 4, 3, 2 }, trie.top("", 10));
+        assertArrayEquals(new int[] { 3 }, trie.top("an", 1));
+    }
+
+    @Test
+    void prefixEndingMidEdge() {
+        trie.insert("anabela", 7);
+        assertArrayEquals(new int[] { 7 }, trie.top("anab", 10));
+        assertArrayEquals(new int[0], trie.top("anax", 10));
+        assertArrayEquals(new int[0], trie.top("anabelas", 10));
+    }
+
+    @Test
+    void sameValueUnderTwoKeysCountsOnce() {
+        trie.insert("ana", 1);
+        trie.insert("silva", 1);
+        assertArrayEquals(new int[] { 1 }, trie.top("", 10));
+    }
+
+    @Test
+    void removeRefillsTopKAndPrunesNodes() {
+        for (int v = 1; v <= 5; v++) trie.insert("nome" + v, v);
+        assertArrayEquals(new int[] { 5, 4, 3 }, trie.top("nome", 10));
+
+        trie.remove("nome5", 5);
+        assertArrayEquals(new int[] { 4, 3, 2 }, trie.top("nome", 10));
+
+        for (int v = 1; v <= 4; v++) trie.remove("nome" + v, v);
+        assertArrayEquals(new int[0], trie.top("", 10));
+        assertEquals(1, trie.nodeCount());
+    }
+
+    @Test
+    void removeOfUnknownKeyIsIgnored() {
+        trie.insert("ana", 1);
+        trie.remove("anabela", 1);
+        trie.remove("ana", 2);
+        assertArrayEquals(new int[] { 1 }, trie.top("ana", 10));
+    }
+}
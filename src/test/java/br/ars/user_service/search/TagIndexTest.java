@@ -0,0 +1,91 @@
+package br.ars.user_service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class TagIndexTest {
+
+    private TagIndex index;
+    private final UUID ana = UUID.randomUUID();
+    private final UUID bia = UUID.randomUUID();
+    private final UUID caio = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        index = new TagIndex(mock(DataSource.class), mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        index.put(ana, List.of("java", "spring"));
+        index.put(bia, List.of("Java", "quarkus", "java"));
+        index.put(caio, List.of("go"));
+    }
+
+    @Test
+    void andOrNot() {
+        assertEquals(List.of(ana, bia), ids("java"));
+        assertEquals(List.of(ana, bia), ids("java,spring|quarkus"));
+        assertEquals(List.of(bia), ids("java,-spring"));
+        assertEquals(List.of(), ids("java,go"));
+    }
+
+    @Test
+    void putReplacesOnlyTheUsersPreviousTags() {
+        index.put(ana, List.of("go"));
+        assertEquals(List.of(bia), ids("java"));
+        assertEquals(List.of(), ids("spring"));
+        assertEquals(List.of(ana, caio), ids("go"));
+        // bitmap vazio sai do índice
+        assertEquals(3, index.tagCount());
+    }
+
+    @Test
+    void removeClearsTagsAndEmptyBitmaps() {
+        index.remove(caio);
+        assertEquals(List.of(), ids("go"));
+        assertEquals(2, index.userCount());
+        assertEquals(3, index.tagCount());
+
+        index.put(caio, List.of("go"));
+        assertEquals(List.of(caio), ids("go"));
+    }
+
+    @Test
+    void pagesByOrdinalCursor() {
+        TagIndex.Page first = index.search(TagQuery.parse("java|go"), null, 2);
+        assertEquals(List.of(ana, bia), first.ids());
+        assertEquals(3, first.total());
+        TagIndex.Page second = index.search(TagQuery.parse("java|go"), first.nextCursor(), 2);
+        assertEquals(List.of(caio), second.ids());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void loadSkipsStreamedRowsOfUsersChangedMeanwhile() {
+        UUID davi = UUID.randomUUID();
+        index.setLoading(true);
+        index.put(ana, List.of("go"));
+        index.remove(caio);
+
+        index.applyChunk(List.of(
+                new Object[] { ana, "java" },
+                new Object[] { caio, "go" },
+                new Object[] { davi, "java" }));
+        index.setLoading(false);
+
+        assertEquals(List.of(bia, davi), ids("java"));
+        assertEquals(List.of(ana), ids("go"));
+    }
+
+    private List<UUID> ids(String expr) {
+        return index.search(TagQuery.parse(expr), null, 100).ids();
+    }
+}
@@ -0,0 +1,40 @@
+package br.ars.user_service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TagQueryTest {
+
+    @Test
+    void commaIsAndPipeIsOrDashExcludes() {
+        TagQuery q = TagQuery.parse(" Java , spring|QUARKUS ,-junior");
+        assertEquals(List.of(List.of("java"), List.of("spring", "quarkus")), q.all());
+        assertEquals(List.of("junior"), q.none());
+    }
+
+    @Test
+    void emptyTermsAndAlternativesAreSkipped() {
+        TagQuery q = TagQuery.parse("java,,|go|");
+        assertEquals(List.of(List.of("java"), List.of("go")), q.all());
+    }
+
+    @Test
+    void rejectsBlankAndExclusionOnly() {
+        assertThrows(IllegalArgumentException.class, () -> TagQuery.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> TagQuery.parse("  "));
+        assertThrows(IllegalArgumentException.class, () -> TagQuery.parse("-java,-go"));
+        assertThrows(IllegalArgumentException.class, () -> TagQuery.parse("java,-"));
+        assertThrows(IllegalArgumentException.class, () -> TagQuery.parse("java,|"));
+    }
+
+    @Test
+    void rejectsTooManyTerms() {
+        String expr = String.join(",", Collections.nCopies(TagQuery.MAX_TERMS + 1, "t"));
+        assertThrows(IllegalArgumentException.class, () -> TagQuery.parse(expr));
+    }
+}
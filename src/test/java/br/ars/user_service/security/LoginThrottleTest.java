@@ -0,0 +1,60 @@
+package br.ars.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class LoginThrottleTest {
+
+    private static LoginThrottle throttle(int freeFailures, long windowMs, int maxEntries) {
+        return new LoginThrottle(new SimpleMeterRegistry(), freeFailures, 60_000, 900_000, windowMs, maxEntries);
+    }
+
+    @Test
+    void locksAfterFreeFailuresAndSuccessResets() {
+        LoginThrottle t = throttle(2, 900_000, 100);
+        t.recordFailure("ana@x.com");
+        t.recordFailure("ana@x.com");
+        assertDoesNotThrow(() -> t.checkAllowed("ana@x.com"));
+
+        t.recordFailure("ana@x.com");
+        LoginThrottledException ex = assertThrows(LoginThrottledException.class, () -> t.checkAllowed("ana@x.com"));
+        assertTrue(ex.getRetryAfterMs() > 0);
+        assertDoesNotThrow(() -> t.checkAllowed("bia@x.com"));
+
+        t.recordSuccess("ana@x.com");
+        assertDoesNotThrow(() -> t.checkAllowed("ana@x.com"));
+    }
+
+    @Test
+    void fullMapKeepsExistingLocksAndSkipsNewKeys() {
+        LoginThrottle t = throttle(0, 900_000, 2);
+        t.recordFailure("a@x.com");
+        t.recordFailure("b@x.com");
+        t.recordFailure("c@x.com");
+
+        assertEquals(2, t.trackedCount());
+        assertThrows(LoginThrottledException.class, () -> t.checkAllowed("a@x.com"));
+        assertThrows(LoginThrottledException.class, () -> t.checkAllowed("b@x.com"));
+        assertDoesNotThrow(() -> t.checkAllowed("c@x.com"));
+
+        // chave já rastreada continua sendo atualizada mesmo com o mapa cheio
+        t.recordFailure("a@x.com");
+        assertEquals(2, t.trackedCount());
+    }
+
+    @Test
+    void fullMapMakesRoomFromExpiredEntries() throws InterruptedException {
+        LoginThrottle t = throttle(5, 1, 2);
+        t.recordFailure("a@x.com");
+        t.recordFailure("b@x.com");
+        Thread.sleep(5);
+
+        t.recordFailure("c@x.com");
+        assertEquals(1, t.trackedCount());
+    }
+}
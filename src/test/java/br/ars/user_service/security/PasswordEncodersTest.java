@@ -0,0 +1,59 @@
+package br.ars.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordEncodersTest {
+
+    @Test
+    void withoutTargetKeepsTheConfiguredMinimum() {
+        PasswordEncoder encoder = PasswordEncoders.create(bcrypt(0, 4, 6));
+
+        String hash = encoder.encode("segredo");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("segredo", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void calibrationSwapsToAHigherCostAndOldHashesAskForUpgrade() throws InterruptedException {
+        PasswordEncoder encoder = PasswordEncoders.create(bcrypt(60_000, 4, 5));
+        String before = new BCryptPasswordEncoder(4).encode("segredo");
+
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!encoder.encode("x").startsWith("{bcrypt}$2a$05$")) {
+            assertTrue(System.nanoTime() < until, "calibração não trocou o encoder");
+            Thread.sleep(20);
+        }
+
+        assertTrue(encoder.matches("segredo", "{bcrypt}" + before));
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + before));
+    }
+
+    @Test
+    void legacyHashWithoutPrefixStillMatchesAndIsUpgraded() {
+        PasswordEncoder encoder = PasswordEncoders.create(bcrypt(0, 4, 6));
+        String legacy = new BCryptPasswordEncoder(4).encode("segredo");
+
+        assertTrue(encoder.matches("segredo", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void unknownAlgorithmIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordEncoders.create(
+                new PasswordEncoders.Settings("md5", 0, 4, 6, 1024, 1, 1, 2)));
+    }
+
+    private static PasswordEncoders.Settings bcrypt(long targetMs, int min, int max) {
+        return new PasswordEncoders.Settings("bcrypt", targetMs, min, max, 1024, 1, 1, 2);
+    }
+}
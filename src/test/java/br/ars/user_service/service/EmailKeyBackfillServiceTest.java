@@ -0,0 +1,95 @@
+package br.ars.user_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import br.ars.user_service.repository.UserRepository;
+import br.ars.user_service.repository.UserRepository.EmailKeyPending;
+
+class EmailKeyBackfillServiceTest {
+
+    private final UserRepository repo = mock(UserRepository.class);
+    private EmailKeyBackfillService backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new EmailKeyBackfillService(repo, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(backfill, "enabled", true);
+        ReflectionTestUtils.setField(backfill, "batchSize", 500);
+        ReflectionTestUtils.setField(backfill, "pauseMs", 0L);
+    }
+
+    @Test
+    void noLegacyRowsSkipsFallbackWithoutScanning() {
+        when(repo.existsByEmailKeyIsNull()).thenReturn(false);
+
+        backfill.startOnReady();
+
+        assertFalse(backfill.legacyRowsRemain());
+        assertEquals(Optional.empty(), backfill.findLegacyId("a@x.com"));
+        verify(repo, never()).findPendingEmailKeys(any(), any());
+    }
+
+    @Test
+    void disabledBackfillStillProbesAndMatchesWithNfkc() {
+        ReflectionTestUtils.setField(backfill, "enabled", false);
+        UUID id = UUID.randomUUID();
+        when(repo.existsByEmailKeyIsNull()).thenReturn(true);
+        when(repo.findPendingEmailKeys(any(), any())).thenReturn(List.of(row(id, " ＵＳＥＲ@Example.com ")));
+
+        backfill.startOnReady();
+
+        assertTrue(backfill.legacyRowsRemain());
+        assertEquals(Optional.of(id), backfill.findLegacyId("user@example.com"));
+        assertEquals(Optional.empty(), backfill.findLegacyId("other@example.com"));
+    }
+
+    @Test
+    void conflictingRowIsMarkedAndFallbackTurnsOff() {
+        UUID ok = UUID.randomUUID();
+        UUID dup = UUID.randomUUID();
+        when(repo.findPendingEmailKeys(any(), any()))
+                .thenReturn(List.of(row(ok, "a@x.com"), row(dup, "B@x.com")), List.of());
+        when(repo.setEmailKey(ok, "a@x.com")).thenReturn(1);
+        when(repo.setEmailKey(dup, "b@x.com")).thenThrow(new DataIntegrityViolationException("ux_users_email_key"));
+        when(repo.existsByEmailKeyIsNull()).thenReturn(false);
+
+        backfill.run();
+
+        verify(repo).setEmailKey(eq(dup), eq(EmailKeyBackfillService.DUPLICATE_PREFIX + dup));
+        assertFalse(backfill.legacyRowsRemain());
+    }
+
+    @Test
+    void failedProbeKeepsFallbackOn() {
+        when(repo.existsByEmailKeyIsNull()).thenThrow(new IllegalStateException("db down"));
+
+        backfill.refreshLegacyFlag();
+
+        assertTrue(backfill.legacyRowsRemain());
+    }
+
+    private static EmailKeyPending row(UUID id, String email) {
+        return new EmailKeyPending() {
+            @Override public UUID getId() { return id; }
+            @Override public String getEmail() { return email; }
+        };
+    }
+}
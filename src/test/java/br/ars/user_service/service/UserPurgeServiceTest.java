@@ -0,0 +1,137 @@
+package br.ars.user_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import br.ars.user_service.cdn.BunnyCdnClient;
+import br.ars.user_service.changes.UserChangeLog;
+import br.ars.user_service.events.UserDeletedEvent;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.repository.AvatarUploadOutboxRepository;
+import br.ars.user_service.repository.UserRepository;
+import br.ars.user_service.repository.UserRepository.PurgeInfo;
+import br.ars.user_service.security.TokenRevocationStore;
+
+class UserPurgeServiceTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final AvatarUploadOutboxRepository outbox = mock(AvatarUploadOutboxRepository.class);
+    private final DbRequestQueueService db = mock(DbRequestQueueService.class);
+    private final TokenRevocationStore revocations = mock(TokenRevocationStore.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final BunnyCdnClient bunny = mock(BunnyCdnClient.class);
+    private final UserChangeLog changeLog = mock(UserChangeLog.class);
+    private UserPurgeService purge;
+
+    @BeforeEach
+    void setUp() {
+        when(db.write(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        purge = new UserPurgeService(users, outbox, db, revocations, events, bunny, changeLog,
+                new SimpleMeterRegistry(), 1, 100, 2, 3, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        purge.shutdown();
+    }
+
+    @Test
+    void deleteNowRemovesWhatExistsAndRevokesAfterCommit() {
+        UUID present = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(users.findPurgeInfo(anyCollection())).thenReturn(List.of(info(present, "a@x.com", null)));
+
+        List<PurgeInfo> deleted = purge.deleteNow(List.of(present, missing));
+
+        assertEquals(1, deleted.size());
+        verify(changeLog).appendDeleted(List.of(present));
+        verify(outbox).deleteByUserIds(List.of(present));
+        verify(users).deleteTagsOf(List.of(present));
+        verify(users).deleteAllByIds(List.of(present));
+        verify(revocations).revokeAllForUsers(List.of(present));
+        verify(events).publishEvent(new UserDeletedEvent(present, "a@x.com"));
+    }
+
+    @Test
+    void nothingFoundTouchesNothingElse() {
+        when(users.findPurgeInfo(anyCollection())).thenReturn(List.of());
+
+        assertTrue(purge.deleteNow(List.of(UUID.randomUUID())).isEmpty());
+
+        verify(users, never()).deleteAllByIds(anyCollection());
+        verify(revocations, never()).revokeAllForUsers(anyCollection());
+    }
+
+    @Test
+    void avatarDeletionRetriesThenGivesUp() throws Exception {
+        when(bunny.keyFromPublicUrl("https://cdn/ok.png")).thenReturn("ok.png");
+        when(bunny.keyFromPublicUrl("https://cdn/bad.png")).thenReturn("bad.png");
+        doThrow(new IllegalStateException("503")).doNothing().when(bunny).deleteObject("ok.png");
+        doThrow(new IllegalStateException("503")).when(bunny).deleteObject("bad.png");
+
+        assertTrue(purge.deleteAvatar("https://cdn/ok.png").get(5, TimeUnit.SECONDS));
+        assertFalse(purge.deleteAvatar("https://cdn/bad.png").get(5, TimeUnit.SECONDS));
+
+        verify(bunny, times(2)).deleteObject("ok.png");
+        verify(bunny, times(3)).deleteObject("bad.png");
+    }
+
+    @Test
+    void jobRunsChunkByChunkAndReportsProgress() throws InterruptedException {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        when(users.findPurgeInfo(List.of(a))).thenReturn(List.of(info(a, "a@x.com", "https://cdn/a.png")));
+        when(users.findPurgeInfo(List.of(b))).thenReturn(List.of());
+        when(bunny.keyFromPublicUrl("https://cdn/a.png")).thenReturn("a.png");
+        doNothing().when(bunny).deleteObject("a.png");
+
+        UserPurgeService.Job job = purge.submit(List.of(a, b, a));
+        Map<String, Object> progress = awaitDone(job);
+
+        assertEquals("done", progress.get("status"));
+        assertEquals(2, progress.get("total"));
+        assertEquals(1L, progress.get("deleted"));
+        assertEquals(1L, progress.get("notFound"));
+        assertEquals(1L, progress.get("avatarsDeleted"));
+    }
+
+    private static Map<String, Object> awaitDone(UserPurgeService.Job job) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            Map<String, Object> p = job.progress();
+            if (!"queued".equals(p.get("status")) && !"running".equals(p.get("status"))) return p;
+            assertTrue(System.nanoTime() < until, "job não terminou");
+            Thread.sleep(10);
+        }
+    }
+
+    private static PurgeInfo info(UUID id, String emailKey, String avatarUrl) {
+        return new PurgeInfo() {
+            @Override public UUID getId() { return id; }
+            @Override public String getEmailKey() { return emailKey; }
+            @Override public String getAvatarUrl() { return avatarUrl; }
+        };
+    }
+}
@@ -0,0 +1,224 @@
+package br.ars.user_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import br.ars.user_service.cdn.AvatarUploadService;
+import br.ars.user_service.cdn.BunnyCdnClient;
+import br.ars.user_service.changes.UserChangeLog;
+import br.ars.user_service.datasource.RecentWrites;
+import br.ars.user_service.dto.RegisterRequest;
+import br.ars.user_service.dto.UpdateProfileRequest;
+import br.ars.user_service.dto.UserView;
+import br.ars.user_service.events.UserRegisteredEvent;
+import br.ars.user_service.events.UserUpdatedEvent;
+import br.ars.user_service.mapper.UserMapper;
+import br.ars.user_service.models.User;
+import br.ars.user_service.queue.DbRequestQueueService;
+import br.ars.user_service.registration.MxVerdictCache;
+import br.ars.user_service.repository.UserRepository;
+import br.ars.user_service.security.JwtUtil;
+import br.ars.user_service.security.LoginThrottle;
+import br.ars.user_service.security.TokenRevocationStore;
+
+class UserServiceTest {
+
+    private final UserRepository repo = mock(UserRepository.class);
+    private final UserMapper mapper = mock(UserMapper.class);
+    private final PasswordEncoder encoder = mock(PasswordEncoder.class);
+    private final BunnyCdnClient bunny = mock(BunnyCdnClient.class);
+    private final DbRequestQueueService db = mock(DbRequestQueueService.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final AvatarUploadService avatarUploads = mock(AvatarUploadService.class);
+    private final UserPurgeService purge = mock(UserPurgeService.class);
+    private final UserChangeLog changeLog = mock(UserChangeLog.class);
+    private final EmailKeyBackfillService backfill = mock(EmailKeyBackfillService.class);
+    private UserService service;
+
+    @BeforeEach
+    void setUp() {
+        when(db.read(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        when(db.write(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        when(db.readPrimary(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        when(encoder.encode(anyString())).thenAnswer(inv -> "hash:" + inv.getArgument(0));
+        when(bunny.publicUrl(anyString())).thenAnswer(inv -> "https://cdn/" + inv.getArgument(0));
+        when(backfill.findLegacyId(any())).thenReturn(Optional.empty());
+        when(repo.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(avatarUploads.upload(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        service = new UserService(repo, mapper, encoder, mock(JwtUtil.class), bunny, db,
+                mock(TokenRevocationStore.class), events, avatarUploads, mock(LoginThrottle.class), purge,
+                mock(RecentWrites.class), changeLog, mock(MxVerdictCache.class), backfill,
+                Runnable::run, new SimpleMeterRegistry());
+    }
+
+    // ===== registro =====
+
+    @Test
+    void registerHashesBeforeTheWriteAndUploadsAndPublishesAfterCommit() {
+        when(mapper.toEntity(any())).thenAnswer(inv -> entity(inv.getArgument(0)));
+        byte[] avatar = { 1, 2, 3 };
+
+        UserView saved = service.register(request(" Ana@Example.com "), avatar, "foto.png", "image/png");
+
+        assertEquals("ana@example.com", saved.email());
+        assertEquals("ana@example.com", saved.emailKey());
+        String key = "users/ana" + saved.id() + ".png";
+        assertEquals("https://cdn/" + key, saved.avatarUrl());
+        ArgumentCaptor<User> inserted = ArgumentCaptor.forClass(User.class);
+        InOrder order = inOrder(encoder, repo, changeLog, avatarUploads, events);
+        order.verify(encoder).encode("segredo");
+        order.verify(repo).save(inserted.capture());
+        order.verify(changeLog).append(eq(UserChangeLog.REGISTERED), any());
+        order.verify(avatarUploads).uploadAfterCommit(saved.id(), key, avatar, "image/png");
+        order.verify(events).publishEvent(any(UserRegisteredEvent.class));
+        assertEquals("hash:segredo", inserted.getValue().getSenha());
+    }
+
+    @Test
+    void duplicateEmailIsRejectedBeforeHashing() {
+        when(repo.existsByEmailKey("ana@example.com")).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.register(request("ana@example.com"), null, null, null));
+
+        verify(encoder, never()).encode(any());
+        verify(db, never()).write(any());
+    }
+
+    // ===== alteração de perfil =====
+
+    @Test
+    void updateWithoutChangesDoesNotWriteOrPublish() {
+        User u = stored("Ana", null);
+        when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+        UpdateProfileRequest req = new UpdateProfileRequest();
+        req.setNome(" Ana ");
+
+        UserView v = service.updateProfile(u.getId(), null, req);
+
+        assertEquals(3L, v.version());
+        verify(repo, never()).saveAndFlush(any());
+        verify(events, never()).publishEvent(any(UserUpdatedEvent.class));
+    }
+
+    @Test
+    void updateAppliesChangedFieldsAndPublishesAfterCommit() {
+        User u = stored("Ana", null);
+        when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+        UpdateProfileRequest req = new UpdateProfileRequest();
+        req.setNome("Bia");
+        req.setTags(List.of(" java ", "java", ""));
+
+        UserView v = service.updateProfile(u.getId(), 3L, req);
+
+        assertEquals("Bia", v.nome());
+        assertEquals(List.of("java"), v.tags());
+        InOrder order = inOrder(repo, changeLog, events);
+        order.verify(repo).saveAndFlush(u);
+        order.verify(changeLog).append(eq(UserChangeLog.UPDATED), any());
+        order.verify(events).publishEvent(any(UserUpdatedEvent.class));
+    }
+
+    @Test
+    void updateWithStaleIfMatchIsAConflict() {
+        User u = stored("Ana", null);
+        when(repo.findById(u.getId())).thenReturn(Optional.of(u));
+        UpdateProfileRequest req = new UpdateProfileRequest();
+        req.setNome("Bia");
+
+        assertThrows(VersionConflictException.class, () -> service.updateProfile(u.getId(), 2L, req));
+        verify(repo, never()).saveAndFlush(any());
+    }
+
+    // ===== troca de avatar =====
+
+    @Test
+    void replaceAvatarDeletesTheUrlReadInsideTheWriteTransaction() {
+        UUID id = UUID.randomUUID();
+        User before = stored(id, "Ana", "https://cdn/users/old-1.png");
+        User inTx = stored(id, "Ana", "https://cdn/users/old-2.png");
+        when(repo.findById(id)).thenReturn(Optional.of(before), Optional.of(inTx));
+
+        UserView v = service.replaceAvatar(id, null, new byte[] { 1 }, "a.png", "image/png");
+
+        assertTrue(v.avatarUrl().startsWith("https://cdn/users/ana" + id + "-"));
+        verify(purge).deleteAvatar("https://cdn/users/old-2.png");
+        verify(purge, never()).deleteAvatar("https://cdn/users/old-1.png");
+        verify(purge, never()).deleteAvatar(v.avatarUrl());
+        verify(events).publishEvent(any(UserUpdatedEvent.class));
+    }
+
+    @Test
+    void failedAvatarUpdateDeletesTheNewObject() {
+        UUID id = UUID.randomUUID();
+        User u = stored(id, "Ana", "https://cdn/users/old.png");
+        when(repo.findById(id)).thenReturn(Optional.of(u));
+        when(repo.saveAndFlush(any())).thenThrow(new IllegalStateException("db"));
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.replaceAvatar(id, null, new byte[] { 1 }, "a.png", "image/png"));
+
+        verify(avatarUploads).upload(key.capture(), any(), any());
+        verify(purge).deleteAvatar("https://cdn/" + key.getValue());
+        verify(purge, never()).deleteAvatar("https://cdn/users/old.png");
+        verify(events, never()).publishEvent(any(UserUpdatedEvent.class));
+    }
+
+    private static RegisterRequest request(String email) {
+        RegisterRequest r = new RegisterRequest();
+        r.setNome("Ana Souza");
+        r.setEmail(email);
+        r.setSenha("segredo");
+        return r;
+    }
+
+    private static User entity(RegisterRequest r) {
+        User u = new User();
+        u.setNome(r.getNome());
+        u.setEmail(r.getEmail());
+        u.setSenha(r.getSenha());
+        return u;
+    }
+
+    private static User stored(String nome, String avatarUrl) {
+        return stored(UUID.randomUUID(), nome, avatarUrl);
+    }
+
+    private static User stored(UUID id, String nome, String avatarUrl) {
+        User u = new User();
+        u.setId(id);
+        u.setNome(nome);
+        u.setEmail("ana@example.com");
+        u.setEmailKey("ana@example.com");
+        u.setAvatarUrl(avatarUrl);
+        u.setTags(new ArrayList<>());
+        u.setVersion(3L);
+        return u;
+    }
+}
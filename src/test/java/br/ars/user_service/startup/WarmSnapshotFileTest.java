@@ -0,0 +1,81 @@
+package br.ars.user_service.startup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.ars.user_service.registration.MxVerdictCache;
+
+class WarmSnapshotFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        Path file = dir.resolve("warm.snap");
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        List<WarmSnapshotFile.ProfileEntry> profiles = List.of(
+                new WarmSnapshotFile.ProfileEntry("j", a, 3, utf8("{\"nome\":\"Ana\"}")),
+                new WarmSnapshotFile.ProfileEntry("c", b, 7, utf8("")));
+        List<MxVerdictCache.Verdict> mx = List.of(new MxVerdictCache.Verdict("exemplo.com.br", true, 123L));
+
+        long bytes = WarmSnapshotFile.write(file, 42L, profiles, mx);
+        assertEquals(Files.size(file), bytes);
+
+        WarmSnapshotFile.Contents c = WarmSnapshotFile.read(file);
+        assertEquals(42L, c.createdAtMs());
+        assertEquals(2, c.profiles().size());
+        WarmSnapshotFile.ProfileEntry first = c.profiles().get(0);
+        assertEquals("j", first.kind());
+        assertEquals(a, first.id());
+        assertEquals(3, first.version());
+        assertEquals("{\"nome\":\"Ana\"}", StandardCharsets.UTF_8.decode(first.json()).toString());
+        assertEquals(0, c.profiles().get(1).json().remaining());
+        assertEquals(mx, c.mx());
+    }
+
+    @Test
+    void missingFileIsColdStart() throws IOException {
+        assertNull(WarmSnapshotFile.read(dir.resolve("nada.snap")));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path file = dir.resolve("warm.snap");
+        WarmSnapshotFile.write(file, 1L, List.of(
+                new WarmSnapshotFile.ProfileEntry("j", UUID.randomUUID(), 1, utf8("{}"))), List.of());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 1);
+        }
+        assertThrows(IOException.class, () -> WarmSnapshotFile.read(file));
+    }
+
+    @Test
+    void badMagicIsRejected() throws IOException {
+        Path file = dir.resolve("warm.snap");
+        WarmSnapshotFile.write(file, 1L, List.of(), List.of());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, 0xCAFEBABE), 0);
+        }
+        assertThrows(IOException.class, () -> WarmSnapshotFile.read(file));
+    }
+
+    private static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,53 @@
+package br.ars.user_service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegatives() {
+        BloomFilter f = new BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) f.put("jti-" + i);
+        for (int i = 0; i < 10_000; i++) assertTrue(f.mightContain("jti-" + i));
+    }
+
+    @Test
+    void falsePositiveRateNearTarget() {
+        BloomFilter f = new BloomFilter(10_000, 10);
+        for (int i = 0; i < 10_000; i++) f.put("jti-" + i);
+        int fp = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (f.mightContain("other-" + i)) fp++;
+        }
+        // ~1% esperado com 10 bits/chave; folga para o bloco de 512 bits
+        assertTrue(fp < 3_000, "falsos positivos: " + fp);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter f = new BloomFilter(100);
+        assertFalse(f.mightContain("x"));
+        assertEquals(7, f.hashes());
+        assertEquals(128, f.sizeInBytes()); // 1000 bits → 2 blocos de 512
+    }
+
+    @Test
+    void roundTripsThroughWords() {
+        BloomFilter f = new BloomFilter(1_000);
+        for (int i = 0; i < 1_000; i++) f.put("k" + i);
+        BloomFilter copy = new BloomFilter(f.toWords(), f.hashes());
+        for (int i = 0; i < 1_000; i++) assertTrue(copy.mightContain("k" + i));
+        assertEquals(f.sizeInBytes(), copy.sizeInBytes());
+    }
+
+    @Test
+    void rejectsPartialBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(new long[0], 7));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(new long[9], 7));
+    }
+}
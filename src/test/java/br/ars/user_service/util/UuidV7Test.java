@@ -0,0 +1,40 @@
+package br.ars.user_service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+    @Test
+    void strictlyIncreasingUnderBurst() {
+        UUID prev = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7.next();
+            assertTrue(next.compareTo(prev) > 0, prev + " >= " + next);
+            prev = next;
+        }
+    }
+
+    @Test
+    void versionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long ts = UuidV7.timestampMillis(id);
+        // o contador pode adiantar o timestamp alguns ms em rajadas (outros testes no mesmo processo)
+        assertTrue(ts >= before && ts <= after + 1_000, "ts=" + ts);
+    }
+
+    @Test
+    void timestampRejectsOtherVersions() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestampMillis(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,81 @@
+package br.ars.user_service.web;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import br.ars.user_service.cache.ProfileBytesCache;
+import br.ars.user_service.cache.UserVersionIndex;
+import br.ars.user_service.dto.UserView;
+
+class ProfileResponsesTest {
+
+    private final UserVersionIndex versions = new UserVersionIndex(new SimpleMeterRegistry(), 60_000, 100);
+    private final ProfileResponses responses = new ProfileResponses(
+            new ProfileBytesCache(new ObjectMapper(), new SimpleMeterRegistry(), 100), versions);
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void respondsWithStrongEtagAndThen304FromTheVersionIndex() {
+        ResponseEntity<byte[]> ok = responses.respond(new MockHttpServletRequest(), ProfileBytesCache.KIND_USER,
+                view(4), v -> Map.of("id", v.id().toString()));
+        String etag = ok.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, ok.getStatusCode());
+        assertEquals(ProfileBytesCache.etag(ProfileBytesCache.KIND_USER, WireFormat.JSON, id, 4), etag);
+
+        MockHttpServletRequest again = new MockHttpServletRequest();
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        ResponseEntity<byte[]> notModified = responses.notModified(again, ProfileBytesCache.KIND_USER, versions.byId(id));
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+    }
+
+    @Test
+    void gzipVariantHasItsOwnEtagButMatchesTheSameVersion() {
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, br");
+        ResponseEntity<byte[]> gz = responses.respond(req, ProfileBytesCache.KIND_USER, view(1), v -> Map.of("a", 1));
+
+        String etag = gz.getHeaders().getETag();
+        assertEquals("gzip", gz.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(etag.endsWith("-gz\""));
+        assertArrayEquals(new byte[] { 0x1f, (byte) 0x8b }, java.util.Arrays.copyOf(gz.getBody(), 2));
+        assertTrue(ProfileResponses.matches(etag, ProfileBytesCache.etag(ProfileBytesCache.KIND_USER, WireFormat.JSON, id, 1)));
+    }
+
+    @Test
+    void staleIfNoneMatchIsNotA304() {
+        versions.record(id, null, 5);
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader(HttpHeaders.IF_NONE_MATCH, ProfileBytesCache.etag(ProfileBytesCache.KIND_USER, WireFormat.JSON, id, 4));
+
+        assertNull(responses.notModified(req, ProfileBytesCache.KIND_USER, versions.byId(id)));
+    }
+
+    @Test
+    void ifMatchAcceptsAnyRepresentationOfTheSameUser() {
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader(HttpHeaders.IF_MATCH, "W/\"p-" + id + "-7-gz\"");
+        assertEquals(7L, ProfileResponses.ifMatchVersion(req, id));
+
+        MockHttpServletRequest other = new MockHttpServletRequest();
+        other.addHeader(HttpHeaders.IF_MATCH, "\"p-" + UUID.randomUUID() + "-7\"");
+        assertThrows(IllegalArgumentException.class, () -> ProfileResponses.ifMatchVersion(other, id));
+    }
+
+    private UserView view(long version) {
+        return new UserView(id, "Ana", "ana@x.com", "ana@x.com", null, null, null, null, null, null, version);
+    }
+}
@@ -0,0 +1,47 @@
+package br.ars.user_service.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class WireFormatTest {
+
+    @Test
+    void jsonByDefault() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(null));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(" "));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/json"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("text/html, application/xhtml+xml"));
+    }
+
+    @Test
+    void binaryOnlyWhenAskedFor() {
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor"));
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate("application/x-jackson-smile"));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor, application/x-jackson-smile"));
+    }
+
+    @Test
+    void qualityDecides() {
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/json;q=0.5, application/cbor"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0.5, application/json"));
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate("application/cbor;q=0.2, application/x-jackson-smile;q=0.8"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0, application/json"));
+        // curinga na frente do binário: navegador/cliente genérico recebe JSON
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*, application/cbor"));
+    }
+
+    @Test
+    void malformedAcceptFallsBackToJson() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("cbor"));
+    }
+
+    @Test
+    void etagSuffixIsStripped() {
+        assertEquals("3", WireFormat.stripSuffix("3-cbor"));
+        assertEquals("3", WireFormat.stripSuffix("3-smile"));
+        assertEquals("3", WireFormat.stripSuffix("3"));
+        assertEquals("-cbor", WireFormat.CBOR.etagSuffix());
+    }
+}